@@ -10,6 +10,8 @@ plugins {
 }
 
 val fabricApiVersion: String = providers.gradleProperty("fabric_api_version").get()
+// Modules that are shipped as part of the library, as opposed to development-only projects
+val libraryModules = subprojects.filter { it.name != "cardinal-components-benchmarks" }
 
 allprojects {
     apply(plugin = "java-library")
@@ -60,6 +62,7 @@ allprojects {
         modImplementation(fabricApi.module("fabric-entity-events-v1", fabricApiVersion))
         modImplementation(fabricApi.module("fabric-networking-api-v1", fabricApiVersion))
         modImplementation(fabricApi.module("fabric-lifecycle-events-v1", fabricApiVersion))
+        modImplementation(fabricApi.module("fabric-command-api-v2", fabricApiVersion))
 
         modCompileOnly(fabricApi.module("fabric-gametest-api-v1", fabricApiVersion))
         modLocalImplementation("org.ladysnake:elmendorf:${props["elmendorf_version"]}")
@@ -226,7 +229,7 @@ extensions.configure(PublishingExtension::class.java) {
 
             pom.withXml {
                 val depsNode = asNode().appendNode("dependencies")
-                subprojects.forEach {
+                libraryModules.forEach {
                     val depNode = depsNode.appendNode("dependency")
                     depNode.appendNode("groupId", it.group)
                     depNode.appendNode("artifactId", it.name)
@@ -257,7 +260,7 @@ extensions.configure(GithubReleaseExtension::class.java) {
     owner = providers.gradleProperty("owners")
 }
 
-subprojects.forEach { tasks.remapJar.configure { dependsOn("${it.path}:remapJar") } }
+libraryModules.forEach { tasks.remapJar.configure { dependsOn("${it.path}:remapJar") } }
 
 dependencies {
     // used by the test mod
@@ -279,7 +282,7 @@ dependencies {
     testCompileOnly("com.google.code.findbugs:jsr305:3.0.2")
 
     afterEvaluate {
-        subprojects.forEach {
+        libraryModules.forEach {
             api(project(path = ":${it.name}", configuration = "namedElements"))
             include(project("${it.name}:"))
             "testmodImplementation"(project("${it.name}:").sourceSets["testmod"].output)
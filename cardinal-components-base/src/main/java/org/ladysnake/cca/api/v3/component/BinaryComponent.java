@@ -0,0 +1,111 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.api.v3.component;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import net.minecraft.nbt.NbtByteArray;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryWrapper;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
+
+/**
+ * A component that serializes its data directly to a byte buffer, bypassing {@link NbtCompound} trees.
+ *
+ * <p>Implementations typically delegate to one or more {@link PacketCodec}s. The binary form gets used:
+ * <ul>
+ *     <li>by the default {@linkplain AutoSyncedComponent#writeSyncPacket sync} implementation, if this component is also an {@link AutoSyncedComponent}</li>
+ *     <li>by component containers when saving, where the data is stored as a single {@link NbtByteArray}
+ *     instead of a compound tag</li>
+ * </ul>
+ *
+ * <p>The binary format is opaque to datafixers and external tools. Implementations should write a version
+ * number of their own if their format is expected to evolve. Data saved before a component switched to this interface
+ * keeps being loaded through {@link #readFromNbt(NbtCompound, RegistryWrapper.WrapperLookup)}.
+ *
+ * @since 6.1.0
+ */
+@ApiStatus.Experimental
+public interface BinaryComponent extends Component {
+    /**
+     * Writes this component's data to {@code buf}.
+     *
+     * @param buf the buffer to write the data to
+     */
+    @Contract(mutates = "param1")
+    void writeBinary(RegistryByteBuf buf);
+
+    /**
+     * Reads this component's data from {@code buf}.
+     *
+     * @param buf a buffer containing data previously written by {@link #writeBinary(RegistryByteBuf)}
+     */
+    @Contract(mutates = "this")
+    void readBinary(RegistryByteBuf buf);
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec The default implementation reads binary data stored by {@link #writeToNbt(NbtCompound, RegistryWrapper.WrapperLookup)}.
+     * @implNote Implementations that used to have a different NBT format should override this method to handle older data.
+     */
+    @Override
+    default void readFromNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
+        if (tag.contains("cca:binary", NbtElement.BYTE_ARRAY_TYPE)) {
+            this.readBinary(new RegistryByteBuf(Unpooled.wrappedBuffer(tag.getByteArray("cca:binary")), asRegistryManager(registryLookup)));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec The default implementation stores the binary data in a byte array. Component containers
+     * do not call this method, storing the binary data directly instead.
+     */
+    @Override
+    default void writeToNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            this.writeBinary(new RegistryByteBuf(buf, asRegistryManager(registryLookup)));
+            tag.putByteArray("cca:binary", ByteBufUtil.getBytes(buf));
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * {@link RegistryByteBuf} needs a full registry manager, which plain lookups (used by some commands and data generators)
+     * are not. Those fall back to the static registries.
+     */
+    private static DynamicRegistryManager asRegistryManager(RegistryWrapper.WrapperLookup registryLookup) {
+        return registryLookup instanceof DynamicRegistryManager registryManager ? registryManager : DynamicRegistryManager.of(Registries.REGISTRIES);
+    }
+}
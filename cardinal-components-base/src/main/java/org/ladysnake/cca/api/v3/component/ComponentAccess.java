@@ -22,6 +22,7 @@
  */
 package org.ladysnake.cca.api.v3.component;
 
+import org.jetbrains.annotations.ApiStatus;
 import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
 import org.ladysnake.cca.api.v3.component.sync.ComponentPacketWriter;
 import org.ladysnake.cca.api.v3.component.sync.PlayerSyncPredicate;
@@ -96,6 +97,22 @@ public interface ComponentAccess {
         key.sync(this.asComponentProvider(), packetWriter, predicate);
     }
 
+    /**
+     * Schedules a synchronization of the component of the desired type at the end of the current server tick.
+     *
+     * <p>This method has no visible effect if {@linkplain #asComponentProvider() this provider} does not support synchronization, or
+     * the associated component does not implement an adequate {@linkplain AutoSyncedComponent synchronization interface}.
+     *
+     * @param key the key object for the type of component to synchronize
+     * @throws NoSuchElementException if the provider does not provide this type of component
+     * @see ComponentKey#scheduleSync(Object)
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    default void scheduleComponentSync(ComponentKey<?> key) {
+        key.scheduleSync(this.asComponentProvider());
+    }
+
     default ComponentProvider asComponentProvider() {
         return (ComponentProvider) this;
     }
@@ -43,6 +43,7 @@ import org.ladysnake.cca.internal.base.asm.StaticComponentPluginBase;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * An opaque container for components.
@@ -88,6 +89,25 @@ public interface ComponentContainer extends NbtSerializable {
     @AsmGeneratedCallback(ClientUnloadAwareComponent.class)
     void onClientUnload();
 
+    /**
+     * Performs the given action for each component in this container, along with its key.
+     *
+     * <p>Components are visited in the same order as {@link #keys()}. Generated containers implement this method
+     * by reading their fields directly, which makes it cheaper than looking up every key in {@link #keys()}.
+     *
+     * @param action the action to perform on each component
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    default void forEachComponent(BiConsumer<? super ComponentKey<?>, ? super Component> action) {
+        for (ComponentKey<?> key : keys()) {
+            Component component = key.getInternal(this);
+            if (component != null) {
+                action.accept(key, component);
+            }
+        }
+    }
+
     /**
      * Reverse-lookup for a key based on a component
      *
@@ -108,6 +128,39 @@ public interface ComponentContainer extends NbtSerializable {
         return null;
     }
 
+    /**
+     * Checks whether this container may hold data that has not been persisted since the last call to {@link #markSaved()}.
+     *
+     * <p>Only {@link DirtyTrackingComponent}s can tell whether their data changed. Containers holding any other kind
+     * of component always report themselves as dirty.
+     *
+     * @return {@code true} if at least one component in this container may need to be saved again
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    default boolean isDirty() {
+        for (ComponentKey<?> key : keys()) {
+            if (!(key.getInternal(this) instanceof DirtyTrackingComponent tracked) || tracked.isDirty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records that the data last written by {@link #toTag(NbtCompound, RegistryWrapper.WrapperLookup)} has been persisted.
+     *
+     * <p>Calling {@code toTag} alone does not affect {@link #isDirty()}, as it is not necessarily part of a save
+     * (e.g. when a command queries an entity's data). Providers that only save their components when they are
+     * dirty must call this method after each save.
+     *
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    default void markSaved() {
+        // NO-OP
+    }
+
     /**
      * Reads this object's properties from a {@link NbtCompound}.
      *
@@ -227,6 +280,42 @@ public interface ComponentContainer extends NbtSerializable {
                 return this;
             }
 
+            /**
+             * Adds a component that only gets created the first time it is accessed.
+             *
+             * <p>Until then, the component is skipped when serializing, synchronizing, or ticking the container,
+             * and the container keeps a reference to the factory argument.
+             *
+             * @since 6.1.0
+             */
+            @ApiStatus.Experimental
+            @Contract(mutates = "this")
+            public <C extends Component> Builder<T> lazyComponent(ComponentKey<? super C> key, Class<C> implClass, ComponentFactory<T, ? extends C> factory, Set<ComponentKey<?>> dependencies) {
+                super.component(key, implClass, factory, dependencies, true);
+                return this;
+            }
+
+            /**
+             * Sets the number of server ticks between two calls to {@link ServerTickingComponent#serverTick()}
+             * for the component associated with {@code key}.
+             *
+             * <p>Containers get spread over every tick of the interval based on their provider's identity hash,
+             * so that the work does not pile up on the same tick. This setting has no effect on components
+             * that do not implement {@link ServerTickingComponent}.
+             *
+             * @param key          the key of a component previously added to this builder
+             * @param tickInterval a strictly positive number of ticks
+             * @throws IllegalArgumentException if {@code key} was not added to this builder, or {@code tickInterval} is not positive
+             * @since 6.1.0
+             */
+            @ApiStatus.Experimental
+            @Contract(mutates = "this")
+            @Override
+            public Builder<T> tickInterval(ComponentKey<?> key, int tickInterval) {
+                super.tickInterval(key, tickInterval);
+                return this;
+            }
+
             /**
              * Sets a suffix for the generated factory class' {@link Class#getName() name}.
              *
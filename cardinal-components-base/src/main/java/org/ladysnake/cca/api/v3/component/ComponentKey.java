@@ -22,21 +22,25 @@
  */
 package org.ladysnake.cca.api.v3.component;
 
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
-import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
-import net.minecraft.network.PacketCallbacks;
 import net.minecraft.network.RegistryByteBuf;
 import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.server.network.ServerPlayerEntity;
-import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.Nullable;
 import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
 import org.ladysnake.cca.api.v3.component.sync.ComponentPacketWriter;
+import org.ladysnake.cca.api.v3.component.sync.DeltaSyncedComponent;
 import org.ladysnake.cca.api.v3.component.sync.PlayerSyncPredicate;
+import org.ladysnake.cca.internal.base.AbstractComponentContainer;
+import org.ladysnake.cca.internal.base.ComponentEvents;
+import org.ladysnake.cca.internal.base.ComponentRegistryImpl;
+import org.ladysnake.cca.internal.base.ComponentSyncScheduler;
 import org.ladysnake.cca.internal.base.ComponentsInternals;
+import org.ladysnake.cca.internal.base.DeltaSyncInternals;
 import org.ladysnake.cca.internal.base.asm.CcaBootstrap;
 
 import java.util.NoSuchElementException;
@@ -62,6 +66,22 @@ public abstract class ComponentKey<C extends Component> {
         return this.componentClass;
     }
 
+    /**
+     * Returns the raw id of this key.
+     *
+     * <p>Raw ids are dense, starting at {@code 0}, and get assigned to every statically declared component id
+     * when components are bootstrapped. They are stable for a given set of mods, but not across different mod sets,
+     * and should therefore never get saved.
+     *
+     * @return an index between {@code 0} (inclusive) and {@link ComponentRegistry#size()} (exclusive)
+     * @see ComponentRegistry#get(int)
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    public final int getRawId() {
+        return this.rawId;
+    }
+
     /**
      * Attempts to retrieve a component instance from the given {@code provider}.
      *
@@ -173,8 +193,29 @@ public abstract class ComponentKey<C extends Component> {
      * @see ComponentAccess#syncComponent(ComponentKey, ComponentPacketWriter, PlayerSyncPredicate)
      */
     public void sync(Object provider, ComponentPacketWriter packetWriter, PlayerSyncPredicate predicate) {
-        for (ServerPlayerEntity player : ((ComponentProvider) provider).getRecipientsForComponentSync()) {
-            this.syncWith(player, (ComponentProvider) provider, packetWriter, predicate);
+        this.syncWith(((ComponentProvider) provider).getRecipientsForComponentSync(), (ComponentProvider) provider, packetWriter, predicate);
+    }
+
+    /**
+     * Schedules a synchronization of the component attached to the given provider at the end of the current server tick.
+     *
+     * <p>Scheduling the same component several times during a tick results in a single synchronization.
+     * All components scheduled for the same provider are sent together, in a single packet per player.
+     * This method must be called on the server thread.
+     *
+     * <p>This method has no visible effect if the given provider does not support synchronization, or
+     * the associated component does not implement an adequate synchronization interface.
+     *
+     * @param provider a component provider
+     * @throws NoSuchElementException if the provider does not provide this type of component
+     * @throws ClassCastException     if <code>provider</code> does not implement {@link ComponentProvider}
+     * @see ComponentAccess#scheduleComponentSync(ComponentKey)
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    public void scheduleSync(Object provider) {
+        if (this.get(provider) instanceof AutoSyncedComponent) {
+            ComponentSyncScheduler.schedule(this, (ComponentProvider) provider);
         }
     }
 
@@ -184,6 +225,9 @@ public abstract class ComponentKey<C extends Component> {
      * <p>This method has no visible effect if the given provider does not support synchronization, or
      * the associated component does not implement an adequate synchronization interface.
      *
+     * <p>This method is called when {@code player} starts tracking {@code provider}, and therefore
+     * always sends a full snapshot of {@link DeltaSyncedComponent}s.
+     *
      * @param player   the player with which the component should be synchronized
      * @param provider a component provider
      * @throws NoSuchElementException if the provider does not provide this type of component
@@ -191,7 +235,14 @@ public abstract class ComponentKey<C extends Component> {
      */
     @ApiStatus.Experimental
     public void syncWith(ServerPlayerEntity player, ComponentProvider provider) {
+        if (provider.getComponentContainer() instanceof AbstractComponentContainer container && !container.isMaterialized(this)) {
+            return;     // the client creates the component with the same default state on its side
+        }
+
         if (this.get(provider) instanceof AutoSyncedComponent synced) {
+            if (synced instanceof DeltaSyncedComponent delta) {
+                delta.getSyncJournal().forget(player);
+            }
             this.syncWith(player, provider, synced, synced);
         }
     }
@@ -199,25 +250,91 @@ public abstract class ComponentKey<C extends Component> {
     @ApiStatus.Experimental
     public void syncWith(ServerPlayerEntity player, ComponentProvider provider, ComponentPacketWriter writer, PlayerSyncPredicate predicate) {
         if (predicate.shouldSyncWith(player)) {
+            ComponentEvents.Sync event = new ComponentEvents.Sync();
+            event.begin();
             RegistryByteBuf buf = new RegistryByteBuf(Unpooled.buffer(), player.getServerWorld().getRegistryManager());
-            writer.writeSyncPacket(buf, player);
+            C component = this.getInternal(provider.getComponentContainer());
+            int revision = DeltaSyncInternals.writeSyncPacket(component, writer, buf, player);
+            int size = buf.readableBytes();
             CustomPayload payload = provider.toComponentPacket(this, predicate.isRequiredOnClient(), buf);
 
             if (payload != null) {
-                if (ServerPlayNetworking.canSend(player, payload.getId())) {
-                    ServerPlayNetworking.getSender(player).sendPacket(payload, PacketCallbacks.always(buf::release));
-                } else {
-                    if (predicate.isRequiredOnClient()) {
-                        player.networkHandler.disconnect(Text.literal("This server requires Cardinal Components API (unhandled packet: " + payload.getId().id() + ")" + ComponentsInternals.getClientOptionalModAdvice()));
-                    }
-                    buf.release();
+                if (ComponentsInternals.sendSyncPacket(player, payload, predicate.isRequiredOnClient(), buf::release)) {
+                    DeltaSyncInternals.markSent(component, player, revision);
                 }
+                this.recordSync(event, provider, size, 1);
             } else {
                 buf.release();
             }
         }
     }
 
+    /**
+     * Attempts to synchronize the component attached to the given provider with every player in {@code players}.
+     *
+     * <p>If {@code writer} is {@linkplain ComponentPacketWriter#isRecipientIndependent() recipient-independent},
+     * the sync data is only written once and shared between all recipients.
+     * Otherwise, this method is equivalent to calling {@link #syncWith(ServerPlayerEntity, ComponentProvider, ComponentPacketWriter, PlayerSyncPredicate)}
+     * for each player.
+     *
+     * @param players  the players with which the component should be synchronized
+     * @param provider a component provider
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    public void syncWith(Iterable<ServerPlayerEntity> players, ComponentProvider provider, ComponentPacketWriter writer, PlayerSyncPredicate predicate) {
+        C component = this.getInternal(provider.getComponentContainer());
+
+        // delta sync data depends on what each recipient already knows, unless a custom writer takes over
+        if (!writer.isRecipientIndependent() || (component instanceof DeltaSyncedComponent && writer == component)) {
+            for (ServerPlayerEntity player : players) {
+                this.syncWith(player, provider, writer, predicate);
+            }
+            return;
+        }
+
+        RegistryByteBuf shared = null;
+        int revision = -1;
+        ComponentEvents.Sync event = new ComponentEvents.Sync();
+        int recipients = 0;
+        event.begin();
+
+        try {
+            for (ServerPlayerEntity player : players) {
+                if (!predicate.shouldSyncWith(player)) continue;
+
+                if (shared == null) {
+                    shared = new RegistryByteBuf(PooledByteBufAllocator.DEFAULT.buffer(), player.getServerWorld().getRegistryManager());
+                    revision = DeltaSyncInternals.writeSyncPacket(component, writer, shared, player);
+                }
+
+                // each recipient gets its own reader index, as encoding (or local delivery) consumes the buffer
+                RegistryByteBuf buf = new RegistryByteBuf(shared.retainedDuplicate(), shared.getRegistryManager());
+                CustomPayload payload = provider.toComponentPacket(this, predicate.isRequiredOnClient(), buf);
+
+                if (payload != null) {
+                    if (ComponentsInternals.sendSyncPacket(player, payload, predicate.isRequiredOnClient(), buf::release)) {
+                        DeltaSyncInternals.markSent(component, player, revision);
+                    }
+                    recipients++;
+                } else {
+                    buf.release();
+                }
+            }
+        } finally {
+            if (shared != null) {
+                if (recipients > 0) {
+                    this.recordSync(event, provider, shared.readableBytes(), recipients);
+                }
+                shared.release();
+            }
+        }
+    }
+
+    private void recordSync(ComponentEvents.Sync event, ComponentProvider provider, int size, int recipients) {
+        ComponentsInternals.recordSync(event, this.id.toString(), provider, size, recipients);
+    }
+
     @Override
     public final String toString() {
         return this.getClass().getSimpleName() + "[\"" + this.id + "\"]";
@@ -228,6 +345,7 @@ public abstract class ComponentKey<C extends Component> {
 
     private final Identifier id;
     private final Class<C> componentClass;
+    private final int rawId;
 
     /**
      * Constructs a new immutable ComponentType
@@ -239,6 +357,7 @@ public abstract class ComponentKey<C extends Component> {
         if (!CcaBootstrap.INSTANCE.isGenerated(this.getClass())) throw new IllegalStateException();
         this.componentClass = componentClass;
         this.id = id;
+        this.rawId = ComponentRegistryImpl.INSTANCE.getRawId(id);
     }
 
     /**
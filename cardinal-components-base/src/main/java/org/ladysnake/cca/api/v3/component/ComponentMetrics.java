@@ -0,0 +1,95 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.api.v3.component;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.ladysnake.cca.internal.base.CcaMetrics;
+
+/**
+ * A listener notified of noteworthy component operations, to be exported to a monitoring system.
+ *
+ * <p>Methods of this interface may be called concurrently from any thread, often on hot paths.
+ * Implementations should therefore avoid blocking and contended writes, e.g. by using
+ * {@link java.util.concurrent.atomic.LongAdder} for accumulation.
+ *
+ * <p>Key ids are given in their {@linkplain net.minecraft.util.Identifier#toString() string form},
+ * as they are stored in save data.
+ *
+ * @see #register(ComponentMetrics)
+ * @since 6.1.0
+ */
+@ApiStatus.Experimental
+public interface ComponentMetrics {
+    /**
+     * Registers a metrics listener. Components only get instrumented once at least one listener is registered.
+     *
+     * <p>The {@code collect-metrics} config option registers a built-in listener,
+     * which data is exposed in the Prometheus text format.
+     */
+    static void register(ComponentMetrics metrics) {
+        CcaMetrics.register(metrics);
+    }
+
+    /**
+     * Called after a component sync packet has been sent.
+     *
+     * @param keyId      the id of the synced component's key
+     * @param bytes      the size of the sync data sent to each recipient, before compression
+     * @param recipients the number of players the same sync data was sent to
+     */
+    default void onSync(String keyId, int bytes, int recipients) {
+        // NO-OP
+    }
+
+    /**
+     * Called after a component container has been created.
+     *
+     * <p>Container classes only report their creations if at least one listener was registered
+     * by the time they got generated, which typically happens when their provider type first gets instantiated.
+     * Listeners should therefore be registered from a mod initializer.
+     *
+     * @param providerType the class of the object the container is attached to
+     */
+    default void onContainerCreated(Class<?> providerType) {
+        // NO-OP
+    }
+
+    /**
+     * Called after a component has been serialized as part of its provider's save data.
+     *
+     * @param keyId the id of the serialized component's key
+     * @param bytes the approximate size of the serialized data, as reported by {@link net.minecraft.nbt.NbtElement#getSizeInBytes()}
+     */
+    default void onSerialized(String keyId, int bytes) {
+        // NO-OP
+    }
+
+    /**
+     * Called when save data contains a component that cannot be loaded, typically because the mod adding it was removed.
+     *
+     * @param keyId the id found in the save data
+     */
+    default void onDeserializationMiss(String keyId) {
+        // NO-OP
+    }
+}
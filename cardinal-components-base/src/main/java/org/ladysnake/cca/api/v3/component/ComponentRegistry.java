@@ -28,6 +28,7 @@ import org.jetbrains.annotations.Contract;
 import org.ladysnake.cca.internal.base.ComponentRegistryImpl;
 
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
@@ -96,4 +97,41 @@ public final class ComponentRegistry {
     public static Stream<ComponentKey<?>> stream() {
         return ComponentRegistryV3.INSTANCE.stream();
     }
+
+    /**
+     * Directly retrieves a ComponentKey using its raw id.
+     *
+     * @return the {@code ComponentKey} with the given {@linkplain ComponentKey#getRawId() raw id}, or {@code null}
+     * if no such {@code ComponentKey} has been registered yet.
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    @Contract(pure = true)
+    public static @Nullable ComponentKey<?> get(int rawId) {
+        return ComponentRegistryImpl.INSTANCE.get(rawId);
+    }
+
+    /**
+     * Returns the number of statically declared component ids, which is an upper bound for {@linkplain ComponentKey#getRawId() raw ids}.
+     *
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    @Contract(pure = true)
+    public static int size() {
+        return ComponentRegistryImpl.INSTANCE.size();
+    }
+
+    /**
+     * Returns every {@link ComponentKey} that has been registered so far, ordered by raw id.
+     *
+     * <p>The returned list is immutable, and does not get updated when more keys get registered.
+     *
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    @Contract(pure = true)
+    public static List<ComponentKey<?>> keys() {
+        return ComponentRegistryImpl.INSTANCE.keys();
+    }
 }
@@ -28,6 +28,7 @@ import org.jetbrains.annotations.Contract;
 import org.ladysnake.cca.internal.base.ComponentRegistryImpl;
 
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
@@ -98,4 +99,38 @@ public interface ComponentRegistryV3 {
      * @return a sequential {@code Stream} over the component keys in this registry.
      */
     Stream<ComponentKey<?>> stream();
+
+    /**
+     * Directly retrieves a ComponentKey using its raw id.
+     *
+     * @return the {@code ComponentKey} with the given {@linkplain ComponentKey#getRawId() raw id}, or {@code null}
+     * if no such {@code ComponentKey} has been registered yet.
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    @Contract(pure = true)
+    @Nullable ComponentKey<?> get(int rawId);
+
+    /**
+     * Returns the number of statically declared component ids.
+     *
+     * <p>Every {@linkplain ComponentKey#getRawId() raw id} is between {@code 0} (inclusive) and this value (exclusive),
+     * which makes it suitable for sizing arrays and bitsets indexed by raw id.
+     *
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    @Contract(pure = true)
+    int size();
+
+    /**
+     * Returns every {@link ComponentKey} that has been registered so far, ordered by raw id.
+     *
+     * <p>The returned list is immutable, and does not get updated when more keys get registered.
+     *
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    @Contract(pure = true)
+    List<ComponentKey<?>> keys();
 }
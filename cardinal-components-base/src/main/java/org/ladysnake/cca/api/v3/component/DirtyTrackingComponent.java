@@ -0,0 +1,83 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.api.v3.component;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.RegistryWrapper;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * A component that keeps track of whether its data changed since it was last saved.
+ *
+ * <p>Component containers remember the {@link NbtCompound} produced by the last call to
+ * {@link #writeToNbt(NbtCompound, RegistryWrapper.WrapperLookup)}, and reuse it as long as the component
+ * is not {@linkplain #isDirty() dirty}. Implementations must therefore call {@link #markDirty()} every time
+ * their serialized data changes, or said changes may not get saved.
+ *
+ * <p>Cached tags are shared between successive saves, and get replaced rather than modified when the component
+ * is written again. Implementations must not hold on to the tag passed to {@code writeToNbt}.
+ * Caching only applies if the implementation class the component was registered with implements this interface.
+ *
+ * <p>World and scoreboard components are saved along with the rest of their provider's data. Said data only gets
+ * written again when one of those components changed since the last save, or does not implement this interface.
+ *
+ * @see SimpleImpl
+ * @since 6.1.0
+ */
+@ApiStatus.Experimental
+public interface DirtyTrackingComponent extends Component {
+    /**
+     * @return {@code true} if this component's serialized data may have changed since the last call to {@link #writeToNbt(NbtCompound, RegistryWrapper.WrapperLookup)}
+     */
+    boolean isDirty();
+
+    /**
+     * Sets this component's dirty state.
+     *
+     * <p>Containers call {@code setDirty(false)} right after caching this component's serialized data,
+     * and {@code setDirty(true)} after loading or copying data into it. Components that do not get cached
+     * (see the class documentation) stay dirty.
+     */
+    void setDirty(boolean dirty);
+
+    /**
+     * Marks this component as needing to be serialized again on the next save.
+     */
+    default void markDirty() {
+        this.setDirty(true);
+    }
+
+    abstract class SimpleImpl implements DirtyTrackingComponent {
+        private boolean dirty = true;
+
+        @Override
+        public boolean isDirty() {
+            return this.dirty;
+        }
+
+        @Override
+        public void setDirty(boolean dirty) {
+            this.dirty = dirty;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.api.v3.component;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.RegistryWrapper;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+
+/**
+ * A component which save data can be encoded off the main thread.
+ *
+ * <p>When a chunk gets serialized or an entity gets written to NBT, its snapshot components are asked for an immutable
+ * {@linkplain #createSnapshot(RegistryWrapper.WrapperLookup) snapshot} of their state on the calling thread.
+ * The potentially expensive {@linkplain #writeSnapshot(Object, NbtCompound, RegistryWrapper.WrapperLookup) encoding}
+ * of those snapshots then happens on a background thread, while vanilla serializes the rest of the provider,
+ * and the save waits for it before completing. Components attached to other providers, as well as direct calls
+ * to {@link ComponentContainer#toTag(NbtCompound, RegistryWrapper.WrapperLookup)} (e.g. when copying data),
+ * are saved synchronously through {@link #writeToNbt(NbtCompound, RegistryWrapper.WrapperLookup)}.
+ *
+ * <p>Snapshots must not share mutable state with the component, as the latter can be modified
+ * while the former is being encoded. This interface is ignored if the component is also a {@link BinaryComponent},
+ * or if the implementation class the component was registered with does not implement it.
+ *
+ * @param <S> the type of snapshots created by this component
+ * @since 6.1.0
+ */
+@ApiStatus.Experimental
+public interface SnapshotComponent<S> extends Component {
+    /**
+     * Captures the current state of this component. Called on the server thread, this method should be as cheap as possible.
+     *
+     * @param registryLookup access to dynamic registry data
+     * @return an immutable view of the data to save
+     */
+    S createSnapshot(RegistryWrapper.WrapperLookup registryLookup);
+
+    /**
+     * Writes the data captured by a snapshot to {@code tag}, in the format expected by
+     * {@link #readFromNbt(NbtCompound, RegistryWrapper.WrapperLookup)}.
+     *
+     * <p>This method may be called on any thread, and must not access the component's current state.
+     *
+     * @param snapshot       a snapshot previously created by this component
+     * @param tag            a {@code NbtCompound} on which to write the snapshot's data
+     * @param registryLookup access to dynamic registry data
+     */
+    @Contract(mutates = "param2")
+    void writeSnapshot(S snapshot, NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup);
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec The default implementation synchronously writes a fresh snapshot, so that both save paths produce the same data.
+     */
+    @Override
+    default void writeToNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
+        this.writeSnapshot(this.createSnapshot(registryLookup), tag, registryLookup);
+    }
+}
@@ -31,6 +31,7 @@ import net.minecraft.registry.RegistryWrapper.WrapperLookup;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.Contract;
+import org.ladysnake.cca.api.v3.component.BinaryComponent;
 import org.ladysnake.cca.api.v3.component.Component;
 import org.ladysnake.cca.api.v3.component.ComponentKey;
 
@@ -68,7 +69,8 @@ public interface AutoSyncedComponent extends Component, ComponentPacketWriter, P
      * @param buf       the buffer to write the data to
      * @param recipient the player to which the packet will be sent
      * @implSpec The default implementation writes the whole NBT representation
-     * of this component to the buffer using {@link Component#writeToNbt(NbtCompound, WrapperLookup)}.
+     * of this component to the buffer using {@link Component#writeToNbt(NbtCompound, WrapperLookup)},
+     * or its binary representation if this component is a {@link BinaryComponent}.
      * @implNote The default implementation should generally be overridden.
      * The serialization done by the default implementation sends possibly hidden
      * information to clients, uses a wasteful data format, and does not support
@@ -81,6 +83,10 @@ public interface AutoSyncedComponent extends Component, ComponentPacketWriter, P
     @Contract(mutates = "param1")
     @Override
     default void writeSyncPacket(RegistryByteBuf buf, ServerPlayerEntity recipient) {
+        if (this instanceof BinaryComponent binary) {
+            binary.writeBinary(buf);
+            return;
+        }
         NbtCompound tag = new NbtCompound();
         this.writeToNbt(tag, buf.getRegistryManager());
         buf.writeNbt(tag);
@@ -90,13 +96,18 @@ public interface AutoSyncedComponent extends Component, ComponentPacketWriter, P
      * Reads this component's data from {@code buf}.
      *
      * @implSpec The default implementation converts the buffer's content
-     * to a {@link NbtCompound} and calls {@link Component#readFromNbt(NbtCompound, WrapperLookup)}.
+     * to a {@link NbtCompound} and calls {@link Component#readFromNbt(NbtCompound, WrapperLookup)},
+     * or calls {@link BinaryComponent#readBinary(RegistryByteBuf)} if this component is a {@link BinaryComponent}.
      * @implNote any implementing class overriding {@link #writeSyncPacket(RegistryByteBuf, ServerPlayerEntity)}
      * such that it uses a different data format must override this method.
      * @see #writeSyncPacket(RegistryByteBuf, ServerPlayerEntity)
      */
     @CheckEnv(Env.CLIENT)
     default void applySyncPacket(RegistryByteBuf buf) {
+        if (this instanceof BinaryComponent binary) {
+            binary.readBinary(buf);
+            return;
+        }
         NbtCompound tag = buf.readNbt();
         if (tag != null) {
             this.readFromNbt(tag, buf.getRegistryManager());
@@ -24,10 +24,50 @@ package org.ladysnake.cca.api.v3.component.sync;
 
 import net.minecraft.network.RegistryByteBuf;
 import net.minecraft.server.network.ServerPlayerEntity;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Contract;
 
+import java.util.function.Consumer;
+
 @FunctionalInterface
 public interface ComponentPacketWriter {
     @Contract(mutates = "param1")
     void writeSyncPacket(RegistryByteBuf buf, ServerPlayerEntity recipient);
+
+    /**
+     * Returns {@code true} if the data written by {@link #writeSyncPacket(RegistryByteBuf, ServerPlayerEntity)}
+     * is the same for every recipient.
+     *
+     * <p>When a sync packet is sent to several players at once, recipient-independent writers only get called once,
+     * and the resulting bytes are shared between every recipient.
+     *
+     * @return {@code true} if this writer never looks at the {@code recipient} parameter
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    default boolean isRecipientIndependent() {
+        return false;
+    }
+
+    /**
+     * Creates a {@linkplain #isRecipientIndependent() recipient-independent} packet writer.
+     *
+     * @param writer the function writing the sync data
+     * @return a packet writer which output gets shared between all recipients of a sync
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    static ComponentPacketWriter recipientIndependent(Consumer<? super RegistryByteBuf> writer) {
+        return new ComponentPacketWriter() {
+            @Override
+            public void writeSyncPacket(RegistryByteBuf buf, ServerPlayerEntity recipient) {
+                writer.accept(buf);
+            }
+
+            @Override
+            public boolean isRecipientIndependent() {
+                return true;
+            }
+        };
+    }
 }
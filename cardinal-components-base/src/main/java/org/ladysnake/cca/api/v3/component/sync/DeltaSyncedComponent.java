@@ -0,0 +1,82 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.api.v3.component.sync;
+
+import com.demonwav.mcdev.annotations.CheckEnv;
+import com.demonwav.mcdev.annotations.Env;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+import org.ladysnake.cca.api.v3.component.ComponentKey;
+
+/**
+ * An {@link AutoSyncedComponent} that can synchronize individual fields instead of its whole state.
+ *
+ * <p>Implementations record changes in their {@link #getSyncJournal() journal} as they happen.
+ * {@link ComponentKey#sync(Object)} then only sends the fields that changed since the last packet
+ * sent to each player. A full snapshot, written by {@link #writeSyncPacket(RegistryByteBuf, ServerPlayerEntity)},
+ * is sent instead when a player starts tracking the provider, or when no previous packet is known.
+ *
+ * <p>Example:
+ * <pre>{@code
+ * public void setMana(int mana) {
+ *     this.mana = mana;
+ *     this.journal.markChanged(MANA_FIELD);
+ *     KEY.sync(this.provider);
+ * }
+ * }</pre>
+ *
+ * <p>Syncing with a custom {@link ComponentPacketWriter} bypasses the journal, and the resulting packet
+ * is handed to {@link #applySyncPacket(RegistryByteBuf)} as usual.
+ *
+ * @since 6.1.0
+ */
+@ApiStatus.Experimental
+public interface DeltaSyncedComponent extends AutoSyncedComponent {
+    /**
+     * @return the journal recording changes to this component, always the same instance
+     */
+    @Contract(pure = true)
+    SyncJournal getSyncJournal();
+
+    /**
+     * Writes the current value of a single field to {@code buf}.
+     *
+     * @param buf       the buffer to write the data to
+     * @param fieldId   the id of a field previously passed to {@link SyncJournal#markChanged(int)}
+     * @param recipient the player to which the packet will be sent
+     */
+    @Contract(mutates = "param1")
+    void writeField(RegistryByteBuf buf, int fieldId, ServerPlayerEntity recipient);
+
+    /**
+     * Reads the value of a single field from {@code buf}.
+     *
+     * @param buf     the buffer to read the data from
+     * @param fieldId the id of the field being updated
+     * @see #writeField(RegistryByteBuf, int, ServerPlayerEntity)
+     */
+    @CheckEnv(Env.CLIENT)
+    void applyField(RegistryByteBuf buf, int fieldId);
+}
@@ -0,0 +1,123 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.api.v3.component.sync;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Records which fields of a {@link DeltaSyncedComponent} changed, and which of those changes
+ * have already been sent to each recipient.
+ *
+ * <p>Field ids are arbitrary integers chosen by the component. Only the latest change to each field is remembered,
+ * so the memory used by a journal is bounded by the number of distinct field ids.
+ *
+ * <p>Recipients are held weakly, so that players who disconnected get forgotten once their entity is collected.
+ * A new player entity (e.g. after respawning) always starts with a full snapshot.
+ *
+ * <p>Journals are not thread-safe, and are meant to be used on the server thread only.
+ *
+ * @since 6.1.0
+ */
+@ApiStatus.Experimental
+public final class SyncJournal {
+    private final Int2IntMap fieldRevisions = new Int2IntOpenHashMap();
+    private final Map<ServerPlayerEntity, Integer> sentRevisions = new WeakHashMap<>();
+    private int revision;
+
+    /**
+     * Records a change to the field with the given id.
+     *
+     * <p>The change will be included in the next delta sent to every recipient.
+     */
+    public void markChanged(int fieldId) {
+        this.fieldRevisions.put(fieldId, ++this.revision);
+    }
+
+    /**
+     * {@return the ids of the fields changed since the last packet was sent to {@code recipient}, or {@code null}
+     * if {@code recipient} needs a full snapshot}
+     */
+    public @Nullable IntList getChangesSince(ServerPlayerEntity recipient) {
+        Integer sentRevision = this.sentRevisions.get(recipient);
+
+        if (sentRevision == null) {
+            return null;
+        }
+
+        IntList changes = new IntArrayList();
+
+        for (Int2IntMap.Entry entry : this.fieldRevisions.int2IntEntrySet()) {
+            if (entry.getIntValue() > sentRevision) {
+                changes.add(entry.getIntKey());
+            }
+        }
+
+        return changes;
+    }
+
+    /**
+     * {@return the revision of the latest change recorded by this journal}
+     *
+     * @see #markSent(ServerPlayerEntity, int)
+     */
+    public int getRevision() {
+        return this.revision;
+    }
+
+    /**
+     * Records that {@code recipient} is now up-to-date with every change made so far.
+     */
+    public void markSent(ServerPlayerEntity recipient) {
+        this.markSent(recipient, this.revision);
+    }
+
+    /**
+     * Records that {@code recipient} is now up-to-date with every change made up to {@code revision}.
+     *
+     * <p>This should only be called once the packet containing said changes has actually been sent.
+     *
+     * @param revision a value previously returned by {@link #getRevision()}
+     */
+    public void markSent(ServerPlayerEntity recipient, int revision) {
+        this.sentRevisions.merge(recipient, revision, Math::max);
+    }
+
+    /**
+     * Forgets what was sent to {@code recipient}, so that it receives a full snapshot next time.
+     *
+     * <p>This is called automatically when {@code recipient} starts tracking the component's provider,
+     * and when it stops tracking an entity.
+     */
+    public void forget(ServerPlayerEntity recipient) {
+        this.sentRevisions.remove(recipient);
+    }
+}
@@ -22,18 +22,25 @@
  */
 package org.ladysnake.cca.internal.base;
 
+import net.minecraft.nbt.NbtByteArray;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import net.minecraft.nbt.NbtList;
+import net.minecraft.registry.DynamicRegistryManager;
 import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.util.Identifier;
+import org.ladysnake.cca.api.v3.component.BinaryComponent;
 import org.ladysnake.cca.api.v3.component.Component;
 import org.ladysnake.cca.api.v3.component.ComponentContainer;
 import org.ladysnake.cca.api.v3.component.ComponentKey;
 import org.ladysnake.cca.api.v3.component.ComponentRegistry;
 import org.ladysnake.cca.api.v3.component.CopyableComponent;
+import org.ladysnake.cca.api.v3.component.DirtyTrackingComponent;
+import org.ladysnake.cca.api.v3.component.SnapshotComponent;
 
-import java.util.Iterator;
+import javax.annotation.Nullable;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
 
 /**
  * Implementing class for {@link ComponentContainer}.
@@ -42,14 +49,24 @@ public abstract class AbstractComponentContainer implements ComponentContainer {
 
     public static final String NBT_KEY = "cardinal_components";
 
+    /**
+     * The {@linkplain #getNbtCache() cached tags} as of the last {@link #markSaved()}
+     */
+    private @Nullable NbtElement[] savedTags;
+
     @Override
     public void copyFrom(ComponentContainer other, RegistryWrapper.WrapperLookup registryLookup) {
         for (ComponentKey<?> key : this.keys()) {
+            // lazy components that were never created on either side both hold default data
+            if (!this.isMaterialized(key) && other instanceof AbstractComponentContainer o && !o.isMaterialized(key)) {
+                continue;
+            }
+
+            // if only our side was created, theirs gets created with default data, which resets ours
             Component theirs = key.getInternal(other);
             Component ours = key.getInternal(this);
-            assert ours != null;
 
-            if (theirs != null && !ours.equals(theirs)) {
+            if (theirs != null && ours != null && !ours.equals(theirs)) {
                 if (ours instanceof CopyableComponent<?>) {
                     @SuppressWarnings("unchecked") CopyableComponent<Component> copyable = (CopyableComponent<Component>) ours;
                     copyable.copyFrom(theirs, registryLookup);
@@ -58,10 +75,154 @@ public abstract class AbstractComponentContainer implements ComponentContainer {
                     theirs.writeToNbt(tag, registryLookup);
                     ours.readFromNbt(tag, registryLookup);
                 }
+
+                if (ours instanceof DirtyTrackingComponent tracked) {
+                    tracked.markDirty();
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether the component at the given position in {@link #keys()} exists.
+     *
+     * <p>Lazily created components only exist once they have been accessed. Until then, they are skipped
+     * by serialization, synchronization, and ticking. Generated containers override this method
+     * if and only if they hold at least one lazy component.
+     *
+     * @param index the position of a key in {@link #keys()}
+     * @return {@code false} if the component is lazy and has not been created yet, {@code true} otherwise
+     */
+    public boolean isMaterialized(int index) {
+        return true;
+    }
+
+    /**
+     * Checks whether the component associated with {@code key} exists.
+     *
+     * @return {@code false} if the component is lazy and has not been created yet, {@code true} otherwise
+     * @see #isMaterialized(int)
+     */
+    public boolean isMaterialized(ComponentKey<?> key) {
+        return true;
+    }
+
+    /**
+     * Returns the component at the given position in {@link #keys()}.
+     *
+     * <p>Generated containers override this method with a switch over their fields.
+     *
+     * @param index the position of a key in {@link #keys()}
+     * @return the component at {@code index}, or {@code null} if it is lazy and has not been created yet
+     * @throws IndexOutOfBoundsException if {@code index} is negative or not less than the number of keys
+     */
+    public @Nullable Component componentAt(int index) {
+        int i = 0;
+        for (ComponentKey<?> key : this.keys()) {
+            if (i == index) {
+                return this.isMaterialized(i) ? key.getInternal(this) : null;
+            }
+            i++;
+        }
+        throw new IndexOutOfBoundsException(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote This implementation does not create lazy components that have not been accessed yet.
+     * Generated containers override it with an unrolled version reading their fields directly.
+     */
+    @Override
+    public void forEachComponent(BiConsumer<? super ComponentKey<?>, ? super Component> action) {
+        int index = 0;
+        for (ComponentKey<?> key : this.keys()) {
+            if (this.isMaterialized(index++)) {
+                Component component = key.getInternal(this);
+                assert component != null;
+                action.accept(key, component);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote This implementation does not create lazy components that have not been accessed yet.
+     * Generated containers override it with an identity check against each of their fields.
+     */
+    @Override
+    public @Nullable ComponentKey<?> getKey(Component component) {
+        int index = 0;
+        for (ComponentKey<?> key : this.keys()) {
+            if (this.isMaterialized(index++) && key.getInternal(this) == component) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote This implementation does not create lazy components that have not been accessed yet,
+     * as those only hold default data. Cached components whose tag got replaced since the last
+     * {@link #markSaved()} also count as dirty, even though writing them cleared their own flag.
+     */
+    @Override
+    public boolean isDirty() {
+        @Nullable NbtElement[] nbtCache = this.getNbtCache();
+        int index = 0;
+        for (ComponentKey<?> key : this.keys()) {
+            if (this.isMaterialized(index)) {
+                if (!(key.getInternal(this) instanceof DirtyTrackingComponent tracked && !tracked.isDirty())) {
+                    return true;
+                }
+                if (nbtCache != null && nbtCache[index] != (this.savedTags == null ? null : this.savedTags[index])) {
+                    return true;
+                }
             }
+            index++;
+        }
+        return false;
+    }
+
+    @Override
+    public void markSaved() {
+        @Nullable NbtElement[] nbtCache = this.getNbtCache();
+        if (nbtCache != null) {
+            // cached tags are replaced rather than mutated, so identity tells whether they changed since
+            this.savedTags = nbtCache.clone();
         }
     }
 
+    /**
+     * Checks whether this container holds {@link SnapshotComponent}s, which saves should be
+     * {@linkplain DeferredComponentSaves deferred}.
+     *
+     * <p>Generated containers override this method with a constant, based on the implementation classes
+     * their components were registered with.
+     *
+     * @return {@code true} if saving this container may encode components in the background
+     */
+    public boolean hasSnapshotComponents() {
+        boolean[] found = new boolean[1];
+        this.forEachComponent((key, component) -> found[0] |= DeferredComponentSaves.isDeferrable(component.getClass()));
+        return found[0];
+    }
+
+    /**
+     * Returns the tags last written by this container's {@link DirtyTrackingComponent}s,
+     * indexed by the position of their key in {@link #keys()}.
+     *
+     * <p>Generated containers override this method if and only if they hold at least one dirty-tracking component.
+     *
+     * @return the mutable NBT cache for this container, or {@code null} if no component tracks its own dirtiness
+     */
+    protected @Nullable NbtElement[] getNbtCache() {
+        return null;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -70,7 +231,8 @@ public abstract class AbstractComponentContainer implements ComponentContainer {
      * Then it iterates over the list's tags, casts them to {@code NbtCompound},
      * and passes them to the associated component's {@code fromTag} method.
      * If this container lacks a corresponding component for a serialized component
-     * type, the component tag is skipped.
+     * type, the component tag is skipped. {@link BinaryComponent}s additionally accept
+     * their data as a byte array.
      */
     @Override
     public void fromTag(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
@@ -83,24 +245,74 @@ public abstract class AbstractComponentContainer implements ComponentContainer {
                     Component component = type.getInternal(this);
                     if (component != null) {
                         component.readFromNbt(nbt, registryLookup);
+
+                        if (component instanceof DirtyTrackingComponent tracked) {
+                            tracked.markDirty();
+                        }
                     }
                 }
             }
         } else if (tag.contains(NBT_KEY, NbtElement.COMPOUND_TYPE)) {
             NbtCompound componentMap = tag.getCompound(NBT_KEY);
+            this.readComponentMap(componentMap, registryLookup);
+            ComponentsInternals.logDeserializationWarnings(componentMap.getKeys());
+        }
+    }
 
-            for (ComponentKey<?> key : this.keys()) {
-                String keyId = key.getId().toString();
+    /**
+     * Reads every component of this container from a "cardinal_components" compound,
+     * removing the entries that got deserialized.
+     *
+     * <p>Generated containers override this method with an unrolled version reading their fields directly.
+     */
+    protected void readComponentMap(NbtCompound componentMap, RegistryWrapper.WrapperLookup registryLookup) {
+        DynamicRegistryManager registryManager = BinarySerialization.asRegistryManager(registryLookup);
+        int index = 0;
 
-                if (componentMap.contains(keyId, NbtElement.COMPOUND_TYPE)) {
-                    Component component = key.getInternal(this);
-                    assert component != null;
-                    component.readFromNbt(componentMap.getCompound(keyId), registryLookup);
-                    componentMap.remove(keyId);
-                }
+        for (ComponentKey<?> key : this.keys()) {
+            String keyId = key.getId().toString();
+
+            // do not create lazy components unless there is data to read
+            if (this.isMaterialized(index++) || hasComponentData(componentMap, keyId)) {
+                Component component = key.getInternal(this);
+                assert component != null;
+                readComponent(componentMap, keyId, component, registryLookup, registryManager);
             }
+        }
+    }
 
-            ComponentsInternals.logDeserializationWarnings(componentMap.getKeys());
+    protected static boolean hasComponentData(NbtCompound componentMap, String keyId) {
+        return componentMap.contains(keyId);
+    }
+
+    /**
+     * Reads a single component from its entry in {@code componentMap}, then removes said entry.
+     * Entries of an unexpected type are left in the map.
+     */
+    protected static void readComponent(NbtCompound componentMap, String keyId, Component component, RegistryWrapper.WrapperLookup registryLookup, DynamicRegistryManager registryManager) {
+        ComponentEvents.Deserialize event = new ComponentEvents.Deserialize();
+        event.begin();
+        NbtElement componentData = componentMap.get(keyId);
+
+        if (componentData instanceof NbtCompound componentTag) {
+            component.readFromNbt(componentTag, registryLookup);
+        } else if (componentData instanceof NbtByteArray bytes && component instanceof BinaryComponent binary) {
+            BinarySerialization.read(binary, bytes.getByteArray(), registryManager);
+        } else {
+            return;
+        }
+
+        componentMap.remove(keyId);
+
+        if (component instanceof DirtyTrackingComponent tracked) {
+            tracked.markDirty();
+        }
+
+        if (event.shouldCommit()) {
+            event.keyId = keyId;
+            event.componentType = component.getClass().getName();
+            event.size = componentData.getSizeInBytes();
+            event.commit();
         }
     }
 
@@ -113,53 +325,34 @@ public abstract class AbstractComponentContainer implements ComponentContainer {
      * {@link Component#writeToNbt(NbtCompound, RegistryWrapper.WrapperLookup)} method. Every such serialized component is appended
      * to a {@code NbtCompound}, using the component type's identifier as the key.
      * The serialized map is finally appended to the passed in tag using the "cardinal_components" key.
+     * Components implementing {@link DirtyTrackingComponent} only get serialized if they are dirty,
+     * their previous tag being reused otherwise. {@link BinaryComponent}s are stored as a single byte array.
+     * Lazy components that have not been created yet are skipped.
+     * Generated containers override this method with an unrolled version reading their fields directly.
      */
     @Override
     public NbtCompound toTag(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
         if(this.hasComponents()) {
-            NbtCompound componentMap = null;
-            NbtCompound componentTag = new NbtCompound();
+            ComponentTagWriter writer = new ComponentTagWriter(tag, this.getNbtCache(), registryLookup);
+            int index = 0;
 
             for (ComponentKey<?> type : this.keys()) {
-                Component component = type.getFromContainer(this);
-                component.writeToNbt(componentTag, registryLookup);
-
-                if (!componentTag.isEmpty()) {
-                    if (componentMap == null) {
-                        componentMap = new NbtCompound();
-                        tag.put(NBT_KEY, componentMap);
-                    }
-
-                    componentMap.put(type.getId().toString(), componentTag);
-                    componentTag = new NbtCompound();   // recycle tag objects if possible
-                }
+                int i = index++;
+                writer.write(i, type.getId().toString(), this.isMaterialized(i) ? type.getFromContainer(this) : null);
             }
         }
         return tag;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote Lazy components that have not been created yet are left out, as they only hold default data.
+     */
     @Override
     public String toString() {
-        Iterator<ComponentKey<?>> i = this.keys().iterator();
-
-        if (! i.hasNext()) {
-            return "{}";
-        }
-
-        StringBuilder sb = new StringBuilder();
-        sb.append('{');
-        for (;;) {
-            ComponentKey<?> key = i.next();
-            Component value = key.getInternal(this);
-            sb.append(key);
-            sb.append('=');
-            sb.append(value);
-
-            if (! i.hasNext()) {
-                return sb.append('}').toString();
-            }
-
-            sb.append(',').append(' ');
-        }
+        StringJoiner sj = new StringJoiner(", ", "{", "}");
+        this.forEachComponent((key, value) -> sj.add(key + "=" + value));
+        return sj.toString();
     }
 }
@@ -0,0 +1,66 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryWrapper;
+import org.ladysnake.cca.api.v3.component.BinaryComponent;
+
+public final class BinarySerialization {
+    /**
+     * The key under which {@link BinaryComponent}'s default {@code writeToNbt} implementation stores its data
+     */
+    public static final String DATA_KEY = "cca:binary";
+    private static final DynamicRegistryManager STATIC_REGISTRIES = DynamicRegistryManager.of(Registries.REGISTRIES);
+
+    /**
+     * {@return a registry manager that {@link RegistryByteBuf}s can use in place of {@code registryLookup}}
+     *
+     * <p>Every lookup passed around during regular world saves is already a full {@link DynamicRegistryManager}.
+     * Plain lookups, like the ones used by some commands and data generators, fall back to the static registries,
+     * so only components referencing dynamic registry entries fail to serialize in that case.
+     */
+    public static DynamicRegistryManager asRegistryManager(RegistryWrapper.WrapperLookup registryLookup) {
+        return registryLookup instanceof DynamicRegistryManager registryManager ? registryManager : STATIC_REGISTRIES;
+    }
+
+    public static byte[] write(BinaryComponent component, DynamicRegistryManager registryManager) {
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            component.writeBinary(new RegistryByteBuf(buf, registryManager));
+            byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes);
+            return bytes;
+        } finally {
+            buf.release();
+        }
+    }
+
+    public static void read(BinaryComponent component, byte[] data, DynamicRegistryManager registryManager) {
+        component.readBinary(new RegistryByteBuf(Unpooled.wrappedBuffer(data), registryManager));
+    }
+}
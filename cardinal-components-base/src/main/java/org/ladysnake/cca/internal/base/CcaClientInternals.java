@@ -22,29 +22,90 @@
  */
 package org.ladysnake.cca.internal.base;
 
+import net.fabricmc.fabric.api.client.networking.v1.ClientConfigurationNetworking;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.text.Text;
 import org.ladysnake.cca.api.v3.component.Component;
 import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
+import org.ladysnake.cca.api.v3.component.sync.DeltaSyncedComponent;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.function.BiFunction;
 
 public final class CcaClientInternals {
+    public static void initClient() {
+        if (FabricLoader.getInstance().isModLoaded("fabric-networking-api-v1")) {
+            ClientConfigurationNetworking.registerGlobalReceiver(ComponentKeyIds.TABLE_ID, (payload, ctx) -> {
+                ComponentKeyIds.setClientTable(payload.keys());
+                ctx.responseSender().sendPacket(new ComponentKeyIds.AckPayload());
+            });
+        }
+    }
+
     public static <T extends ComponentUpdatePayload<?>> void registerComponentSync(CustomPayload.Id<T> packetId, BiFunction<T, ClientPlayNetworking.Context, Optional<? extends Component>> getter) {
+        registerComponentSync(packetId, getter, ComponentUpdatePayload.compactId(packetId), getter);
+    }
+
+    /**
+     * Registers receivers for a sync channel, its batch variant, and its compact variant.
+     */
+    public static <T extends ComponentUpdatePayload<?>, U extends ComponentUpdatePayload<?>> void registerComponentSync(
+        CustomPayload.Id<T> packetId,
+        BiFunction<T, ClientPlayNetworking.Context, Optional<? extends Component>> getter,
+        CustomPayload.Id<U> compactPacketId,
+        BiFunction<U, ClientPlayNetworking.Context, Optional<? extends Component>> compactGetter
+    ) {
+        registerSingleSync(packetId, getter);
+        registerSingleSync(compactPacketId, compactGetter);
+        registerBatchSync(packetId, getter);
+    }
+
+    private static <T extends ComponentUpdatePayload<?>> void registerSingleSync(CustomPayload.Id<T> packetId, BiFunction<T, ClientPlayNetworking.Context, Optional<? extends Component>> getter) {
         ClientPlayNetworking.registerGlobalReceiver(packetId, (payload, ctx) -> {
             try {
-                getter.apply(payload, ctx).ifPresent(c -> {
-                    if (c instanceof AutoSyncedComponent synced) {
-                        synced.applySyncPacket(payload.buf());
-                    }
-                });
-            } catch (UnknownComponentException e) {
-                ctx.player().networkHandler.onDisconnected(Text.literal(e.getMessage() + "\n(you are probably missing a mod installed on the server)" + ComponentsInternals.getClientOptionalModAdvice()));
+                applySync(payload, ctx, getter);
             } finally {
                 payload.buf().release();
             }
         });
     }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T extends ComponentUpdatePayload<?>> void registerBatchSync(CustomPayload.Id<T> packetId, BiFunction<T, ClientPlayNetworking.Context, Optional<? extends Component>> getter) {
+        CustomPayload.Id<ComponentBatchPayload<Object>> batchId = ComponentBatchPayload.batchId((CustomPayload.Id) packetId);
+        ClientPlayNetworking.registerGlobalReceiver(batchId, (batch, ctx) -> {
+            List<ComponentUpdatePayload<Object>> payloads = batch.unpack((CustomPayload.Id) packetId);
+            try {
+                for (ComponentUpdatePayload<Object> payload : payloads) {
+                    if (!applySync((T) payload, ctx, getter)) break;
+                }
+            } finally {
+                for (ComponentUpdatePayload<Object> payload : payloads) {
+                    payload.buf().release();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return {@code false} if the client got disconnected as a result of this sync
+     */
+    private static <T extends ComponentUpdatePayload<?>> boolean applySync(T payload, ClientPlayNetworking.Context ctx, BiFunction<T, ClientPlayNetworking.Context, Optional<? extends Component>> getter) {
+        try {
+            getter.apply(payload, ctx).ifPresent(c -> {
+                if (c instanceof DeltaSyncedComponent delta) {
+                    DeltaSyncInternals.apply(delta, payload.buf());
+                } else if (c instanceof AutoSyncedComponent synced) {
+                    synced.applySyncPacket(payload.buf());
+                }
+            });
+            return true;
+        } catch (UnknownComponentException e) {
+            ctx.player().networkHandler.onDisconnected(Text.literal(e.getMessage() + "\n(you are probably missing a mod installed on the server)" + ComponentsInternals.getClientOptionalModAdvice()));
+            return false;
+        }
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.tree.CommandNode;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The {@code /cca} command, used to drive the {@link TickProfiler} and export {@linkplain PrometheusMetrics metrics}.
+ */
+public final class CcaCommand {
+    private static final DateTimeFormatter DUMP_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss");
+
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+        getOrRegister(dispatcher);
+    }
+
+    /**
+     * {@return the {@code /cca} command node, registering it first if needed}
+     *
+     * <p>Other modules add their subcommands to this node rather than registering another {@code /cca} root,
+     * so that only one permission requirement applies to it.
+     */
+    public static CommandNode<ServerCommandSource> getOrRegister(CommandDispatcher<ServerCommandSource> dispatcher) {
+        CommandNode<ServerCommandSource> existing = dispatcher.getRoot().getChild("cca");
+        if (existing != null) {
+            return existing;
+        }
+
+        return dispatcher.register(CommandManager.literal("cca")
+            .requires(source -> source.hasPermissionLevel(2))
+            .then(CommandManager.literal("profile")
+                .then(CommandManager.literal("start")
+                    .executes(context -> {
+                        if (!TickProfiler.INSTRUMENTED) {
+                            // Dedicated servers cannot handle translations
+                            context.getSource().sendError(Text.of("Component tick profiling requires starting the game with -Dcca.profile.ticks=true"));
+                            return 0;
+                        }
+                        TickProfiler.start();
+                        context.getSource().sendFeedback(() -> Text.of("Started profiling component ticks"), true);
+                        return 1;
+                    })
+                )
+                .then(CommandManager.literal("stop")
+                    .executes(context -> {
+                        TickProfiler.stop();
+                        context.getSource().sendFeedback(() -> Text.of("Stopped profiling component ticks"), true);
+                        return 1;
+                    })
+                )
+                .then(CommandManager.literal("report")
+                    .executes(context -> {
+                        for (String line : TickProfiler.report()) {
+                            context.getSource().sendFeedback(() -> Text.of(line), false);
+                        }
+                        return 1;
+                    })
+                )
+                .then(CommandManager.literal("dump")
+                    .executes(context -> {
+                        Path path = FabricLoader.getInstance().getGameDir().resolve("debug").resolve("cca-ticks-" + DUMP_DATE_FORMAT.format(LocalDateTime.now()) + ".txt");
+                        try {
+                            TickProfiler.dump(path);
+                        } catch (IOException e) {
+                            ComponentsInternals.LOGGER.error("Failed to write component tick report to {}", path, e);
+                            context.getSource().sendError(Text.of("Failed to write component tick report, see the log for details"));
+                            return 0;
+                        }
+                        context.getSource().sendFeedback(() -> Text.of("Component tick report written to " + path), true);
+                        return 1;
+                    })
+                )
+            )
+            .then(CommandManager.literal("metrics")
+                .then(CommandManager.literal("dump")
+                    .executes(context -> {
+                        PrometheusMetrics metrics = CcaMetrics.getBuiltin();
+                        if (metrics == null) {
+                            context.getSource().sendError(Text.of("Component metrics are not collected, set collect-metrics to true in the config to enable them"));
+                            return 0;
+                        }
+                        Path path = FabricLoader.getInstance().getGameDir().resolve("debug").resolve("cca-metrics-" + DUMP_DATE_FORMAT.format(LocalDateTime.now()) + ".prom");
+                        try {
+                            metrics.write(path);
+                        } catch (IOException e) {
+                            ComponentsInternals.LOGGER.error("Failed to write component metrics to {}", path, e);
+                            context.getSource().sendError(Text.of("Failed to write component metrics, see the log for details"));
+                            return 0;
+                        }
+                        context.getSource().sendFeedback(() -> Text.of("Component metrics written to " + path), true);
+                        return 1;
+                    })
+                )
+            )
+        );
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import org.jetbrains.annotations.Nullable;
+import org.ladysnake.cca.api.v3.component.ComponentMetrics;
+import org.ladysnake.cca.internal.base.asm.CalledByAsm;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Dispatches instrumentation data to every registered {@link ComponentMetrics} listener.
+ *
+ * <p>Callers are expected to check {@link #isEnabled()} before computing any expensive argument.
+ */
+public final class CcaMetrics {
+    private static final ComponentMetrics[] NO_LISTENERS = new ComponentMetrics[0];
+    private static volatile ComponentMetrics[] listeners = NO_LISTENERS;
+    private static @Nullable PrometheusMetrics builtin;
+
+    public static synchronized void register(ComponentMetrics metrics) {
+        Objects.requireNonNull(metrics);
+        ComponentMetrics[] current = listeners;
+        ComponentMetrics[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = metrics;
+        listeners = updated;
+    }
+
+    /**
+     * Registers the built-in Prometheus listener, if it is not already registered.
+     */
+    public static synchronized PrometheusMetrics enableBuiltin() {
+        if (builtin == null) {
+            builtin = new PrometheusMetrics();
+            register(builtin);
+        }
+        return builtin;
+    }
+
+    /**
+     * {@return the built-in Prometheus listener, or {@code null} if metrics collection is disabled in the config}
+     */
+    public static synchronized @Nullable PrometheusMetrics getBuiltin() {
+        return builtin;
+    }
+
+    public static boolean isEnabled() {
+        return listeners.length != 0;
+    }
+
+    public static void recordSync(String keyId, int bytes, int recipients) {
+        for (ComponentMetrics listener : listeners) {
+            listener.onSync(keyId, bytes, recipients);
+        }
+    }
+
+    /**
+     * Records the creation of a component container.
+     *
+     * @param provider  the first argument passed to the container's constructor, if any
+     * @param container the newly created container
+     */
+    @CalledByAsm
+    public static void recordContainerCreation(@Nullable Object provider, Object container) {
+        ComponentMetrics[] listeners = CcaMetrics.listeners;
+        if (listeners.length != 0) {
+            Class<?> providerType = TickProfiler.getProviderType(provider, container);
+            for (ComponentMetrics listener : listeners) {
+                listener.onContainerCreated(providerType);
+            }
+        }
+    }
+
+    public static void recordSerialization(String keyId, int bytes) {
+        for (ComponentMetrics listener : listeners) {
+            listener.onSerialized(keyId, bytes);
+        }
+    }
+
+    public static void recordDeserializationMiss(String keyId) {
+        for (ComponentMetrics listener : listeners) {
+            listener.onDeserializationMiss(keyId);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+
+import java.util.List;
+
+/**
+ * Several {@link ComponentUpdatePayload}s sharing the same channel and target, bundled into a single packet.
+ *
+ * <p>Batch channels are derived from the single-component channel by appending {@code _batch} to its path.
+ * Clients able to receive batches always know the {@linkplain ComponentKeyIds numeric key ids}, so entries use them,
+ * along with {@linkplain SyncCompression compression}.
+ */
+public record ComponentBatchPayload<T>(
+    Id<ComponentBatchPayload<T>> id,
+    T targetData,
+    List<Entry> entries
+) implements CustomPayload {
+    public static final PacketCodec<RegistryByteBuf, Entry> ENTRY_CODEC = PacketCodec.tuple(
+        PacketCodecs.BOOL, Entry::required,
+        ComponentKeyIds.KEY_CODEC, Entry::componentKeyId,
+        SyncCompression.CODEC, Entry::buf,
+        Entry::new
+    );
+
+    public static <T> Id<ComponentBatchPayload<T>> batchId(Id<? extends ComponentUpdatePayload<T>> singleId) {
+        return new Id<>(singleId.id().withSuffixedPath("_batch"));
+    }
+
+    public static <T> void register(Id<ComponentUpdatePayload<T>> singleId, PacketCodec<? super RegistryByteBuf, T> targetDataCodec) {
+        Id<ComponentBatchPayload<T>> id = batchId(singleId);
+        PayloadTypeRegistry.playS2C().register(id, codec(id, targetDataCodec));
+    }
+
+    public static <T> PacketCodec<RegistryByteBuf, ComponentBatchPayload<T>> codec(Id<ComponentBatchPayload<T>> id, PacketCodec<? super RegistryByteBuf, T> targetDataCodec) {
+        return PacketCodec.tuple(
+            PacketCodec.unit(id), ComponentBatchPayload::id,
+            targetDataCodec, ComponentBatchPayload::targetData,
+            ENTRY_CODEC.collect(PacketCodecs.toList()), ComponentBatchPayload::entries,
+            ComponentBatchPayload::new
+        );
+    }
+
+    /**
+     * Bundles payloads that all share the same channel and target.
+     */
+    public static <T> ComponentBatchPayload<T> of(List<ComponentUpdatePayload<T>> payloads) {
+        ComponentUpdatePayload<T> first = payloads.get(0);
+        return new ComponentBatchPayload<>(
+            batchId(first.id()),
+            first.targetData(),
+            payloads.stream().map(p -> new Entry(p.required(), p.componentKeyId(), p.buf())).toList()
+        );
+    }
+
+    /**
+     * Splits this batch back into the individual payloads it was created from.
+     */
+    public List<ComponentUpdatePayload<T>> unpack(Id<ComponentUpdatePayload<T>> singleId) {
+        return this.entries.stream().map(e -> new ComponentUpdatePayload<>(singleId, this.targetData, e.required(), e.componentKeyId(), e.buf())).toList();
+    }
+
+    @Override
+    public Id<? extends CustomPayload> getId() {
+        return this.id;
+    }
+
+    public record Entry(boolean required, Identifier componentKeyId, RegistryByteBuf buf) { }
+}
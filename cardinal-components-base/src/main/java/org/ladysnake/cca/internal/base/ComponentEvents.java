@@ -0,0 +1,110 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events emitted by Cardinal Components API.
+ *
+ * <p>Every event is disabled by default, and has to be explicitly enabled in the recording settings,
+ * e.g. {@code -XX:StartFlightRecording:cca.ComponentSync#enabled=true}. Disabled events
+ * cost next to nothing, as their instrumentation only gets added when a recording enables them.
+ */
+public final class ComponentEvents {
+    private static final String CATEGORY = "Cardinal Components API";
+
+    @Name("cca.ComponentSync")
+    @Label("Component Sync")
+    @Description("Component data written for synchronization with clients")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class Sync extends Event {
+        @Label("Component Key")
+        public String keyId;
+        @Label("Provider Type")
+        public String providerType;
+        @Label("Size")
+        @DataAmount
+        public int size;
+        @Label("Recipients")
+        public int recipients;
+    }
+
+    @Name("cca.ComponentSerialize")
+    @Label("Component Serialization")
+    @Description("A component written to NBT as part of its provider's save data")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class Serialize extends Event {
+        @Label("Component Key")
+        public String keyId;
+        @Label("Component Type")
+        public String componentType;
+        @Label("Size")
+        @DataAmount
+        public int size;
+    }
+
+    @Name("cca.ComponentDeserialize")
+    @Label("Component Deserialization")
+    @Description("A component read from its provider's save data")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class Deserialize extends Event {
+        @Label("Component Key")
+        public String keyId;
+        @Label("Component Type")
+        public String componentType;
+        @Label("Size")
+        @DataAmount
+        public int size;
+    }
+
+    @Name("cca.ContainerClassGenerated")
+    @Label("Container Class Generated")
+    @Description("A class generated at runtime, like component containers and their factories")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class ContainerClassGenerated extends Event {
+        @Label("Class Name")
+        public String className;
+        @Label("Size")
+        @DataAmount
+        public int size;
+        @Label("Cached")
+        @Description("Whether the class bytes were loaded from the generated class cache")
+        public boolean cached;
+    }
+}
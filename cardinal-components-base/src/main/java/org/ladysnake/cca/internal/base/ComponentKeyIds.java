@@ -0,0 +1,152 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.DecoderException;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerConfigurationConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerConfigurationNetworking;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.network.encoding.VarInts;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.network.packet.Packet;
+import net.minecraft.server.network.ServerPlayerConfigurationTask;
+import net.minecraft.util.Identifier;
+import org.ladysnake.cca.api.v3.component.ComponentKey;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Numeric ids for component keys, used in place of full identifiers in sync packets.
+ *
+ * <p>The server sends its id table to every client supporting it during the configuration phase.
+ * Numeric ids match {@linkplain ComponentKey#getRawId() raw ids}, so every statically declared key has one;
+ * identifiers only get written for keys missing from the table.
+ */
+public final class ComponentKeyIds {
+    public static final CustomPayload.Id<TablePayload> TABLE_ID = CustomPayload.id("cardinal-components:key_ids");
+    public static final CustomPayload.Id<AckPayload> ACK_ID = CustomPayload.id("cardinal-components:key_ids_ack");
+
+    private static volatile Table serverTable;
+    private static volatile List<Identifier> clientTable = List.of();
+
+    /**
+     * Writes a key as {@code 0} followed by its identifier, or as its numeric id + 1 if it has one.
+     */
+    public static final PacketCodec<ByteBuf, Identifier> KEY_CODEC = PacketCodec.ofStatic(
+        (buf, id) -> {
+            int rawId = serverTable().ids().getInt(id);
+            VarInts.write(buf, rawId + 1);
+            if (rawId < 0) {
+                Identifier.PACKET_CODEC.encode(buf, id);
+            }
+        },
+        buf -> {
+            int rawId = VarInts.read(buf) - 1;
+            if (rawId < 0) {
+                return Identifier.PACKET_CODEC.decode(buf);
+            }
+            List<Identifier> table = clientTable;
+            if (rawId >= table.size()) {
+                throw new DecoderException("Unknown component key id " + rawId);
+            }
+            return table.get(rawId);
+        }
+    );
+
+    public static void init() {
+        PayloadTypeRegistry.configurationS2C().register(TABLE_ID, TablePayload.CODEC);
+        PayloadTypeRegistry.configurationC2S().register(ACK_ID, AckPayload.CODEC);
+        ServerConfigurationConnectionEvents.CONFIGURE.register((handler, server) -> {
+            if (ServerConfigurationNetworking.canSend(handler, TABLE_ID)) {
+                handler.addTask(new SendTableTask());
+            }
+        });
+        ServerConfigurationNetworking.registerGlobalReceiver(ACK_ID, (payload, ctx) -> ctx.networkHandler().completeTask(SendTableTask.KEY));
+    }
+
+    public static Table serverTable() {
+        Table table = serverTable;
+        if (table == null) {
+            synchronized (ComponentKeyIds.class) {
+                table = serverTable;
+                if (table == null) {
+                    serverTable = table = Table.create(ComponentRegistryImpl.INSTANCE.getDeclaredIds());
+                }
+            }
+        }
+        return table;
+    }
+
+    public static void setClientTable(List<Identifier> ids) {
+        clientTable = List.copyOf(ids);
+    }
+
+    public record Table(List<Identifier> keys, Object2IntMap<Identifier> ids) {
+        static Table create(List<Identifier> keys) {
+            Object2IntMap<Identifier> ids = new Object2IntOpenHashMap<>(keys.size());
+            ids.defaultReturnValue(-1);
+            for (int i = 0; i < keys.size(); i++) {
+                ids.put(keys.get(i), i);
+            }
+            return new Table(keys, ids);
+        }
+    }
+
+    public record TablePayload(List<Identifier> keys) implements CustomPayload {
+        public static final PacketCodec<ByteBuf, TablePayload> CODEC = Identifier.PACKET_CODEC.collect(PacketCodecs.toList()).xmap(TablePayload::new, TablePayload::keys);
+
+        @Override
+        public Id<? extends CustomPayload> getId() {
+            return TABLE_ID;
+        }
+    }
+
+    public record AckPayload() implements CustomPayload {
+        public static final PacketCodec<ByteBuf, AckPayload> CODEC = PacketCodec.unit(new AckPayload());
+
+        @Override
+        public Id<? extends CustomPayload> getId() {
+            return ACK_ID;
+        }
+    }
+
+    private record SendTableTask() implements ServerPlayerConfigurationTask {
+        static final Key KEY = new Key("cardinal-components:key_ids");
+
+        @Override
+        public void sendPacket(Consumer<Packet<?>> sender) {
+            sender.accept(ServerConfigurationNetworking.createS2CPacket(new TablePayload(serverTable().keys())));
+        }
+
+        @Override
+        public Key getKey() {
+            return KEY;
+        }
+    }
+}
@@ -24,6 +24,9 @@ package org.ladysnake.cca.internal.base;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.util.Identifier;
 import org.ladysnake.cca.api.v3.component.Component;
 import org.ladysnake.cca.api.v3.component.ComponentKey;
@@ -32,16 +35,46 @@ import org.ladysnake.cca.internal.base.asm.CcaBootstrap;
 
 import javax.annotation.Nullable;
 import java.lang.reflect.InvocationTargetException;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.stream.Stream;
 
 public final class ComponentRegistryImpl implements ComponentRegistryV3 {
 
     public static final ComponentRegistryImpl INSTANCE = new ComponentRegistryImpl();
 
-    private final Map<Identifier, ComponentKey<?>> keys = new HashMap<>();
+    /**
+     * Every statically declared component id, indexed by raw id. Frozen once the static bootstrap completes.
+     */
+    private volatile List<Identifier> declaredIds = List.of();
+    private volatile Object2IntMap<Identifier> rawIds = Object2IntMaps.emptyMap();
+    /**
+     * Registered keys, indexed by raw id. Slots get filled as keys are created, and are read without synchronization:
+     * keys are immutable, so readers either see a fully constructed key or {@code null}.
+     */
+    private volatile ComponentKey<?>[] keysByRawId = new ComponentKey<?>[0];
+    /**
+     * Registered keys in raw id order, rebuilt whenever a key gets created
+     */
+    private volatile List<ComponentKey<?>> keys = List.of();
+
+    /**
+     * Assigns a dense raw id to every statically declared component id, in iteration order.
+     */
+    public synchronized void freeze(Collection<Identifier> staticComponentIds) {
+        Preconditions.checkState(this.declaredIds.isEmpty(), "Component ids have already been frozen");
+        List<Identifier> ids = List.copyOf(staticComponentIds);
+        Object2IntMap<Identifier> rawIds = new Object2IntOpenHashMap<>(ids.size());
+        rawIds.defaultReturnValue(-1);
+        for (int i = 0; i < ids.size(); i++) {
+            rawIds.put(ids.get(i), i);
+        }
+        this.keysByRawId = new ComponentKey<?>[ids.size()];
+        this.rawIds = Object2IntMaps.unmodifiable(rawIds);
+        this.declaredIds = ids;
+    }
 
     @Override
     public synchronized <T extends Component> ComponentKey<T> getOrCreate(Identifier componentId, Class<T> componentClass) {
@@ -63,7 +96,8 @@ public final class ComponentRegistryImpl implements ComponentRegistryV3 {
             }
 
             ComponentKey<T> registered = this.instantiateStaticType(generated, componentId, componentClass);
-            this.keys.put(componentId, registered);
+            this.keysByRawId[registered.getRawId()] = registered;
+            this.refreshKeys();
             return registered;
         }
     }
@@ -77,19 +111,63 @@ public final class ComponentRegistryImpl implements ComponentRegistryV3 {
         }
     }
 
+    private void refreshKeys() {
+        List<ComponentKey<?>> keys = new ArrayList<>();
+        for (ComponentKey<?> key : this.keysByRawId) {
+            if (key != null) keys.add(key);
+        }
+        this.keys = Collections.unmodifiableList(keys);
+    }
+
     @Nullable
     @Override
     public ComponentKey<?> get(Identifier id) {
-        return this.keys.get(id);
+        int rawId = this.rawIds.getInt(id);
+        return rawId < 0 ? null : this.keysByRawId[rawId];
+    }
+
+    @Nullable
+    @Override
+    public ComponentKey<?> get(int rawId) {
+        ComponentKey<?>[] keys = this.keysByRawId;
+        return rawId >= 0 && rawId < keys.length ? keys[rawId] : null;
+    }
+
+    /**
+     * @return the raw id assigned to a statically declared component id, or {@code -1} if it was not declared
+     */
+    public int getRawId(Identifier id) {
+        return this.rawIds.getInt(id);
+    }
+
+    /**
+     * @return every statically declared component id, indexed by raw id
+     */
+    public List<Identifier> getDeclaredIds() {
+        return this.declaredIds;
+    }
+
+    @Override
+    public int size() {
+        return this.declaredIds.size();
+    }
+
+    @Override
+    public List<ComponentKey<?>> keys() {
+        return this.keys;
     }
 
     @Override
     public Stream<ComponentKey<?>> stream() {
-        return new HashSet<>(this.keys.values()).stream();
+        return this.keys.stream();
     }
 
     @VisibleForTesting
-    void clear(Identifier id) {
-        this.keys.remove(id);
+    synchronized void clear(Identifier id) {
+        int rawId = this.rawIds.getInt(id);
+        if (rawId >= 0) {
+            this.keysByRawId[rawId] = null;
+            this.refreshKeys();
+        }
     }
 }
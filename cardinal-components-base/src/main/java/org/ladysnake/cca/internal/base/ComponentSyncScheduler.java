@@ -0,0 +1,299 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.PacketCallbacks;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.ladysnake.cca.api.v3.component.ComponentKey;
+import org.ladysnake.cca.api.v3.component.ComponentProvider;
+import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
+import org.ladysnake.cca.api.v3.component.sync.DeltaSyncedComponent;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Collects sync requests made during a server tick, and sends them all at the end of said tick.
+ *
+ * <p>Every (provider, key) pair gets synced at most once per tick, and all keys of a provider
+ * are bundled into a single {@link ComponentBatchPayload} per player whenever possible.
+ * {@linkplain org.ladysnake.cca.api.v3.component.sync.ComponentPacketWriter#isRecipientIndependent() Recipient-independent}
+ * components only get written once, and share their sync data between all players.
+ *
+ * <p>Syncs may be scheduled from any thread, but they are always written and sent on the thread calling {@link #flush()}.
+ */
+public final class ComponentSyncScheduler {
+    private static final Object lock = new Object();
+    private static volatile boolean enabled;
+    // guarded by lock
+    private static Map<ComponentProvider, PendingSync> pending = new Reference2ObjectLinkedOpenHashMap<>();
+
+    /**
+     * Enables deferred syncing, once something is ready to call {@link #flush()} at the end of every tick.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    public static void schedule(ComponentKey<?> key, ComponentProvider provider) {
+        schedule(key, provider, provider::getRecipientsForComponentSync);
+    }
+
+    /**
+     * Schedules a sync for the component associated with {@code key} on {@code provider}.
+     *
+     * <p>This method is thread-safe. However, if deferred syncing is not enabled, the sync happens immediately
+     * if called on the server thread, and gets handed off to the server thread otherwise.
+     *
+     * @param recipients the players who may receive the sync packet, queried when the sync actually happens
+     */
+    public static void schedule(ComponentKey<?> key, ComponentProvider provider, Supplier<? extends Iterable<ServerPlayerEntity>> recipients) {
+        if (!enabled) {
+            // nothing would ever flush the pending syncs, so sync right away on the recipients' server thread
+            Iterator<ServerPlayerEntity> players = recipients.get().iterator();
+            @Nullable MinecraftServer server = players.hasNext() ? players.next().getServer() : null;
+            if (server != null && !server.isOnThread()) {
+                server.execute(() -> sync(provider, Set.of(key), recipients));
+            } else {
+                sync(provider, Set.of(key), recipients);
+            }
+            return;
+        }
+        synchronized (lock) {
+            pending.computeIfAbsent(provider, p -> new PendingSync(recipients, new ReferenceLinkedOpenHashSet<>())).keys().add(key);
+        }
+    }
+
+    public static void flush() {
+        Map<ComponentProvider, PendingSync> toFlush;
+
+        synchronized (lock) {
+            if (pending.isEmpty()) return;
+
+            // syncs scheduled while flushing go to the next tick
+            toFlush = pending;
+            pending = new Reference2ObjectLinkedOpenHashMap<>();
+        }
+
+        for (Map.Entry<ComponentProvider, PendingSync> entry : toFlush.entrySet()) {
+            sync(entry.getKey(), entry.getValue().keys(), entry.getValue().recipients());
+        }
+    }
+
+    public static void clear() {
+        synchronized (lock) {
+            pending.clear();
+        }
+    }
+
+    private static void sync(ComponentProvider provider, Set<ComponentKey<?>> keys, Supplier<? extends Iterable<ServerPlayerEntity>> recipients) {
+        ComponentContainer container = provider.getComponentContainer();
+        List<ScheduledSync> scheduled = new ArrayList<>(keys.size());
+
+        for (ComponentKey<?> key : keys) {
+            if (container instanceof AbstractComponentContainer c && !c.isMaterialized(key)) {
+                continue;   // the client creates the component with the same default state on its side
+            }
+            if (key.getInternal(container) instanceof AutoSyncedComponent synced) {
+                scheduled.add(new ScheduledSync(key, synced));
+            }
+        }
+
+        if (scheduled.isEmpty()) return;
+
+        try {
+            for (ServerPlayerEntity player : recipients.get()) {
+                List<WrittenSync> batch = new ArrayList<>(scheduled.size());
+
+                for (ScheduledSync sync : scheduled) {
+                    if (sync.component.shouldSyncWith(player)) {
+                        write(player, provider, sync, batch);
+                    }
+                }
+
+                sendBatch(player, provider, batch);
+            }
+        } finally {
+            for (ScheduledSync sync : scheduled) {
+                sync.finish(provider);
+            }
+        }
+    }
+
+    private static void write(ServerPlayerEntity player, ComponentProvider provider, ScheduledSync sync, List<WrittenSync> batch) {
+        AutoSyncedComponent synced = sync.component;
+        @Nullable ComponentEvents.Sync event;
+        RegistryByteBuf buf;
+        int revision;
+
+        if (sync.recipientIndependent) {
+            // each recipient gets its own reader index, as encoding (or local delivery) consumes the buffer
+            RegistryByteBuf shared = sync.share(player);
+            buf = new RegistryByteBuf(shared.retainedDuplicate(), shared.getRegistryManager());
+            revision = sync.sharedRevision;
+            event = null;
+        } else {
+            event = new ComponentEvents.Sync();
+            event.begin();
+            buf = new RegistryByteBuf(Unpooled.buffer(), player.getServerWorld().getRegistryManager());
+            revision = DeltaSyncInternals.writeSyncPacket(synced, synced, buf, player);
+        }
+
+        int size = buf.readableBytes();
+        CustomPayload payload = provider.toComponentPacket(sync.key, synced.isRequiredOnClient(), buf);
+
+        if (payload instanceof ComponentUpdatePayload<?> update) {
+            batch.add(new WrittenSync(sync, update, revision, size, event));
+        } else if (payload != null) {
+            if (ComponentsInternals.sendSyncPacket(player, payload, synced.isRequiredOnClient(), buf::release)) {
+                DeltaSyncInternals.markSent(synced, player, revision);
+            }
+            sync.record(provider, event, size);
+        } else {
+            buf.release();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void sendBatch(ServerPlayerEntity player, ComponentProvider provider, List<WrittenSync> written) {
+        if (written.size() > 1 && canBatch(written)) {
+            List<ComponentUpdatePayload<?>> payloads = new ArrayList<>(written.size());
+            for (WrittenSync sync : written) {
+                payloads.add(sync.payload());
+            }
+            ComponentBatchPayload<?> batch = ComponentBatchPayload.of((List) payloads);
+
+            if (ServerPlayNetworking.canSend(player, batch.getId())) {
+                ServerPlayNetworking.getSender(player).sendPacket(batch, PacketCallbacks.always(() -> {
+                    for (ComponentUpdatePayload<?> payload : payloads) {
+                        payload.buf().release();
+                    }
+                }));
+                for (WrittenSync sync : written) {
+                    DeltaSyncInternals.markSent(sync.scheduled().component, player, sync.revision());
+                    sync.record(provider);
+                }
+                return;
+            }
+        }
+
+        for (WrittenSync sync : written) {
+            ComponentUpdatePayload<?> payload = sync.payload();
+            if (ComponentsInternals.sendSyncPacket(player, payload, payload.required(), payload.buf()::release)) {
+                DeltaSyncInternals.markSent(sync.scheduled().component, player, sync.revision());
+            }
+            sync.record(provider);
+        }
+    }
+
+    private static boolean canBatch(List<WrittenSync> written) {
+        ComponentUpdatePayload<?> first = written.get(0).payload();
+
+        for (int i = 1; i < written.size(); i++) {
+            ComponentUpdatePayload<?> payload = written.get(i).payload();
+
+            if (!payload.id().equals(first.id()) || !Objects.equals(payload.targetData(), first.targetData())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * A component to sync during a flush, along with the data it shares between recipients if it is recipient-independent.
+     */
+    private static final class ScheduledSync {
+        final ComponentKey<?> key;
+        final AutoSyncedComponent component;
+        final boolean recipientIndependent;
+        @Nullable RegistryByteBuf shared;
+        @Nullable ComponentEvents.Sync sharedEvent;
+        int sharedRevision = -1;
+        int recipients;
+
+        ScheduledSync(ComponentKey<?> key, AutoSyncedComponent component) {
+            this.key = key;
+            this.component = component;
+            // delta sync data depends on what each recipient already knows
+            this.recipientIndependent = component.isRecipientIndependent() && !(component instanceof DeltaSyncedComponent);
+        }
+
+        RegistryByteBuf share(ServerPlayerEntity player) {
+            if (this.shared == null) {
+                this.sharedEvent = new ComponentEvents.Sync();
+                this.sharedEvent.begin();
+                this.shared = new RegistryByteBuf(PooledByteBufAllocator.DEFAULT.buffer(), player.getServerWorld().getRegistryManager());
+                this.sharedRevision = DeltaSyncInternals.writeSyncPacket(this.component, this.component, this.shared, player);
+            }
+            return this.shared;
+        }
+
+        /**
+         * @param event the event for this specific recipient, or {@code null} if the data is shared
+         */
+        void record(ComponentProvider provider, @Nullable ComponentEvents.Sync event, int size) {
+            if (event == null) {
+                this.recipients++;
+            } else {
+                ComponentsInternals.recordSync(event, this.key.getId().toString(), provider, size, 1);
+            }
+        }
+
+        void finish(ComponentProvider provider) {
+            if (this.shared != null) {
+                if (this.recipients > 0) {
+                    ComponentsInternals.recordSync(this.sharedEvent, this.key.getId().toString(), provider, this.shared.readableBytes(), this.recipients);
+                }
+                this.shared.release();
+                this.shared = null;
+            }
+        }
+    }
+
+    /**
+     * Sync data written for a single component and recipient, along with the journal revision to record once it is sent.
+     */
+    private record WrittenSync(ScheduledSync scheduled, ComponentUpdatePayload<?> payload, int revision, int size, @Nullable ComponentEvents.Sync event) {
+        void record(ComponentProvider provider) {
+            this.scheduled().record(provider, this.event(), this.size());
+        }
+    }
+
+    private record PendingSync(Supplier<? extends Iterable<ServerPlayerEntity>> recipients, Set<ComponentKey<?>> keys) { }
+}
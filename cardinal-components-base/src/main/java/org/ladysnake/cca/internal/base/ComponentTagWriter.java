@@ -0,0 +1,155 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import net.minecraft.nbt.NbtByteArray;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.RegistryWrapper;
+import org.ladysnake.cca.api.v3.component.BinaryComponent;
+import org.ladysnake.cca.api.v3.component.Component;
+import org.ladysnake.cca.api.v3.component.DirtyTrackingComponent;
+import org.ladysnake.cca.api.v3.component.SnapshotComponent;
+
+import javax.annotation.Nullable;
+
+/**
+ * Writes the components of a single container into its "cardinal_components" compound.
+ *
+ * <p>Both {@link AbstractComponentContainer#toTag(NbtCompound, RegistryWrapper.WrapperLookup)} and its
+ * generated overrides go through this class, so that they always produce the same output.
+ */
+public final class ComponentTagWriter {
+    private final NbtCompound tag;
+    private final @Nullable NbtElement[] nbtCache;
+    private final RegistryWrapper.WrapperLookup registryLookup;
+    private final DynamicRegistryManager registryManager;
+    private @Nullable NbtCompound componentMap;
+    private NbtCompound componentTag = new NbtCompound();
+
+    /**
+     * @param tag            the tag in which the component map gets stored, if any component writes data
+     * @param nbtCache       the container's cache for {@link DirtyTrackingComponent}s, see {@link AbstractComponentContainer#getNbtCache()}
+     * @param registryLookup the registry lookup passed to {@code toTag}
+     */
+    public ComponentTagWriter(NbtCompound tag, @Nullable NbtElement[] nbtCache, RegistryWrapper.WrapperLookup registryLookup) {
+        this.tag = tag;
+        this.nbtCache = nbtCache;
+        this.registryLookup = registryLookup;
+        this.registryManager = BinarySerialization.asRegistryManager(registryLookup);
+    }
+
+    /**
+     * Writes a component to the component map, creating the latter on first use.
+     *
+     * @param index     the position of the component's key in its container's {@link AbstractComponentContainer#keys() keys}
+     * @param keyId     the string form of the component's key id
+     * @param component the component to write, or {@code null} if it is lazy and has not been created yet
+     */
+    public void write(int index, String keyId, @Nullable Component component) {
+        if (component == null) {
+            return;   // a lazy component that never got created only holds default data
+        }
+
+        ComponentEvents.Serialize event = new ComponentEvents.Serialize();
+        event.begin();
+        NbtElement written;
+
+        if (this.nbtCache != null && component instanceof DirtyTrackingComponent tracked) {
+            written = this.nbtCache[index];
+
+            if (written == null || tracked.isDirty()) {
+                if (this.defer(index, keyId, component, this.nbtCache)) {
+                    tracked.setDirty(false);
+                    return;
+                }
+                written = this.writeComponent(component, new NbtCompound());
+                this.nbtCache[index] = written;
+                tracked.setDirty(false);
+            }
+            // no copy: the cached tag only gets replaced, never modified, and loading data back marks the component dirty
+        } else {
+            // without a cache, the flag stays set: nothing remembers what got written, and this may not even be a save
+            if (this.defer(index, keyId, component, null)) {
+                return;
+            }
+            written = this.writeComponent(component, this.componentTag);
+        }
+
+        recordSerialization(event, keyId, component, written);
+
+        if (!isEmpty(written)) {
+            if (this.componentMap == null) {
+                this.componentMap = new NbtCompound();
+                this.tag.put(AbstractComponentContainer.NBT_KEY, this.componentMap);
+            }
+
+            this.componentMap.put(keyId, written);
+
+            if (written == this.componentTag) {
+                this.componentTag = new NbtCompound();   // recycle tag objects if possible
+            }
+        }
+    }
+
+    /**
+     * Hands a {@link SnapshotComponent} over to the {@linkplain DeferredComponentSaves deferred save} in progress, if any.
+     *
+     * @return {@code true} if the component's data will be added to the save later
+     */
+    private boolean defer(int index, String keyId, Component component, @Nullable NbtElement[] nbtCache) {
+        if (component instanceof SnapshotComponent<?> snapshotted && !(component instanceof BinaryComponent)) {
+            DeferredComponentSaves saves = DeferredComponentSaves.current();
+            if (saves != null) {
+                saves.submit(keyId, snapshotted, this.registryLookup, nbtCache, index);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static void recordSerialization(ComponentEvents.Serialize event, String keyId, Component component, NbtElement written) {
+        if (event.shouldCommit()) {
+            event.keyId = keyId;
+            event.componentType = component.getClass().getName();
+            event.size = written.getSizeInBytes();
+            event.commit();
+        }
+        if (CcaMetrics.isEnabled()) {
+            CcaMetrics.recordSerialization(keyId, written.getSizeInBytes());
+        }
+    }
+
+    private NbtElement writeComponent(Component component, NbtCompound componentTag) {
+        if (component instanceof BinaryComponent binary) {
+            return new NbtByteArray(BinarySerialization.write(binary, this.registryManager));
+        }
+        component.writeToNbt(componentTag, this.registryLookup);
+        return componentTag;
+    }
+
+    private static boolean isEmpty(NbtElement written) {
+        return written instanceof NbtCompound compound ? compound.isEmpty() : written instanceof NbtByteArray bytes && bytes.isEmpty();
+    }
+}
@@ -23,15 +23,21 @@
 package org.ladysnake.cca.internal.base;
 
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.network.RegistryByteBuf;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
 import org.ladysnake.cca.api.v3.component.ComponentKey;
 import org.ladysnake.cca.api.v3.component.ComponentRegistry;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 
 public record ComponentUpdatePayload<T>(
     Id<ComponentUpdatePayload<T>> id,
@@ -40,25 +46,68 @@ public record ComponentUpdatePayload<T>(
     Identifier componentKeyId,
     RegistryByteBuf buf
 ) implements CustomPayload {
+    private static final Map<Id<?>, CompactForm<?, ?>> COMPACT_FORMS = new ConcurrentHashMap<>();
+
     public static <T> CustomPayload.Id<ComponentUpdatePayload<T>> id(String path) {
         return CustomPayload.id("cardinal-components:" + path);
     }
 
     public static <T> void register(Id<ComponentUpdatePayload<T>> id, PacketCodec<? super RegistryByteBuf, T> targetDataCodec) {
+        register(id, targetDataCodec, compactId(id), targetDataCodec, (player, targetData) -> targetData);
+    }
+
+    /**
+     * Registers a sync channel, along with a compact variant using numeric key ids and a different encoding for target data.
+     *
+     * @param compactTargetMapper converts target data to the form sent to a specific player on the compact channel
+     */
+    public static <T, U> void register(
+        Id<ComponentUpdatePayload<T>> id,
+        PacketCodec<? super RegistryByteBuf, T> targetDataCodec,
+        Id<ComponentUpdatePayload<U>> compactId,
+        PacketCodec<? super RegistryByteBuf, U> compactTargetDataCodec,
+        BiFunction<ServerPlayerEntity, T, U> compactTargetMapper
+    ) {
         PayloadTypeRegistry.playS2C().register(id, codec(id, targetDataCodec));
+        PayloadTypeRegistry.playS2C().register(compactId, compactCodec(compactId, compactTargetDataCodec));
+        COMPACT_FORMS.put(id, new CompactForm<>(compactId, compactTargetMapper));
+        ComponentBatchPayload.register(id, targetDataCodec);
+    }
+
+    public static <T extends ComponentUpdatePayload<?>> Id<T> compactId(Id<T> id) {
+        return new Id<>(id.id().withSuffixedPath("_compact"));
     }
 
     public static <T> PacketCodec<RegistryByteBuf, ComponentUpdatePayload<T>> codec(Id<ComponentUpdatePayload<T>> id, PacketCodec<? super RegistryByteBuf, T> targetDataCodec) {
+        return codec(id, targetDataCodec, Identifier.PACKET_CODEC, MorePacketCodecs.REG_BYTE_BUF);
+    }
+
+    /**
+     * Creates a codec for the compact variant of a channel, using numeric key ids and {@linkplain SyncCompression compressed} data.
+     */
+    public static <T> PacketCodec<RegistryByteBuf, ComponentUpdatePayload<T>> compactCodec(Id<ComponentUpdatePayload<T>> id, PacketCodec<? super RegistryByteBuf, T> targetDataCodec) {
+        return codec(id, targetDataCodec, ComponentKeyIds.KEY_CODEC, SyncCompression.CODEC);
+    }
+
+    private static <T> PacketCodec<RegistryByteBuf, ComponentUpdatePayload<T>> codec(Id<ComponentUpdatePayload<T>> id, PacketCodec<? super RegistryByteBuf, T> targetDataCodec, PacketCodec<? super RegistryByteBuf, Identifier> keyCodec, PacketCodec<RegistryByteBuf, RegistryByteBuf> dataCodec) {
         return PacketCodec.tuple(
             PacketCodec.unit(id), ComponentUpdatePayload::id,
             targetDataCodec, ComponentUpdatePayload::targetData,
             PacketCodecs.BOOL, ComponentUpdatePayload::required,
-            Identifier.PACKET_CODEC, ComponentUpdatePayload::componentKeyId,
-            MorePacketCodecs.REG_BYTE_BUF, ComponentUpdatePayload::buf,
+            keyCodec, ComponentUpdatePayload::componentKeyId,
+            dataCodec, ComponentUpdatePayload::buf,
             ComponentUpdatePayload::new
         );
     }
 
+    /**
+     * @return the compact variant of {@code payload} to send to {@code player}, or {@code null} if they do not support it
+     */
+    public static @Nullable CustomPayload compact(ComponentUpdatePayload<?> payload, ServerPlayerEntity player) {
+        CompactForm<?, ?> form = COMPACT_FORMS.get(payload.id());
+        return form != null && ServerPlayNetworking.canSend(player, form.id()) ? form.apply(payload, player) : null;
+    }
+
     public Optional<ComponentKey<?>> componentKey() {
         ComponentKey<?> key = ComponentRegistry.get(this.componentKeyId());
         if (key == null && this.required()) {
@@ -71,4 +120,12 @@ public record ComponentUpdatePayload<T>(
     public Id<? extends CustomPayload> getId() {
         return id;
     }
+
+    private record CompactForm<T, U>(Id<ComponentUpdatePayload<U>> id, BiFunction<ServerPlayerEntity, T, U> targetMapper) {
+        @SuppressWarnings("unchecked")
+        ComponentUpdatePayload<U> apply(ComponentUpdatePayload<?> payload, ServerPlayerEntity player) {
+            U targetData = this.targetMapper.apply(player, (T) payload.targetData());
+            return new ComponentUpdatePayload<>(this.id, targetData, payload.required(), payload.componentKeyId(), payload.buf());
+        }
+    }
 }
@@ -24,11 +24,21 @@ package org.ladysnake.cca.internal.base;
 
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.network.PacketCallbacks;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.ladysnake.cca.api.v3.component.ComponentRegistry;
 import org.ladysnake.cca.internal.base.asm.StaticComponentLoadingException;
 
@@ -46,9 +56,23 @@ public final class ComponentsInternals {
     public static final Logger LOGGER = LogManager.getLogger("Cardinal Components API");
     private static final int DEFAULT_MAX_WARNINGS_PER_COMPONENT = 5;
     private static final boolean DEFAULT_LOG_DESERIALIZATION_WARNINGS = true;
-    private static final int configVersion = 2;
+    private static final int DEFAULT_SYNC_COMPRESSION_THRESHOLD = 4096;
+    private static final boolean DEFAULT_SYNC_COMPRESSION_DICTIONARY = true;
+    private static final boolean DEFAULT_PARALLEL_CHUNK_TICKING = true;
+    private static final boolean DEFAULT_COLLECT_METRICS = false;
+    private static final String DEFAULT_METRICS_FILE = "";
+    private static final int METRICS_EXPORT_INTERVAL = 15 * 20;
+    private static final boolean DEFAULT_SIDECAR_CHUNK_STORAGE = false;
+    private static final boolean DEFAULT_WARM_UP_CONTAINERS = false;
+    private static final int configVersion = 7;
     private static boolean logDeserializationWarnings = DEFAULT_LOG_DESERIALIZATION_WARNINGS;
     private static int maxWarningsPerComponent = DEFAULT_MAX_WARNINGS_PER_COMPONENT;
+    private static int syncCompressionThreshold = DEFAULT_SYNC_COMPRESSION_THRESHOLD;
+    private static boolean syncCompressionDictionary = DEFAULT_SYNC_COMPRESSION_DICTIONARY;
+    private static boolean parallelChunkTicking = DEFAULT_PARALLEL_CHUNK_TICKING;
+    private static @Nullable Path metricsFile;
+    private static boolean sidecarChunkStorage = DEFAULT_SIDECAR_CHUNK_STORAGE;
+    private static boolean warmUpContainers = DEFAULT_WARM_UP_CONTAINERS;
     private static final Object2IntMap<String> warningCounts = new Object2IntOpenHashMap<>();
 
     public static void init() {
@@ -62,9 +86,47 @@ public final class ComponentsInternals {
             }
             logDeserializationWarnings = Boolean.parseBoolean(cfg.getProperty("log-deserialization-warnings", String.valueOf(DEFAULT_LOG_DESERIALIZATION_WARNINGS)));
             maxWarningsPerComponent = Integer.parseInt(cfg.getProperty("max-deserialization-warnings", String.valueOf(DEFAULT_MAX_WARNINGS_PER_COMPONENT)));
+            syncCompressionThreshold = Integer.parseInt(cfg.getProperty("sync-compression-threshold", String.valueOf(DEFAULT_SYNC_COMPRESSION_THRESHOLD)));
+            syncCompressionDictionary = Boolean.parseBoolean(cfg.getProperty("sync-compression-dictionary", String.valueOf(DEFAULT_SYNC_COMPRESSION_DICTIONARY)));
+            parallelChunkTicking = Boolean.parseBoolean(cfg.getProperty("parallel-chunk-ticking", String.valueOf(DEFAULT_PARALLEL_CHUNK_TICKING)));
+            sidecarChunkStorage = Boolean.parseBoolean(cfg.getProperty("sidecar-chunk-storage", String.valueOf(DEFAULT_SIDECAR_CHUNK_STORAGE)));
+            warmUpContainers = Boolean.parseBoolean(cfg.getProperty("warm-up-containers", String.valueOf(DEFAULT_WARM_UP_CONTAINERS)));
+            if (Boolean.parseBoolean(cfg.getProperty("collect-metrics", String.valueOf(DEFAULT_COLLECT_METRICS)))) {
+                CcaMetrics.enableBuiltin();
+                String file = cfg.getProperty("metrics-file", DEFAULT_METRICS_FILE).trim();
+                if (!file.isEmpty()) {
+                    metricsFile = FabricLoader.getInstance().getGameDir().resolve(file);
+                }
+            }
         } catch (IOException e) {
             writeConfigFile(path);
         }
+        if (FabricLoader.getInstance().isModLoaded("fabric-networking-api-v1")) {
+            ComponentKeyIds.init();
+        }
+        if (FabricLoader.getInstance().isModLoaded("fabric-lifecycle-events-v1")) {
+            ServerTickEvents.END_SERVER_TICK.register(server -> {
+                ComponentSyncScheduler.flush();
+                if (metricsFile != null && server.getTicks() % METRICS_EXPORT_INTERVAL == 0) {
+                    Util.getIoWorkerExecutor().execute(ComponentsInternals::exportMetrics);
+                }
+            });
+            ServerLifecycleEvents.SERVER_STARTED.register(server -> LOGGER.info("Component containers: {}", GenericContainerBuilder.describeSharing()));
+            ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+                ComponentSyncScheduler.clear();
+                if (metricsFile != null) {
+                    exportMetrics();
+                }
+                String compressionStats = SyncCompression.describeStats();
+                if (compressionStats != null) {
+                    LOGGER.info("Component sync compression: {}", compressionStats);
+                }
+            });
+            ComponentSyncScheduler.enable();
+        }
+        if (FabricLoader.getInstance().isModLoaded("fabric-command-api-v2")) {
+            CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> CcaCommand.register(dispatcher));
+        }
     }
 
     private static void writeConfigFile(Path path) {
@@ -76,15 +138,51 @@ public final class ComponentsInternals {
                 # If log-deserialization-warnings is enabled, warnings will be printed at most *this number of times* for every component type
                 # Default value: %2$d
                 max-deserialization-warnings = %2$d
+                # Component sync data at least this many bytes long gets compressed before being sent to clients that support it, or never if negative
+                # Default value: %3$d
+                sync-compression-threshold = %3$d
+                # If set to true, compression of component sync data uses a preset dictionary, which helps with mid-sized payloads
+                # Default value: %4$s
+                sync-compression-dictionary = %4$s
+                # If set to true, chunk components declared as region-safe get ticked on multiple threads, otherwise they are ticked on the server thread
+                # Default value: %5$s
+                parallel-chunk-ticking = %5$s
+                # If set to true, metrics about component sync, saves and containers are collected, and can be exported with the /cca metrics command
+                # Default value: %6$s
+                collect-metrics = %6$s
+                # If collect-metrics is enabled and this is not empty, metrics get periodically written to this file (relative to the game directory) in the Prometheus text format
+                # Default value: %7$s
+                metrics-file = %7$s
+                # If set to true, chunk components are saved in separate region files (in the "cca" folder of each dimension) instead of vanilla chunk data
+                # Existing data gets moved over when chunks are saved, or all at once with the /cca chunks migrate command
+                # WARNING: migrated data is not moved back if this is set to false again, and chunk components will lose it
+                # Default value: %8$s
+                sidecar-chunk-storage = %8$s
+                # If set to true, component containers for every entity and block entity class with registered components get generated on worker threads
+                # when a server starts, instead of the first time each class is instantiated
+                # Default value: %9$s
+                warm-up-containers = %9$s
 
                 # Internal value, do not edit or your changes may be arbitrarily reset
-                config-version = %3$d
-                """.formatted(DEFAULT_LOG_DESERIALIZATION_WARNINGS, DEFAULT_MAX_WARNINGS_PER_COMPONENT, configVersion));
+                config-version = %10$d
+                """.formatted(DEFAULT_LOG_DESERIALIZATION_WARNINGS, DEFAULT_MAX_WARNINGS_PER_COMPONENT, DEFAULT_SYNC_COMPRESSION_THRESHOLD, DEFAULT_SYNC_COMPRESSION_DICTIONARY, DEFAULT_PARALLEL_CHUNK_TICKING, DEFAULT_COLLECT_METRICS, DEFAULT_METRICS_FILE, DEFAULT_SIDECAR_CHUNK_STORAGE, DEFAULT_WARM_UP_CONTAINERS, configVersion));
         } catch (IOException ex) {
             LOGGER.error("Failed to write config file at {}", path);
         }
     }
 
+    private static synchronized void exportMetrics() {
+        PrometheusMetrics metrics = CcaMetrics.getBuiltin();
+        Path file = metricsFile;
+        if (metrics != null && file != null) {
+            try {
+                metrics.write(file);
+            } catch (IOException e) {
+                LOGGER.error("Failed to export component metrics to {}", file, e);
+            }
+        }
+    }
+
     @SuppressWarnings("unchecked") @Nonnull
     public static <R> R createFactory(Class<R> factoryClass) {
         try {
@@ -95,6 +193,11 @@ public final class ComponentsInternals {
     }
 
     public static void logDeserializationWarnings(Collection<String> missedKeyIds) {
+        if (CcaMetrics.isEnabled()) {
+            for (String missedKeyId : missedKeyIds) {
+                CcaMetrics.recordDeserializationMiss(missedKeyId);
+            }
+        }
         if (logDeserializationWarnings) {
             for (String missedKeyId : missedKeyIds) {
                 int warningCount = warningCounts.getInt(missedKeyId);
@@ -111,6 +214,68 @@ public final class ComponentsInternals {
         }
     }
 
+    /**
+     * Sends a component sync packet to a player, or disconnects them if they cannot handle a required packet.
+     *
+     * @param release called once the packet's backing data can be released
+     * @return {@code true} if the packet was sent, {@code false} if the client cannot receive it
+     */
+    public static boolean sendSyncPacket(ServerPlayerEntity player, CustomPayload payload, boolean required, Runnable release) {
+        if (payload instanceof ComponentUpdatePayload<?> update) {
+            CustomPayload compact = ComponentUpdatePayload.compact(update, player);
+            if (compact != null) {
+                ServerPlayNetworking.getSender(player).sendPacket(compact, PacketCallbacks.always(release));
+                return true;
+            }
+        }
+        if (ServerPlayNetworking.canSend(player, payload.getId())) {
+            ServerPlayNetworking.getSender(player).sendPacket(payload, PacketCallbacks.always(release));
+            return true;
+        } else {
+            if (required) {
+                player.networkHandler.disconnect(Text.literal("This server requires Cardinal Components API (unhandled packet: " + payload.getId().id() + ")" + getClientOptionalModAdvice()));
+            }
+            release.run();
+            return false;
+        }
+    }
+
+    /**
+     * Commits a JFR sync event and updates the sync metrics, for sync data that was written once for {@code recipients} players.
+     */
+    public static void recordSync(ComponentEvents.Sync event, String keyId, Object provider, int size, int recipients) {
+        if (event.shouldCommit()) {
+            event.keyId = keyId;
+            event.providerType = provider.getClass().getName();
+            event.size = size;
+            event.recipients = recipients;
+            event.commit();
+        }
+        if (CcaMetrics.isEnabled()) {
+            CcaMetrics.recordSync(keyId, size, recipients);
+        }
+    }
+
+    public static int getSyncCompressionThreshold() {
+        return syncCompressionThreshold;
+    }
+
+    public static boolean useSyncCompressionDictionary() {
+        return syncCompressionDictionary;
+    }
+
+    public static boolean useParallelChunkTicking() {
+        return parallelChunkTicking;
+    }
+
+    public static boolean useSidecarChunkStorage() {
+        return sidecarChunkStorage;
+    }
+
+    public static boolean warmUpContainers() {
+        return warmUpContainers;
+    }
+
     public static @NotNull String getClientOptionalModAdvice() {
         return FabricLoader.getInstance().isDevelopmentEnvironment() ? "\n§eDEV ADVICE: If your mod is supposed to be client-optional, try overriding isRequiredOnClient() in your component." : "";
     }
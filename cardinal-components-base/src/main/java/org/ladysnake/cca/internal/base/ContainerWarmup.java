@@ -0,0 +1,73 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import net.minecraft.util.Util;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Generates component containers ahead of time on the main worker pool,
+ * so that the first instantiation of each provider type does not stall the thread it happens on.
+ */
+public final class ContainerWarmup {
+    private ContainerWarmup() { throw new AssertionError(); }
+
+    /**
+     * Runs warm-up tasks in parallel, then logs how many classes got warmed up and how long it took.
+     *
+     * @param kind  the kind of provider being warmed up, for logging purposes
+     * @param tasks tasks that each ensure a container factory exists, and return the provider class it was created for
+     *              or {@code null} if there is none
+     * @return a future completed with the number of distinct provider classes that got warmed up
+     */
+    public static CompletableFuture<Integer> run(String kind, Collection<Supplier<@Nullable Class<?>>> tasks) {
+        long start = System.nanoTime();
+        Set<Class<?>> warmedUp = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(tasks.size());
+
+        for (Supplier<@Nullable Class<?>> task : tasks) {
+            futures.add(CompletableFuture.supplyAsync(task, Util.getMainWorkerExecutor()).handle((clazz, t) -> {
+                if (t != null) {
+                    // the container will simply get generated the first time the type is actually used
+                    ComponentsInternals.LOGGER.debug("Failed to warm up {} component container", kind, t);
+                } else if (clazz != null) {
+                    warmedUp.add(clazz);
+                }
+                return null;
+            }));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(v -> {
+            ComponentsInternals.LOGGER.info("Warmed up component containers for {} {} classes in {} ms", warmedUp.size(), kind, (System.nanoTime() - start) / 1_000_000);
+            return warmedUp.size();
+        });
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.util.Util;
+import org.ladysnake.cca.api.v3.component.BinaryComponent;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.ladysnake.cca.api.v3.component.SnapshotComponent;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The save data of a container, which {@link SnapshotComponent}s get encoded on the IO worker pool.
+ *
+ * <p>Providers start the save with {@link #start(ComponentContainer, RegistryWrapper.WrapperLookup)} before doing
+ * their own (vanilla) serialization work, then call {@link #finish(NbtCompound)} to wait for the background encoding
+ * and get the complete data. Both calls must happen on the same thread.
+ */
+public final class DeferredComponentSaves {
+    private static final ThreadLocal<DeferredComponentSaves> active = new ThreadLocal<>();
+
+    private final NbtCompound data = new NbtCompound();
+    private final List<Pending> pending = new ArrayList<>();
+
+    private DeferredComponentSaves() {}
+
+    /**
+     * Serializes every component of a container, deferring the encoding of snapshot components.
+     *
+     * @see #finish(NbtCompound)
+     */
+    public static DeferredComponentSaves start(ComponentContainer container, RegistryWrapper.WrapperLookup registryLookup) {
+        DeferredComponentSaves saves = new DeferredComponentSaves();
+        DeferredComponentSaves previous = active.get();
+        active.set(saves);
+        try {
+            container.toTag(saves.data, registryLookup);
+        } finally {
+            active.set(previous);
+        }
+        return saves;
+    }
+
+    /**
+     * {@return {@code true} if {@code container} holds at least one component which save can be deferred}
+     *
+     * <p>Providers should save containers for which this returns {@code false} synchronously,
+     * to avoid allocating a deferred save for nothing.
+     */
+    public static boolean isNeeded(ComponentContainer container) {
+        return container instanceof AbstractComponentContainer c && c.hasSnapshotComponents();
+    }
+
+    /**
+     * {@return {@code true} if components of the given class get encoded in the background during deferred saves}
+     */
+    public static boolean isDeferrable(Class<?> componentClass) {
+        return SnapshotComponent.class.isAssignableFrom(componentClass) && !BinaryComponent.class.isAssignableFrom(componentClass);
+    }
+
+    /**
+     * {@return the save currently being started on this thread, or {@code null} if components should be saved synchronously}
+     */
+    static @Nullable DeferredComponentSaves current() {
+        return active.get();
+    }
+
+    <S> void submit(String keyId, SnapshotComponent<S> component, RegistryWrapper.WrapperLookup registryLookup, @Nullable NbtElement[] nbtCache, int index) {
+        S snapshot = component.createSnapshot(registryLookup);
+        CompletableFuture<NbtCompound> future = CompletableFuture.supplyAsync(() -> {
+            ComponentEvents.Serialize event = new ComponentEvents.Serialize();
+            event.begin();
+            NbtCompound written = new NbtCompound();
+            component.writeSnapshot(snapshot, written, registryLookup);
+            ComponentTagWriter.recordSerialization(event, keyId, component, written);
+            return written;
+        }, Util.getIoWorkerExecutor());
+        this.pending.add(new Pending(keyId, future, nbtCache, index));
+    }
+
+    /**
+     * Waits for every deferred component to be encoded, then moves the complete save data to {@code tag}.
+     */
+    public void finish(NbtCompound tag) {
+        for (Pending pending : this.pending) {
+            NbtCompound written = pending.future().join();
+
+            if (pending.nbtCache() != null) {
+                pending.nbtCache()[pending.index()] = written;
+            }
+
+            if (!written.isEmpty()) {
+                if (!this.data.contains(AbstractComponentContainer.NBT_KEY, NbtElement.COMPOUND_TYPE)) {
+                    this.data.put(AbstractComponentContainer.NBT_KEY, new NbtCompound());
+                }
+                this.data.getCompound(AbstractComponentContainer.NBT_KEY).put(pending.keyId(), written);
+            }
+        }
+        this.pending.clear();
+
+        for (String key : this.data.getKeys()) {
+            tag.put(key, this.data.get(key));
+        }
+    }
+
+    private record Pending(String keyId, CompletableFuture<NbtCompound> future, @Nullable NbtElement[] nbtCache, int index) {}
+}
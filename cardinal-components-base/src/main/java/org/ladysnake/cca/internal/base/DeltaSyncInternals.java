@@ -0,0 +1,107 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import it.unimi.dsi.fastutil.ints.IntList;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.jetbrains.annotations.Nullable;
+import org.ladysnake.cca.api.v3.component.Component;
+import org.ladysnake.cca.api.v3.component.sync.ComponentPacketWriter;
+import org.ladysnake.cca.api.v3.component.sync.DeltaSyncedComponent;
+import org.ladysnake.cca.api.v3.component.sync.SyncJournal;
+
+/**
+ * Framing for {@link DeltaSyncedComponent} sync data.
+ *
+ * <p>Packets start with a boolean; {@code true} is followed by a varint count and as many (varint field id, field data) pairs,
+ * {@code false} by data for {@link DeltaSyncedComponent#applySyncPacket(RegistryByteBuf)}.
+ */
+public final class DeltaSyncInternals {
+    /**
+     * Writes sync data for {@code component}, applying delta framing if it is a {@link DeltaSyncedComponent}.
+     *
+     * <p>The journal does not get updated, as the packet may still get dropped. Callers must pass the returned
+     * revision to {@link #markSent(Component, ServerPlayerEntity, int)} once the packet has actually been sent.
+     *
+     * @return the journal revision {@code recipient} will be up-to-date with, or {@code -1} if there is nothing to record
+     */
+    public static int writeSyncPacket(@Nullable Component component, ComponentPacketWriter writer, RegistryByteBuf buf, ServerPlayerEntity recipient) {
+        if (component instanceof DeltaSyncedComponent delta) {
+            return write(delta, writer, buf, recipient);
+        } else {
+            writer.writeSyncPacket(buf, recipient);
+            return -1;
+        }
+    }
+
+    public static int write(DeltaSyncedComponent component, ComponentPacketWriter writer, RegistryByteBuf buf, ServerPlayerEntity recipient) {
+        if (writer != component) {
+            // custom writers are paired with a custom applySyncPacket implementation
+            buf.writeBoolean(false);
+            writer.writeSyncPacket(buf, recipient);
+            return -1;
+        }
+
+        SyncJournal journal = component.getSyncJournal();
+        IntList changes = journal.getChangesSince(recipient);
+
+        if (changes == null) {
+            buf.writeBoolean(false);
+            component.writeSyncPacket(buf, recipient);
+        } else {
+            buf.writeBoolean(true);
+            buf.writeVarInt(changes.size());
+
+            for (int i = 0; i < changes.size(); i++) {
+                int fieldId = changes.getInt(i);
+                buf.writeVarInt(fieldId);
+                component.writeField(buf, fieldId, recipient);
+            }
+        }
+
+        return journal.getRevision();
+    }
+
+    /**
+     * Records that sync data written by {@link #writeSyncPacket(Component, ComponentPacketWriter, RegistryByteBuf, ServerPlayerEntity)}
+     * has been sent to {@code recipient}.
+     */
+    public static void markSent(@Nullable Component component, ServerPlayerEntity recipient, int revision) {
+        if (revision >= 0 && component instanceof DeltaSyncedComponent delta) {
+            delta.getSyncJournal().markSent(recipient, revision);
+        }
+    }
+
+    public static void apply(DeltaSyncedComponent component, RegistryByteBuf buf) {
+        if (buf.readBoolean()) {
+            int changeCount = buf.readVarInt();
+
+            for (int i = 0; i < changeCount; i++) {
+                component.applyField(buf, buf.readVarInt());
+            }
+        } else {
+            component.applySyncPacket(buf);
+        }
+    }
+}
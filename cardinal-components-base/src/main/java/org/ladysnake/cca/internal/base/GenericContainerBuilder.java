@@ -34,13 +34,21 @@ import org.ladysnake.cca.internal.base.asm.StaticComponentPluginBase;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 public class GenericContainerBuilder<I, R> {
+    /**
+     * Container factories built through {@link #buildShared()}, shared between builders with structurally identical layouts
+     */
+    private static final Map<ContainerLayout, Object> sharedFactories = new ConcurrentHashMap<>();
+    private static final AtomicInteger requestedFactories = new AtomicInteger();
 
     private boolean built;
     private String factoryNameSuffix;
@@ -74,7 +82,22 @@ public class GenericContainerBuilder<I, R> {
 
     @Contract(mutates = "this")
     public <C extends Component> GenericContainerBuilder<I, R> component(ComponentKey<? super C> key, Class<C> implClass, I factory, Set<ComponentKey<?>> dependencies) {
-        this.addComponent(key, new QualifiedComponentFactory<>(factory, implClass, dependencies));
+        return this.component(key, implClass, factory, dependencies, false);
+    }
+
+    @Contract(mutates = "this")
+    public <C extends Component> GenericContainerBuilder<I, R> component(ComponentKey<? super C> key, Class<C> implClass, I factory, Set<ComponentKey<?>> dependencies, boolean lazy) {
+        this.addComponent(key, new QualifiedComponentFactory<>(factory, implClass, dependencies, lazy));
+        return this;
+    }
+
+    @Contract(mutates = "this")
+    public GenericContainerBuilder<I, R> tickInterval(ComponentKey<?> key, int tickInterval) {
+        QualifiedComponentFactory<I> factory = this.factories.get(key);
+        if (factory == null) {
+            throw new IllegalArgumentException(key + " has not been added to this builder");
+        }
+        this.factories.put(key, factory.withTickInterval(tickInterval));
         return this;
     }
 
@@ -83,6 +106,22 @@ public class GenericContainerBuilder<I, R> {
     }
 
     public R build() {
+        return this.build(false);
+    }
+
+    /**
+     * Builds a container factory, or reuses the one previously built by this method for a structurally identical layout.
+     *
+     * <p>Layouts only match if they use the very same component factory instances, which is typically the case
+     * of provider classes inheriting the same registrations from a static plugin. Callers must not rely on the
+     * identity of the returned factory, as other builders may get it too.
+     */
+    @ApiStatus.Internal
+    public R buildShared() {
+        return this.build(true);
+    }
+
+    private R build(boolean shared) {
         if (this.built) {
             throw new IllegalStateException("Cannot build more than one container factory with the same builder");
         }
@@ -94,15 +133,58 @@ public class GenericContainerBuilder<I, R> {
                 return this.emptyFactory;
             }
 
-            Class<? extends ComponentContainer> containerClass = CcaAsmHelper.spinComponentContainer(
-                this.componentFactoryClass, this.factories
-            );
-            Class<? extends R> factoryClass = StaticComponentPluginBase.spinContainerFactory(
-                this.containerFactoryType, containerClass, this.argClasses
-            );
-            return ComponentsInternals.createFactory(factoryClass);
+            if (!shared) {
+                return ComponentsInternals.createFactory(this.spinFactoryClass());
+            }
+
+            requestedFactories.incrementAndGet();
+            ContainerLayout layout = ContainerLayout.of(this.componentFactoryClass, this.containerFactoryType, this.argClasses, this.factories);
+            @SuppressWarnings("unchecked") R existing = (R) sharedFactories.get(layout);
+            if (existing != null) {
+                return existing;
+            }
+
+            Class<? extends R> factoryClass = this.spinFactoryClass();
+            // if another thread built the same layout in the meantime, use theirs and let our copy get collected
+            @SuppressWarnings("unchecked") R ret = (R) sharedFactories.computeIfAbsent(layout, l -> ComponentsInternals.createFactory(factoryClass));
+            return ret;
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
+
+    private Class<? extends R> spinFactoryClass() throws IOException {
+        Class<? extends ComponentContainer> containerClass = CcaAsmHelper.spinComponentContainer(
+            this.componentFactoryClass, this.factories
+        );
+        return StaticComponentPluginBase.spinContainerFactory(
+            this.containerFactoryType, containerClass, this.argClasses
+        );
+    }
+
+    /**
+     * @return a summary of how many shared container classes would have been generated without sharing, and how many actually were
+     */
+    public static String describeSharing() {
+        return "%d container classes needed, %d generated after deduplication".formatted(requestedFactories.get(), sharedFactories.size());
+    }
+
+    /**
+     * The parts of a builder that end up in generated code.
+     *
+     * <p>Factories are part of the layout, as they are stored in constants of the generated classes
+     * (which lets the JIT inline them). Providers that inherit the same registrations thus share a layout.
+     */
+    private record ContainerLayout(Class<?> componentFactoryClass, Class<?> containerFactoryType, List<Class<?>> argClasses, List<ComponentLayout> components) {
+        static <I> ContainerLayout of(Class<?> componentFactoryClass, Class<?> containerFactoryType, List<Class<?>> argClasses, Map<ComponentKey<?>, QualifiedComponentFactory<I>> factories) {
+            List<ComponentLayout> components = new ArrayList<>(factories.size());
+            for (var entry : factories.entrySet()) {
+                QualifiedComponentFactory<I> factory = entry.getValue();
+                components.add(new ComponentLayout(entry.getKey(), factory.factory(), factory.impl(), factory.dependencies(), factory.lazy(), factory.tickInterval()));
+            }
+            return new ContainerLayout(componentFactoryClass, containerFactoryType, List.copyOf(argClasses), components);
+        }
+    }
+
+    private record ComponentLayout(ComponentKey<?> key, Object factory, Class<? extends Component> impl, Set<ComponentKey<?>> dependencies, boolean lazy, int tickInterval) {}
 }
@@ -0,0 +1,191 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import org.ladysnake.cca.api.v3.component.ComponentMetrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * The built-in {@link ComponentMetrics} implementation, which aggregates measurements in memory
+ * and renders them in the <a href="https://prometheus.io/docs/instrumenting/exposition_formats/">Prometheus text format</a>.
+ *
+ * <p>Every measurement goes to a {@link LongAdder}, so that recording from several threads never contends.
+ */
+public final class PrometheusMetrics implements ComponentMetrics {
+    /**
+     * Upper bounds of the size histogram buckets, in bytes.
+     */
+    private static final long[] SIZE_BUCKETS = {64, 256, 1024, 4096, 16384, 65536, 262144, 1048576};
+
+    private final Map<String, KeyStats> keyStats = new ConcurrentHashMap<>();
+    private final Map<Class<?>, LongAdder> containerCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> deserializationMisses = new ConcurrentHashMap<>();
+
+    @Override
+    public void onSync(String keyId, int bytes, int recipients) {
+        this.getKeyStats(keyId).syncSizes.observe(bytes, recipients);
+    }
+
+    @Override
+    public void onContainerCreated(Class<?> providerType) {
+        getCounter(this.containerCounts, providerType).increment();
+    }
+
+    @Override
+    public void onSerialized(String keyId, int bytes) {
+        this.getKeyStats(keyId).saveSizes.observe(bytes, 1);
+    }
+
+    @Override
+    public void onDeserializationMiss(String keyId) {
+        getCounter(this.deserializationMisses, keyId).increment();
+    }
+
+    private KeyStats getKeyStats(String keyId) {
+        // plain get first, as computeIfAbsent may lock even when the mapping exists
+        KeyStats stats = this.keyStats.get(keyId);
+        return stats != null ? stats : this.keyStats.computeIfAbsent(keyId, k -> new KeyStats());
+    }
+
+    private static <K> LongAdder getCounter(Map<K, LongAdder> counters, K key) {
+        LongAdder counter = counters.get(key);
+        return counter != null ? counter : counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    /**
+     * {@return a snapshot of every metric, in the Prometheus text exposition format}
+     */
+    public String render() {
+        StringBuilder out = new StringBuilder();
+        Map<String, KeyStats> keys = new TreeMap<>(this.keyStats);
+
+        writeCounters(out, "cca_sync_packets_total", "Component sync packets sent", "key", keys, stats -> stats.syncSizes.count());
+        writeCounters(out, "cca_sync_bytes_total", "Uncompressed component sync data sent, in bytes", "key", keys, stats -> stats.syncSizes.sum.sum());
+        writeHistograms(out, "cca_sync_packet_bytes", "Uncompressed size of component sync packets", keys, true);
+        writeCounters(out, "cca_components_serialized_total", "Components written to save data", "key", keys, stats -> stats.saveSizes.count());
+        writeHistograms(out, "cca_component_save_bytes", "Size of serialized component data", keys, false);
+
+        Map<String, LongAdder> containers = new TreeMap<>();
+        this.containerCounts.forEach((type, count) -> containers.put(type.getName(), count));
+        writeCounters(out, "cca_containers_created_total", "Component containers created", "provider", containers, LongAdder::sum);
+        writeCounters(out, "cca_deserialization_misses_total", "Saved components that could not be loaded", "key", new TreeMap<>(this.deserializationMisses), LongAdder::sum);
+
+        return out.toString();
+    }
+
+    /**
+     * Writes the {@linkplain #render() current metrics} to a file, replacing it atomically.
+     *
+     * <p>The file can be picked up by tools like the node exporter's textfile collector.
+     */
+    public void write(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.writeString(tmp, this.render());
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static <V> void writeCounters(StringBuilder out, String name, String help, String label, Map<String, V> values, ToLongFunction<V> getter) {
+        writeHeader(out, name, help, "counter");
+        values.forEach((labelValue, value) -> {
+            writeName(out, name, label, labelValue);
+            out.append(' ').append(getter.applyAsLong(value)).append('\n');
+        });
+    }
+
+    private static void writeHistograms(StringBuilder out, String name, String help, Map<String, KeyStats> keys, boolean sync) {
+        writeHeader(out, name, help, "histogram");
+        keys.forEach((keyId, stats) -> {
+            Histogram histogram = sync ? stats.syncSizes : stats.saveSizes;
+            long cumulative = 0;
+            for (int i = 0; i <= SIZE_BUCKETS.length; i++) {
+                cumulative += histogram.buckets[i].sum();
+                String bound = i < SIZE_BUCKETS.length ? String.valueOf(SIZE_BUCKETS[i]) : "+Inf";
+                out.append(name).append("_bucket{key=\"").append(escape(keyId)).append("\",le=\"").append(bound).append("\"} ").append(cumulative).append('\n');
+            }
+            writeName(out, name + "_sum", "key", keyId);
+            out.append(' ').append(histogram.sum.sum()).append('\n');
+            writeName(out, name + "_count", "key", keyId);
+            out.append(' ').append(cumulative).append('\n');
+        });
+    }
+
+    private static void writeHeader(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void writeName(StringBuilder out, String name, String label, String labelValue) {
+        out.append(name).append('{').append(label).append("=\"").append(escape(labelValue)).append("\"}");
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class KeyStats {
+        final Histogram syncSizes = new Histogram();
+        final Histogram saveSizes = new Histogram();
+    }
+
+    private static final class Histogram {
+        // the last bucket has no upper bound
+        final LongAdder[] buckets = new LongAdder[SIZE_BUCKETS.length + 1];
+        final LongAdder sum = new LongAdder();
+
+        Histogram() {
+            for (int i = 0; i < this.buckets.length; i++) {
+                this.buckets[i] = new LongAdder();
+            }
+        }
+
+        void observe(long value, int weight) {
+            int bucket = 0;
+            while (bucket < SIZE_BUCKETS.length && value > SIZE_BUCKETS[bucket]) {
+                bucket++;
+            }
+            this.buckets[bucket].add(weight);
+            this.sum.add(value * weight);
+        }
+
+        long count() {
+            long count = 0;
+            for (LongAdder bucket : this.buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+    }
+}
@@ -42,12 +42,39 @@ public final class QualifiedComponentFactory<I> {
     private final I factory;
     private final Class<? extends Component> impl;
     private final Set<ComponentKey<?>> dependencies;
+    private final boolean lazy;
+    private final int tickInterval;
     private SortingState sortingState = SortingState.UNSORTED;
 
     public QualifiedComponentFactory(I factory, Class<? extends Component> impl, Set<ComponentKey<?>> dependencies) {
+        this(factory, impl, dependencies, false);
+    }
+
+    /**
+     * @param lazy if {@code true}, components are only created the first time they are accessed
+     */
+    public QualifiedComponentFactory(I factory, Class<? extends Component> impl, Set<ComponentKey<?>> dependencies, boolean lazy) {
+        this(factory, impl, dependencies, lazy, 1);
+    }
+
+    /**
+     * @param lazy         if {@code true}, components are only created the first time they are accessed
+     * @param tickInterval the number of server ticks between two calls to the components' {@code serverTick} method
+     */
+    public QualifiedComponentFactory(I factory, Class<? extends Component> impl, Set<ComponentKey<?>> dependencies, boolean lazy, int tickInterval) {
+        if (tickInterval < 1) {
+            throw new IllegalArgumentException("Tick interval must be positive, got " + tickInterval);
+        }
+
         this.factory = factory;
         this.impl = impl;
         this.dependencies = dependencies;
+        this.lazy = lazy;
+        this.tickInterval = tickInterval;
+    }
+
+    public QualifiedComponentFactory<I> withTickInterval(int tickInterval) {
+        return new QualifiedComponentFactory<>(this.factory, this.impl, this.dependencies, this.lazy, tickInterval);
     }
 
     public static <I> void checkNoDependencyCycles(Map<ComponentKey<?>, QualifiedComponentFactory<I>> factories) {
@@ -127,12 +154,22 @@ public final class QualifiedComponentFactory<I> {
         return dependencies;
     }
 
+    public boolean lazy() {
+        return lazy;
+    }
+
+    public int tickInterval() {
+        return tickInterval;
+    }
+
     @Override
     public String toString() {
         return "QualifiedComponentFactory[" +
             "factory=" + factory + ", " +
             "impl=" + impl + ", " +
-            "dependencies=" + dependencies + ']';
+            "dependencies=" + dependencies + ", " +
+            "lazy=" + lazy + ", " +
+            "tickInterval=" + tickInterval + ']';
     }
 
     enum SortingState {
@@ -0,0 +1,211 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DecoderException;
+import net.minecraft.nbt.NbtByteArray;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Payload-level compression for component sync data.
+ *
+ * <p>Sync data is prefixed with a varint holding its size shifted left by 2, with the lowest bit flagging compressed data
+ * and the second bit flagging the use of the {@linkplain #DICTIONARY preset dictionary}.
+ * Compressed data is then followed by a varint length and the deflated bytes.
+ */
+public final class SyncCompression {
+    private static final int COMPRESSED = 0b01;
+    private static final int WITH_DICTIONARY = 0b10;
+    private static final int MAX_UNCOMPRESSED_SIZE = 0x800000;
+
+    /**
+     * Preset deflate dictionary, made of the NBT shapes that most component data ends up using.
+     *
+     * <p>Changing it is a breaking change to the compact sync channels.
+     */
+    private static final byte[] DICTIONARY = createDictionary();
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(Deflater::new);
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+    private static final LongAdder compressedPayloads = new LongAdder();
+    private static final LongAdder uncompressedBytes = new LongAdder();
+    private static final LongAdder compressedBytes = new LongAdder();
+
+    public static final PacketCodec<RegistryByteBuf, RegistryByteBuf> CODEC = PacketCodec.ofStatic(
+        SyncCompression::write,
+        SyncCompression::read
+    );
+
+    private static void write(RegistryByteBuf buf, RegistryByteBuf value) {
+        write(buf, value, ComponentsInternals.getSyncCompressionThreshold(), ComponentsInternals.useSyncCompressionDictionary());
+    }
+
+    @VisibleForTesting
+    static void write(RegistryByteBuf buf, RegistryByteBuf value, int threshold, boolean dictionary) {
+        int size = value.readableBytes();
+
+        if (threshold >= 0 && size >= threshold) {
+            byte[] input = new byte[size];
+            value.getBytes(value.readerIndex(), input);
+            Deflater deflater = DEFLATER.get();
+            deflater.reset();
+            if (dictionary) deflater.setDictionary(DICTIONARY);
+            deflater.setInput(input);
+            deflater.finish();
+
+            // only keep the compressed form if it is actually smaller
+            byte[] output = new byte[size];
+            int length = 0;
+            while (!deflater.finished() && length < output.length) {
+                length += deflater.deflate(output, length, output.length - length);
+            }
+
+            if (deflater.finished()) {
+                buf.writeVarInt(size << 2 | COMPRESSED | (dictionary ? WITH_DICTIONARY : 0));
+                buf.writeVarInt(length);
+                buf.writeBytes(output, 0, length);
+                value.skipBytes(size);
+                compressedPayloads.increment();
+                uncompressedBytes.add(size);
+                compressedBytes.add(length);
+                return;
+            }
+        }
+
+        buf.writeVarInt(size << 2);
+        buf.writeBytes(value);
+    }
+
+    @VisibleForTesting
+    static RegistryByteBuf read(RegistryByteBuf buf) {
+        int header = buf.readVarInt();
+        int size = header >>> 2;
+
+        if (size > MAX_UNCOMPRESSED_SIZE) {
+            throw new DecoderException("Component data is too large (" + size + " bytes)");
+        }
+
+        if ((header & COMPRESSED) == 0) {
+            checkReadable(buf, size);
+            ByteBuf copy = Unpooled.buffer(size, size);
+            buf.readBytes(copy, size);
+            return new RegistryByteBuf(copy, buf.getRegistryManager());
+        }
+
+        int compressedSize = buf.readVarInt();
+        if (compressedSize < 0) {
+            throw new DecoderException("Badly compressed component data, negative length " + compressedSize);
+        }
+        checkReadable(buf, compressedSize);
+        byte[] input = new byte[compressedSize];
+        buf.readBytes(input);
+        byte[] output = new byte[size];
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(input);
+
+        try {
+            int length = inflater.inflate(output);
+            if (length == 0 && inflater.needsDictionary() && (header & WITH_DICTIONARY) != 0) {
+                inflater.setDictionary(DICTIONARY);
+                length = inflater.inflate(output);
+            }
+            if (length != size || !inflater.finished()) {
+                throw new DecoderException("Badly compressed component data, expected " + size + " bytes but got " + length);
+            }
+        } catch (DataFormatException e) {
+            throw new DecoderException("Badly compressed component data", e);
+        }
+
+        return new RegistryByteBuf(Unpooled.wrappedBuffer(output), buf.getRegistryManager());
+    }
+
+    private static void checkReadable(ByteBuf buf, int size) {
+        if (size > buf.readableBytes()) {
+            throw new DecoderException("Component data is truncated, expected " + size + " bytes but only " + buf.readableBytes() + " remain");
+        }
+    }
+
+    /**
+     * @return a human-readable summary of the compression done so far, or {@code null} if nothing got compressed
+     */
+    public static @Nullable String describeStats() {
+        long count = compressedPayloads.sum();
+        if (count == 0) return null;
+        long raw = uncompressedBytes.sum();
+        long compressed = compressedBytes.sum();
+        return "%d sync payloads compressed, %d -> %d bytes (ratio %.2f)".formatted(count, raw, compressed, (double) raw / compressed);
+    }
+
+    public static long getCompressedPayloads() {
+        return compressedPayloads.sum();
+    }
+
+    public static long getUncompressedBytes() {
+        return uncompressedBytes.sum();
+    }
+
+    public static long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    private static byte[] createDictionary() {
+        NbtCompound names = new NbtCompound();
+        NbtCompound numbers = new NbtCompound();
+        for (String key : new String[] {"id", "Count", "count", "components", "tag", "Items", "Slot", "UUID", "Name", "Owner", "Pos", "x", "y", "z", "value", "values", "data", "entries", "key", "type", "level", "amount", "time", "enabled"}) {
+            names.putString(key, key);
+            numbers.putInt(key, 0);
+        }
+        NbtList list = new NbtList();
+        list.add(numbers);
+        NbtCompound sample = new NbtCompound();
+        sample.put("names", names);
+        sample.put("entries", list);
+        sample.put(BinarySerialization.DATA_KEY, new NbtByteArray(new byte[0]));
+
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream(); DataOutputStream data = new DataOutputStream(out)) {
+            NbtIo.writeForPacket(sample, data);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
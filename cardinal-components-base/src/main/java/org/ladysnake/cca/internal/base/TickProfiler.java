@@ -0,0 +1,174 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import org.ladysnake.cca.internal.base.asm.CalledByAsm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates the time spent ticking components, per component key and per provider type.
+ *
+ * <p>Generated containers only report to this profiler if the game was started with {@code -Dcca.profile.ticks=true}.
+ * Otherwise, their tick methods are generated without any instrumentation. Even when instrumented, measurements
+ * are only recorded between calls to {@link #start()} and {@link #stop()}.
+ */
+public final class TickProfiler {
+    /**
+     * If {@code true}, generated tick callbacks time every component they tick.
+     */
+    public static final boolean INSTRUMENTED = Boolean.getBoolean("cca.profile.ticks");
+
+    private static final ClassValue<Map<String, Timer>> timers = new ClassValue<>() {
+        @Override
+        protected Map<String, Timer> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    private static final Map<Class<?>, Boolean> profiledTypes = new ConcurrentHashMap<>();
+    private static volatile boolean running;
+    private static volatile long startTime;
+
+    public static boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts a new profiling session, discarding previous results.
+     */
+    public static void start() {
+        reset();
+        startTime = System.nanoTime();
+        running = true;
+    }
+
+    public static void stop() {
+        running = false;
+    }
+
+    public static void reset() {
+        for (Class<?> type : profiledTypes.keySet()) {
+            timers.remove(type);
+        }
+        profiledTypes.clear();
+    }
+
+    /**
+     * {@return the type used to group the measurements of a container}
+     *
+     * @param provider  the first argument passed to the container's constructor, if any
+     * @param container the container being profiled
+     */
+    @CalledByAsm
+    public static Class<?> getProviderType(Object provider, Object container) {
+        return provider != null ? provider.getClass() : container.getClass();
+    }
+
+    /**
+     * Records the time taken by a single tick of a component.
+     *
+     * @param keyId        the string form of the ticked component's key id
+     * @param providerType the type of provider to which the component is attached
+     * @param nanos        the time spent ticking the component
+     */
+    @CalledByAsm
+    public static void record(String keyId, Class<?> providerType, long nanos) {
+        if (running) {
+            profiledTypes.putIfAbsent(providerType, Boolean.TRUE);
+            timers.get(providerType).computeIfAbsent(keyId, Timer::new).record(nanos);
+        }
+    }
+
+    /**
+     * {@return a human-readable report of the current session, most expensive components first}
+     */
+    public static List<String> report() {
+        List<Map.Entry<Class<?>, Timer>> entries = new ArrayList<>();
+        long totalNanos = 0;
+
+        for (Class<?> type : profiledTypes.keySet()) {
+            for (Timer timer : timers.get(type).values()) {
+                entries.add(Map.entry(type, timer));
+                totalNanos += timer.totalNanos.sum();
+            }
+        }
+
+        entries.sort(Comparator.comparingLong((Map.Entry<Class<?>, Timer> e) -> e.getValue().totalNanos.sum()).reversed());
+        long elapsedNanos = Math.max(1, System.nanoTime() - startTime);
+        List<String> lines = new ArrayList<>(entries.size() + 1);
+        lines.add("%s component ticking: %.3f ms total over %.1f s".formatted(running ? "Ongoing" : "Stopped", totalNanos / 1e6, elapsedNanos / 1e9));
+
+        for (Map.Entry<Class<?>, Timer> entry : entries) {
+            Timer timer = entry.getValue();
+            long calls = timer.calls.sum();
+            long total = timer.totalNanos.sum();
+            lines.add("%s on %s: %d ticks, %.3f ms total, %.2f µs average, %.2f µs max".formatted(
+                timer.keyId,
+                entry.getKey().getName(),
+                calls,
+                total / 1e6,
+                calls == 0 ? 0 : total / 1e3 / calls,
+                timer.maxNanos.get() / 1e3
+            ));
+        }
+
+        return lines;
+    }
+
+    /**
+     * Writes the {@linkplain #report() current report} to a file.
+     */
+    public static void dump(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(path, report());
+    }
+
+    private static final class Timer {
+        final String keyId;
+        final LongAdder calls = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        Timer(String keyId) {
+            this.keyId = keyId;
+        }
+
+        void record(long nanos) {
+            this.calls.increment();
+            this.totalNanos.add(nanos);
+            this.maxNanos.accumulate(nanos);
+        }
+    }
+}
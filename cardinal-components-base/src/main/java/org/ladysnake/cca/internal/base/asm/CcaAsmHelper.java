@@ -25,6 +25,10 @@ package org.ladysnake.cca.internal.base.asm;
 import it.unimi.dsi.fastutil.objects.ReferenceArraySet;
 import net.fabricmc.fabric.api.event.Event;
 import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.util.Identifier;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -32,12 +36,23 @@ import org.ladysnake.cca.api.v3.component.Component;
 import org.ladysnake.cca.api.v3.component.ComponentContainer;
 import org.ladysnake.cca.api.v3.component.ComponentKey;
 import org.ladysnake.cca.api.v3.component.ComponentProvider;
+import org.ladysnake.cca.api.v3.component.DirtyTrackingComponent;
+import org.ladysnake.cca.api.v3.component.tick.ClientTickingComponent;
+import org.ladysnake.cca.api.v3.component.tick.ServerTickingComponent;
 import org.ladysnake.cca.internal.base.AbstractComponentContainer;
+import org.ladysnake.cca.internal.base.BinarySerialization;
+import org.ladysnake.cca.internal.base.CcaMetrics;
+import org.ladysnake.cca.internal.base.ComponentEvents;
+import org.ladysnake.cca.internal.base.ComponentTagWriter;
+import org.ladysnake.cca.internal.base.ComponentsInternals;
+import org.ladysnake.cca.internal.base.DeferredComponentSaves;
 import org.ladysnake.cca.internal.base.QualifiedComponentFactory;
+import org.ladysnake.cca.internal.base.TickProfiler;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.ConstantDynamic;
 import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
@@ -59,11 +74,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 public final class CcaAsmHelper {
 
     /**
-     * If {@code true}, any class generated through {@link #generateClass(ClassWriter, String, boolean, Object)} will
+     * If {@code true}, any class generated through {@link #generateClass(ClassNode, boolean, Object)} will
      * be checked and written to disk. Highly recommended when editing methods in this class.
      */
     public static final boolean DEBUG_CLASSES = Boolean.getBoolean("cca.debug.asm");
@@ -81,6 +97,23 @@ public final class CcaAsmHelper {
     public static final String STATIC_COMPONENT_TYPE = createClassName("ComponentType");
     public static final String STATIC_CONTAINER_FACTORY = createClassName("GeneratedContainerFactory");
     public static final String ABSTRACT_COMPONENT_CONTAINER_CTOR_DESC;
+    // serialization references, resolved through reflection as they mention remapped Minecraft classes
+    private static final String TAG_WRITER = Type.getInternalName(ComponentTagWriter.class);
+    private static final String TAG_WRITER_CTOR_DESC;
+    private static final String TAG_WRITER_WRITE_DESC;
+    private static final String TO_TAG_DESC;
+    private static final String READ_COMPONENT_MAP_DESC;
+    private static final String READ_COMPONENT_DESC;
+    private static final String HAS_COMPONENT_DATA_DESC;
+    private static final String AS_REGISTRY_MANAGER_DESC;
+    private static final String FOR_EACH_COMPONENT_DESC;
+
+    /**
+     * Local variable holding the time at which the last component tick started, in instrumented tick methods.
+     */
+    private static final int PROFILER_START_LOCAL = 1;
+    private static final String TICK_PROFILER = Type.getInternalName(TickProfiler.class);
+    private static final String CCA_METRICS = Type.getInternalName(CcaMetrics.class);
 
     private static final List<AsmGeneratedCallbackInfo> asmGeneratedCallbacks = findAsmComponentCallbacks();
 
@@ -89,6 +122,14 @@ public final class CcaAsmHelper {
     static {
         try {
             ABSTRACT_COMPONENT_CONTAINER_CTOR_DESC = Type.getConstructorDescriptor(AbstractComponentContainer.class.getConstructor());
+            TAG_WRITER_CTOR_DESC = Type.getConstructorDescriptor(ComponentTagWriter.class.getConstructor(NbtCompound.class, NbtElement[].class, RegistryWrapper.WrapperLookup.class));
+            TAG_WRITER_WRITE_DESC = Type.getMethodDescriptor(ComponentTagWriter.class.getMethod("write", int.class, String.class, Component.class));
+            TO_TAG_DESC = Type.getMethodDescriptor(ComponentContainer.class.getMethod("toTag", NbtCompound.class, RegistryWrapper.WrapperLookup.class));
+            READ_COMPONENT_MAP_DESC = Type.getMethodDescriptor(AbstractComponentContainer.class.getDeclaredMethod("readComponentMap", NbtCompound.class, RegistryWrapper.WrapperLookup.class));
+            READ_COMPONENT_DESC = Type.getMethodDescriptor(AbstractComponentContainer.class.getDeclaredMethod("readComponent", NbtCompound.class, String.class, Component.class, RegistryWrapper.WrapperLookup.class, DynamicRegistryManager.class));
+            HAS_COMPONENT_DATA_DESC = Type.getMethodDescriptor(AbstractComponentContainer.class.getDeclaredMethod("hasComponentData", NbtCompound.class, String.class));
+            AS_REGISTRY_MANAGER_DESC = Type.getMethodDescriptor(BinarySerialization.class.getMethod("asRegistryManager", RegistryWrapper.WrapperLookup.class));
+            FOR_EACH_COMPONENT_DESC = Type.getMethodDescriptor(ComponentContainer.class.getMethod("forEachComponent", BiConsumer.class));
         } catch (NoSuchMethodException e) {
             throw new IllegalStateException("Failed to find one or more method descriptors", e);
         }
@@ -128,19 +169,61 @@ public final class CcaAsmHelper {
      * @return the generated class
      */
     public static Class<?> generateClass(ClassNode classNode, boolean hidden, @Nullable Object classData) throws IOException {
-        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
-        classNode.accept(writer);
-        return generateClass(writer, classNode.name, hidden, classData);
+        ComponentEvents.ContainerClassGenerated event = new ComponentEvents.ContainerClassGenerated();
+        event.begin();
+        if (GeneratedClassCache.ENABLED && !DEBUG_CLASSES) {
+            String cacheKey = GeneratedClassCache.computeKey(classNode);
+            byte[] cached = GeneratedClassCache.get(cacheKey);
+            if (cached != null) {
+                try {
+                    return generateClass(event, cached, classNode.name, hidden, classData, true);
+                } catch (LinkageError e) {
+                    // e.g. ClassFormatError for a corrupted file, or VerifyError if the frames no longer match the class hierarchy
+                    GeneratedClassCache.invalidate(cacheKey);
+                    if (!hidden) {
+                        // a named class cannot be defined twice, so if the failed attempt still registered it, we are stuck with it
+                        Class<?> loaded = findLoadedClass(classNode.name);
+                        if (loaded != null) {
+                            ComponentsInternals.LOGGER.warn("Cached class {} is corrupted, it will be regenerated on next launch", classNode.name, e);
+                            return loaded;
+                        }
+                    }
+                    ComponentsInternals.LOGGER.warn("Cached class {} is corrupted, regenerating it", classNode.name, e);
+                }
+            }
+            byte[] bytes = computeFrames(classNode);
+            Class<?> generated = generateClass(event, bytes, classNode.name, hidden, classData, false);
+            GeneratedClassCache.put(cacheKey, bytes);
+            return generated;
+        }
+        return generateClass(event, computeFrames(classNode), classNode.name, hidden, classData, false);
+    }
+
+    private static @Nullable Class<?> findLoadedClass(String internalName) {
+        try {
+            return MethodHandles.lookup().findClass(internalName.replace('/', '.'));
+        } catch (ClassNotFoundException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static byte[] computeFrames(ClassNode classNode) throws IOException {
+        try {
+            ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+            classNode.accept(writer);
+            return writer.toByteArray();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new IOException("Failed to generate class " + classNode.name, e);
+        }
     }
 
     // Only used while debugging, so that the hidden classes don't all overwrite each other
     private static final AtomicInteger nextDebugId = new AtomicInteger();
-    private static Class<?> generateClass(ClassWriter classWriter, String className, boolean hidden, @Nullable Object classData) throws IOException {
+    private static Class<?> generateClass(ComponentEvents.ContainerClassGenerated event, byte[] bytes, String className, boolean hidden, @Nullable Object classData, boolean cached) throws IOException {
         try {
             if (!hidden && classData != null) {
                 throw new IllegalArgumentException("Class data is only supported for hidden classes");
             }
-            byte[] bytes = classWriter.toByteArray();
             if (DEBUG_CLASSES) {
                 ClassReader classReader = new ClassReader(bytes);
                 classReader.accept(new CheckClassAdapter(null), 0);
@@ -148,15 +231,23 @@ public final class CcaAsmHelper {
                 Files.createDirectories(path.getParent());
                 Files.write(path, bytes);
             }
+            Class<?> generated;
             if (hidden) {
                 if (classData == null) {
-                    return MethodHandles.lookup().defineHiddenClass(bytes, false, MethodHandles.Lookup.ClassOption.STRONG).lookupClass();
+                    generated = MethodHandles.lookup().defineHiddenClass(bytes, false, MethodHandles.Lookup.ClassOption.STRONG).lookupClass();
                 } else {
-                    return MethodHandles.lookup().defineHiddenClassWithClassData(bytes, classData, false, MethodHandles.Lookup.ClassOption.STRONG).lookupClass();
+                    generated = MethodHandles.lookup().defineHiddenClassWithClassData(bytes, classData, false, MethodHandles.Lookup.ClassOption.STRONG).lookupClass();
                 }
             } else {
-                return MethodHandles.lookup().defineClass(bytes);
+                generated = MethodHandles.lookup().defineClass(bytes);
+            }
+            if (event.shouldCommit()) {
+                event.className = className;
+                event.size = bytes.length;
+                event.cached = cached;
+                event.commit();
             }
+            return generated;
         } catch (IOException | IllegalArgumentException | IllegalStateException e) {
             // IllegalStateException and IllegalArgumentException can be thrown by CheckClassAdapter
             throw new IOException("Failed to generate class " + className, e);
@@ -177,6 +268,10 @@ public final class CcaAsmHelper {
         return "get$" + getJavaIdentifierName(identifier);
     }
 
+    private static String getMaterializerName(Identifier identifier) {
+        return "create$" + getJavaIdentifierName(identifier);
+    }
+
     public static Method findSam(Class<?> callbackClass) {
         if (!callbackClass.isInterface()) {
             throw badFunctionalInterface(callbackClass);
@@ -278,6 +373,43 @@ public final class CcaAsmHelper {
         init.visitVarInsn(Opcodes.ALOAD, 0);
         init.visitMethodInsn(Opcodes.INVOKESPECIAL, STATIC_COMPONENT_CONTAINER, "<init>", ABSTRACT_COMPONENT_CONTAINER_CTOR_DESC, false);
 
+        List<ComponentKey<?>> lazyKeys = sorted.entrySet().stream().filter(e -> e.getValue().lazy()).<ComponentKey<?>>map(Map.Entry::getKey).toList();
+
+        if (!lazyKeys.isEmpty()) {
+            // lazy components get created outside the constructor, so we need to hang on to the factory arguments
+            for (int i = 0; i < factoryArgs.length; i++) {
+                classNode.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, getFactoryArgFieldName(i), actualCtorArgs[i].getDescriptor(), null, null).visitEnd();
+                init.visitVarInsn(Opcodes.ALOAD, 0);
+                init.visitVarInsn(Opcodes.ALOAD, i + 1);
+                init.visitFieldInsn(Opcodes.PUTFIELD, containerImplName, getFactoryArgFieldName(i), actualCtorArgs[i].getDescriptor());
+            }
+        }
+
+        generateSnapshotCheck(classNode, sorted.values().stream().anyMatch(f -> DeferredComponentSaves.isDeferrable(f.impl())));
+
+        boolean hasNbtCache = sorted.values().stream().anyMatch(f -> DirtyTrackingComponent.class.isAssignableFrom(f.impl()));
+        if (hasNbtCache) {
+            generateNbtCache(classNode, init, containerImplName, sorted.size());
+        }
+
+        if (TickProfiler.INSTRUMENTED) {
+            // remember what kind of provider this container belongs to, for profiling reports
+            classNode.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "profiledProviderType", "Ljava/lang/Class;", null, null).visitEnd();
+            init.visitVarInsn(Opcodes.ALOAD, 0);
+            // stack: <this>
+            if (factoryArgs.length > 0) {
+                init.visitVarInsn(Opcodes.ALOAD, 1);
+            } else {
+                init.visitInsn(Opcodes.ACONST_NULL);
+            }
+            init.visitVarInsn(Opcodes.ALOAD, 0);
+            // stack: <this> provider <this>
+            init.visitMethodInsn(Opcodes.INVOKESTATIC, TICK_PROFILER, "getProviderType", "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Class;", false);
+            // stack: <this> providerType
+            init.visitFieldInsn(Opcodes.PUTFIELD, containerImplName, "profiledProviderType", "Ljava/lang/Class;");
+            // <empty stack>
+        }
+
         Map<AsmGeneratedCallbackInfo, MethodVisitor> callbackMethods = new LinkedHashMap<>();
         for (AsmGeneratedCallbackInfo callbackInfo : asmGeneratedCallbacks) {
             MethodVisitor visitor = classNode.visitMethod(Opcodes.ACC_PUBLIC, callbackInfo.containerCallbackName(), "()V", null, null);
@@ -291,6 +423,7 @@ public final class CcaAsmHelper {
             Class<? extends Component> impl = entry.getValue().impl();
             String componentFieldDescriptor = Type.getDescriptor(impl);
             String factoryFieldName = getFactoryFieldName(identifier);
+            boolean lazy = entry.getValue().lazy();
             /* field declaration */
             classNode.visitField(
                 Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL,
@@ -300,35 +433,20 @@ public final class CcaAsmHelper {
                 null
             ).visitEnd();
             classNode.visitField(
-                Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL,
+                Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL,
+                getKeyFieldName(identifier),
+                "L" + COMPONENT_TYPE + ";",
+                null,
+                null
+            ).visitEnd();
+            classNode.visitField(
+                // lazy components may be accessed for the first time from several threads (e.g. region ticking)
+                lazy ? Opcodes.ACC_PRIVATE | Opcodes.ACC_VOLATILE : Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL,
                 componentFieldName,
                 componentFieldDescriptor,
                 null,
                 null
             ).visitEnd();
-            /* constructor initialization */
-            init.visitFieldInsn(Opcodes.GETSTATIC, containerImplName, factoryFieldName, factoryFieldDescriptor);
-            // stack: factory
-            for (int i = 0; i < factoryArgs.length; i++) {
-                init.visitVarInsn(Opcodes.ALOAD, i + 1);    // first arg is for the container itself
-            }
-            // stack: factory factoryArgs...
-            // initialize the component by calling the factory
-            init.visitMethodInsn(Opcodes.INVOKEINTERFACE, componentFactoryName, sam.getName(), samDescriptor, true);
-            // stack: component
-            init.visitLdcInsn("Component factory " + entry.getValue().factory().getClass() + " for " + identifier + " produced a null component");
-            // stack: component, errorMsg
-            init.visitMethodInsn(Opcodes.INVOKESTATIC, "java/util/Objects", "requireNonNull", "(Ljava/lang/Object;Ljava/lang/String;)Ljava/lang/Object;", false);
-            // stack: object
-            init.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(impl));
-            // stack: component
-            init.visitVarInsn(Opcodes.ALOAD, 0);
-            // stack: component <this>
-            init.visitInsn(Opcodes.SWAP);
-            // stack: <this> component
-            // store in the field
-            init.visitFieldInsn(Opcodes.PUTFIELD, containerImplName, componentFieldName, componentFieldDescriptor);
-            // <empty stack>
 
             /* getter implementation */
             MethodVisitor getter = classNode.visitMethod(
@@ -338,13 +456,96 @@ public final class CcaAsmHelper {
                 null,
                 null
             );
-            getter.visitVarInsn(Opcodes.ALOAD, 0);
-            // stack: <this>
-            getter.visitFieldInsn(Opcodes.GETFIELD, containerImplName, componentFieldName, componentFieldDescriptor);
-            // stack: component
-            getter.visitInsn(Opcodes.ARETURN);
+
+            if (lazy) {
+                // double-checked creation, so that concurrent first accesses all get the same instance
+                String materializerName = getMaterializerName(identifier);
+                Label created = new Label();
+                getter.visitCode();
+                getter.visitVarInsn(Opcodes.ALOAD, 0);
+                // stack: <this>
+                getter.visitFieldInsn(Opcodes.GETFIELD, containerImplName, componentFieldName, componentFieldDescriptor);
+                // stack: component
+                getter.visitInsn(Opcodes.DUP);
+                // stack: component component
+                getter.visitJumpInsn(Opcodes.IFNONNULL, created);
+                // stack: null
+                getter.visitInsn(Opcodes.POP);
+                // <empty stack>
+                getter.visitVarInsn(Opcodes.ALOAD, 0);
+                // stack: <this>
+                getter.visitMethodInsn(Opcodes.INVOKESPECIAL, containerImplName, materializerName, "()" + componentFieldDescriptor, false);
+                // stack: component
+                getter.visitLabel(created);
+                getter.visitInsn(Opcodes.ARETURN);
+
+                MethodVisitor materializer = classNode.visitMethod(
+                    Opcodes.ACC_PRIVATE | Opcodes.ACC_SYNCHRONIZED,
+                    materializerName,
+                    "()" + componentFieldDescriptor,
+                    null,
+                    null
+                );
+                Label alreadyCreated = new Label();
+                materializer.visitCode();
+                materializer.visitVarInsn(Opcodes.ALOAD, 0);
+                // stack: <this>
+                materializer.visitFieldInsn(Opcodes.GETFIELD, containerImplName, componentFieldName, componentFieldDescriptor);
+                // stack: component
+                materializer.visitInsn(Opcodes.DUP);
+                // stack: component component
+                materializer.visitJumpInsn(Opcodes.IFNONNULL, alreadyCreated);
+                // stack: null
+                materializer.visitInsn(Opcodes.POP);
+                // <empty stack>
+                materializer.visitVarInsn(Opcodes.ALOAD, 0);
+                // stack: <this>
+                generateComponentCreation(materializer, containerImplName, componentFactoryName, sam, samDescriptor, factoryFieldName, factoryFieldDescriptor, factoryArgs.length, true, entry.getValue(), identifier, impl);
+                // stack: <this> component
+                materializer.visitInsn(Opcodes.DUP_X1);
+                // stack: component <this> component
+                materializer.visitFieldInsn(Opcodes.PUTFIELD, containerImplName, componentFieldName, componentFieldDescriptor);
+                // stack: component
+                materializer.visitLabel(alreadyCreated);
+                materializer.visitInsn(Opcodes.ARETURN);
+                materializer.visitEnd();
+            } else {
+                /* constructor initialization */
+                generateComponentCreation(init, containerImplName, componentFactoryName, sam, samDescriptor, factoryFieldName, factoryFieldDescriptor, factoryArgs.length, false, entry.getValue(), identifier, impl);
+                // stack: component
+                init.visitVarInsn(Opcodes.ALOAD, 0);
+                // stack: component <this>
+                init.visitInsn(Opcodes.SWAP);
+                // stack: <this> component
+                // store in the field
+                init.visitFieldInsn(Opcodes.PUTFIELD, containerImplName, componentFieldName, componentFieldDescriptor);
+                // <empty stack>
+
+                getter.visitVarInsn(Opcodes.ALOAD, 0);
+                // stack: <this>
+                getter.visitFieldInsn(Opcodes.GETFIELD, containerImplName, componentFieldName, componentFieldDescriptor);
+                // stack: component
+                getter.visitInsn(Opcodes.ARETURN);
+            }
             getter.visitEnd();
 
+            int tickInterval = entry.getValue().tickInterval();
+            if (tickInterval > 1 && ServerTickingComponent.class.isAssignableFrom(impl)) {
+                // each container starts at a different point of the tick cycle, to spread the load over every tick
+                String countdownFieldName = getTickCountdownFieldName(componentFieldName);
+                classNode.visitField(Opcodes.ACC_PRIVATE, countdownFieldName, "I", null, null).visitEnd();
+                init.visitVarInsn(Opcodes.ALOAD, 0);
+                // stack: <this>
+                init.visitVarInsn(Opcodes.ALOAD, factoryArgs.length > 0 ? 1 : 0);   // hash the provider if we have it
+                init.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/System", "identityHashCode", "(Ljava/lang/Object;)I", false);
+                init.visitLdcInsn(tickInterval);
+                // stack: <this> hash interval
+                init.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Math", "floorMod", "(II)I", false);
+                // stack: <this> phase
+                init.visitFieldInsn(Opcodes.PUTFIELD, containerImplName, countdownFieldName, "I");
+                // <empty stack>
+            }
+
             /* no-arg callback implementations */
             for (var e : callbackMethods.entrySet()) {
                 if (e.getKey().componentClass().isAssignableFrom(impl)) {
@@ -354,11 +555,37 @@ public final class CcaAsmHelper {
                         componentFieldName,
                         impl,
                         componentFieldDescriptor,
-                        e.getKey().componentCallbackName()
+                        e.getKey().componentCallbackName(),
+                        lazy,
+                        e.getKey().componentClass() == ServerTickingComponent.class ? tickInterval : 1,
+                        TickProfiler.INSTRUMENTED && isTickCallback(e.getKey()) ? identifier.toString() : null
                     );
                 }
             }
         }
+
+        if (!lazyKeys.isEmpty()) {
+            generateMaterializationChecks(classNode, containerImplName, sorted, lazyKeys);
+        }
+
+        if (!sorted.isEmpty()) {
+            generateSerialization(classNode, containerImplName, sorted, hasNbtCache);
+            generateComponentIteration(classNode, containerImplName, sorted);
+        }
+
+        // let metrics listeners know about the new container, once it is fully initialized
+        // containers are created very often, so they only pay for the call if metrics were enabled before their class got generated
+        if (CcaMetrics.isEnabled()) {
+            if (factoryArgs.length > 0) {
+                init.visitVarInsn(Opcodes.ALOAD, 1);
+            } else {
+                init.visitInsn(Opcodes.ACONST_NULL);
+            }
+            init.visitVarInsn(Opcodes.ALOAD, 0);
+            // stack: provider <this>
+            init.visitMethodInsn(Opcodes.INVOKESTATIC, CCA_METRICS, "recordContainerCreation", "(Ljava/lang/Object;Ljava/lang/Object;)V", false);
+            // <empty stack>
+        }
         init.visitInsn(Opcodes.RETURN);
         init.visitEnd();
 
@@ -367,7 +594,7 @@ public final class CcaAsmHelper {
             e.getValue().visitEnd();
         }
 
-        Object[] classData = new Object[sorted.size() + 1];
+        Object[] classData = new Object[sorted.size() * 2 + 1];
         classData[0] = Collections.unmodifiableSet(new ReferenceArraySet<>(sorted.keySet()));
         // On class init, we pull out the class data and put it in the proper fields
         MethodVisitor clinit = classNode.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
@@ -390,6 +617,15 @@ public final class CcaAsmHelper {
             clinit.visitFieldInsn(Opcodes.PUTSTATIC, containerImplName, getFactoryFieldName(entry.getKey().getId()), Type.getDescriptor(componentFactoryType));
             i++;
         }
+        for (ComponentKey<?> key : sorted.keySet()) {
+            classData[i] = key;
+            clinit.visitInsn(Opcodes.DUP);
+            clinit.visitLdcInsn(i);
+            clinit.visitInsn(Opcodes.AALOAD);
+            clinit.visitTypeInsn(Opcodes.CHECKCAST, COMPONENT_TYPE);
+            clinit.visitFieldInsn(Opcodes.PUTSTATIC, containerImplName, getKeyFieldName(key.getId()), "L" + COMPONENT_TYPE + ";");
+            i++;
+        }
         clinit.visitInsn(Opcodes.POP);
         clinit.visitInsn(Opcodes.RETURN);
         clinit.visitEnd();
@@ -411,7 +647,336 @@ public final class CcaAsmHelper {
         );
     }
 
-    private static void generateCallbackImpl(String containerImplName, MethodVisitor tick, String componentFieldName, Class<? extends Component> impl, String componentFieldDescriptor, String target) {
+    /**
+     * Adds a cache for the tags written by {@link DirtyTrackingComponent}s, and exposes it
+     * through {@link AbstractComponentContainer#getNbtCache()}.
+     */
+    private static void generateNbtCache(ClassNode classNode, MethodVisitor init, String containerImplName, int size) {
+        String cacheDescriptor = Type.getDescriptor(NbtElement[].class);
+        classNode.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "nbtCache", cacheDescriptor, null, null).visitEnd();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        // stack: <this>
+        init.visitLdcInsn(size);
+        init.visitTypeInsn(Opcodes.ANEWARRAY, Type.getInternalName(NbtElement.class));
+        // stack: <this> cache
+        init.visitFieldInsn(Opcodes.PUTFIELD, containerImplName, "nbtCache", cacheDescriptor);
+        // <empty stack>
+
+        MethodVisitor getter = classNode.visitMethod(Opcodes.ACC_PROTECTED, "getNbtCache", "()" + cacheDescriptor, null, null);
+        getter.visitCode();
+        getter.visitVarInsn(Opcodes.ALOAD, 0);
+        getter.visitFieldInsn(Opcodes.GETFIELD, containerImplName, "nbtCache", cacheDescriptor);
+        getter.visitInsn(Opcodes.ARETURN);
+        getter.visitEnd();
+    }
+
+    /**
+     * Overrides {@link AbstractComponentContainer#hasSnapshotComponents()} with a constant,
+     * based on the implementation classes the components were registered with.
+     */
+    private static void generateSnapshotCheck(ClassNode classNode, boolean hasSnapshotComponents) {
+        MethodVisitor check = classNode.visitMethod(Opcodes.ACC_PUBLIC, "hasSnapshotComponents", "()Z", null, null);
+        check.visitCode();
+        check.visitInsn(hasSnapshotComponents ? Opcodes.ICONST_1 : Opcodes.ICONST_0);
+        check.visitInsn(Opcodes.IRETURN);
+        check.visitEnd();
+    }
+
+    /**
+     * Generates code creating a component through its factory, leaving it on the stack.
+     *
+     * @param argsFromFields if {@code true}, factory arguments are read from the fields generated for lazy components,
+     *                       otherwise they are read from the constructor's parameters
+     */
+    private static void generateComponentCreation(MethodVisitor mv, String containerImplName, String componentFactoryName, Method sam, String samDescriptor, String factoryFieldName, String factoryFieldDescriptor, int argCount, boolean argsFromFields, QualifiedComponentFactory<?> factory, Identifier identifier, Class<? extends Component> impl) {
+        mv.visitFieldInsn(Opcodes.GETSTATIC, containerImplName, factoryFieldName, factoryFieldDescriptor);
+        // stack: factory
+        Class<?>[] argTypes = sam.getParameterTypes();
+        for (int i = 0; i < argCount; i++) {
+            if (argsFromFields) {
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitFieldInsn(Opcodes.GETFIELD, containerImplName, getFactoryArgFieldName(i), Type.getDescriptor(argTypes[i]));
+            } else {
+                mv.visitVarInsn(Opcodes.ALOAD, i + 1);    // first arg is for the container itself
+            }
+        }
+        // stack: factory factoryArgs...
+        // initialize the component by calling the factory
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, componentFactoryName, sam.getName(), samDescriptor, true);
+        // stack: component
+        mv.visitLdcInsn("Component factory " + factory.factory().getClass() + " for " + identifier + " produced a null component");
+        // stack: component, errorMsg
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/util/Objects", "requireNonNull", "(Ljava/lang/Object;Ljava/lang/String;)Ljava/lang/Object;", false);
+        // stack: object
+        mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(impl));
+        // stack: component
+    }
+
+    /**
+     * Overrides both {@link AbstractComponentContainer#isMaterialized} methods, checking lazy component fields for {@code null}.
+     */
+    private static void generateMaterializationChecks(ClassNode classNode, String containerImplName, Map<ComponentKey<?>, ? extends QualifiedComponentFactory<?>> sorted, List<ComponentKey<?>> lazyKeys) {
+        MethodVisitor byIndex = classNode.visitMethod(Opcodes.ACC_PUBLIC, "isMaterialized", "(I)Z", null, null);
+        byIndex.visitCode();
+        Label notMaterialized = new Label();
+        Label materialized = new Label();
+        int[] indices = new int[lazyKeys.size()];
+        Label[] labels = new Label[lazyKeys.size()];
+        List<ComponentKey<?>> allKeys = new ArrayList<>(sorted.keySet());
+        for (int i = 0; i < lazyKeys.size(); i++) {
+            indices[i] = allKeys.indexOf(lazyKeys.get(i));
+            labels[i] = new Label();
+        }
+        byIndex.visitVarInsn(Opcodes.ILOAD, 1);
+        byIndex.visitLookupSwitchInsn(materialized, indices, labels);
+        for (int i = 0; i < lazyKeys.size(); i++) {
+            ComponentKey<?> lazyKey = lazyKeys.get(i);
+            byIndex.visitLabel(labels[i]);
+            byIndex.visitVarInsn(Opcodes.ALOAD, 0);
+            byIndex.visitFieldInsn(Opcodes.GETFIELD, containerImplName, getJavaIdentifierName(lazyKey.getId()), Type.getDescriptor(sorted.get(lazyKey).impl()));
+            byIndex.visitJumpInsn(Opcodes.IFNULL, notMaterialized);
+            byIndex.visitJumpInsn(Opcodes.GOTO, materialized);
+        }
+        byIndex.visitLabel(notMaterialized);
+        byIndex.visitInsn(Opcodes.ICONST_0);
+        byIndex.visitInsn(Opcodes.IRETURN);
+        byIndex.visitLabel(materialized);
+        byIndex.visitInsn(Opcodes.ICONST_1);
+        byIndex.visitInsn(Opcodes.IRETURN);
+        byIndex.visitEnd();
+
+        MethodVisitor byKey = classNode.visitMethod(Opcodes.ACC_PUBLIC, "isMaterialized", "(L" + COMPONENT_TYPE + ";)Z", "(L" + COMPONENT_TYPE + "<*>;)Z", null);
+        byKey.visitCode();
+        Label keyNotMaterialized = new Label();
+        for (ComponentKey<?> lazyKey : lazyKeys) {
+            Label next = new Label();
+            byKey.visitVarInsn(Opcodes.ALOAD, 1);
+            byKey.visitFieldInsn(Opcodes.GETSTATIC, containerImplName, getKeyFieldName(lazyKey.getId()), "L" + COMPONENT_TYPE + ";");
+            byKey.visitJumpInsn(Opcodes.IF_ACMPNE, next);
+            byKey.visitVarInsn(Opcodes.ALOAD, 0);
+            byKey.visitFieldInsn(Opcodes.GETFIELD, containerImplName, getJavaIdentifierName(lazyKey.getId()), Type.getDescriptor(sorted.get(lazyKey).impl()));
+            byKey.visitJumpInsn(Opcodes.IFNULL, keyNotMaterialized);
+            byKey.visitInsn(Opcodes.ICONST_1);
+            byKey.visitInsn(Opcodes.IRETURN);
+            byKey.visitLabel(next);
+        }
+        byKey.visitInsn(Opcodes.ICONST_1);
+        byKey.visitInsn(Opcodes.IRETURN);
+        byKey.visitLabel(keyNotMaterialized);
+        byKey.visitInsn(Opcodes.ICONST_0);
+        byKey.visitInsn(Opcodes.IRETURN);
+        byKey.visitEnd();
+    }
+
+    /**
+     * Overrides {@link AbstractComponentContainer#toTag} and {@link AbstractComponentContainer#readComponentMap}
+     * with unrolled versions, using constant key strings and direct field access instead of iterating over {@code keys()}.
+     *
+     * <p>Both methods delegate the actual (de)serialization of each component to the same helpers
+     * as their generic counterparts, so that the output is the same.
+     */
+    private static void generateSerialization(ClassNode classNode, String containerImplName, Map<ComponentKey<?>, ? extends QualifiedComponentFactory<?>> sorted, boolean hasNbtCache) {
+        String cacheDescriptor = Type.getDescriptor(NbtElement[].class);
+
+        MethodVisitor toTag = classNode.visitMethod(Opcodes.ACC_PUBLIC, "toTag", TO_TAG_DESC, null, null);
+        toTag.visitCode();
+        toTag.visitTypeInsn(Opcodes.NEW, TAG_WRITER);
+        toTag.visitInsn(Opcodes.DUP);
+        toTag.visitVarInsn(Opcodes.ALOAD, 1);
+        if (hasNbtCache) {
+            toTag.visitVarInsn(Opcodes.ALOAD, 0);
+            toTag.visitFieldInsn(Opcodes.GETFIELD, containerImplName, "nbtCache", cacheDescriptor);
+        } else {
+            toTag.visitInsn(Opcodes.ACONST_NULL);
+        }
+        toTag.visitVarInsn(Opcodes.ALOAD, 2);
+        // stack: writer writer tag cache registryLookup
+        toTag.visitMethodInsn(Opcodes.INVOKESPECIAL, TAG_WRITER, "<init>", TAG_WRITER_CTOR_DESC, false);
+        // stack: writer
+        toTag.visitVarInsn(Opcodes.ASTORE, 3);
+        // <empty stack>
+
+        MethodVisitor read = classNode.visitMethod(Opcodes.ACC_PROTECTED, "readComponentMap", READ_COMPONENT_MAP_DESC, null, null);
+        read.visitCode();
+        read.visitVarInsn(Opcodes.ALOAD, 2);
+        read.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(BinarySerialization.class), "asRegistryManager", AS_REGISTRY_MANAGER_DESC, false);
+        read.visitVarInsn(Opcodes.ASTORE, 3);
+
+        int index = 0;
+        for (var entry : sorted.entrySet()) {
+            Identifier identifier = entry.getKey().getId();
+            String keyId = identifier.toString();
+            String componentFieldName = getJavaIdentifierName(identifier);
+            String componentFieldDescriptor = Type.getDescriptor(entry.getValue().impl());
+
+            toTag.visitVarInsn(Opcodes.ALOAD, 3);
+            toTag.visitLdcInsn(index);
+            toTag.visitLdcInsn(keyId);
+            toTag.visitVarInsn(Opcodes.ALOAD, 0);
+            // a lazy component that was never created is null here, which the writer skips
+            toTag.visitFieldInsn(Opcodes.GETFIELD, containerImplName, componentFieldName, componentFieldDescriptor);
+            // stack: writer index keyId component
+            toTag.visitMethodInsn(Opcodes.INVOKEVIRTUAL, TAG_WRITER, "write", TAG_WRITER_WRITE_DESC, false);
+            // <empty stack>
+
+            Label skip = new Label();
+            if (entry.getValue().lazy()) {
+                // do not create lazy components unless there is data to read
+                read.visitVarInsn(Opcodes.ALOAD, 1);
+                read.visitLdcInsn(keyId);
+                read.visitMethodInsn(Opcodes.INVOKESTATIC, DYNAMIC_COMPONENT_CONTAINER_IMPL, "hasComponentData", HAS_COMPONENT_DATA_DESC, false);
+                read.visitJumpInsn(Opcodes.IFEQ, skip);
+            }
+            read.visitVarInsn(Opcodes.ALOAD, 1);
+            read.visitLdcInsn(keyId);
+            read.visitVarInsn(Opcodes.ALOAD, 0);
+            if (entry.getValue().lazy()) {
+                read.visitMethodInsn(Opcodes.INVOKEVIRTUAL, containerImplName, getStaticStorageGetterName(identifier), STATIC_CONTAINER_GETTER_DESC, false);
+            } else {
+                read.visitFieldInsn(Opcodes.GETFIELD, containerImplName, componentFieldName, componentFieldDescriptor);
+            }
+            read.visitVarInsn(Opcodes.ALOAD, 2);
+            read.visitVarInsn(Opcodes.ALOAD, 3);
+            // stack: componentMap keyId component registryLookup registryManager
+            read.visitMethodInsn(Opcodes.INVOKESTATIC, DYNAMIC_COMPONENT_CONTAINER_IMPL, "readComponent", READ_COMPONENT_DESC, false);
+            // <empty stack>
+            read.visitLabel(skip);
+            index++;
+        }
+
+        toTag.visitVarInsn(Opcodes.ALOAD, 1);
+        toTag.visitInsn(Opcodes.ARETURN);
+        toTag.visitEnd();
+
+        read.visitInsn(Opcodes.RETURN);
+        read.visitEnd();
+    }
+
+    /**
+     * Overrides {@link AbstractComponentContainer#forEachComponent}, {@link AbstractComponentContainer#componentAt}
+     * and {@link AbstractComponentContainer#getKey} with versions reading each component field directly,
+     * instead of looking up every key in {@code keys()}.
+     *
+     * <p>Lazy components that were never created are null in their field, and get skipped.
+     */
+    private static void generateComponentIteration(ClassNode classNode, String containerImplName, Map<ComponentKey<?>, ? extends QualifiedComponentFactory<?>> sorted) {
+        String keyDescriptor = "L" + COMPONENT_TYPE + ";";
+
+        MethodVisitor forEach = classNode.visitMethod(Opcodes.ACC_PUBLIC, "forEachComponent", FOR_EACH_COMPONENT_DESC, null, null);
+        forEach.visitCode();
+        for (var entry : sorted.entrySet()) {
+            Identifier identifier = entry.getKey().getId();
+            String componentFieldName = getJavaIdentifierName(identifier);
+            String componentFieldDescriptor = Type.getDescriptor(entry.getValue().impl());
+            Label next = new Label();
+
+            if (entry.getValue().lazy()) {
+                forEach.visitVarInsn(Opcodes.ALOAD, 0);
+                forEach.visitFieldInsn(Opcodes.GETFIELD, containerImplName, componentFieldName, componentFieldDescriptor);
+                forEach.visitJumpInsn(Opcodes.IFNULL, next);
+            }
+            forEach.visitVarInsn(Opcodes.ALOAD, 1);
+            forEach.visitFieldInsn(Opcodes.GETSTATIC, containerImplName, getKeyFieldName(identifier), keyDescriptor);
+            forEach.visitVarInsn(Opcodes.ALOAD, 0);
+            forEach.visitFieldInsn(Opcodes.GETFIELD, containerImplName, componentFieldName, componentFieldDescriptor);
+            // stack: action key component
+            forEach.visitMethodInsn(Opcodes.INVOKEINTERFACE, "java/util/function/BiConsumer", "accept", "(Ljava/lang/Object;Ljava/lang/Object;)V", true);
+            // <empty stack>
+            forEach.visitLabel(next);
+        }
+        forEach.visitInsn(Opcodes.RETURN);
+        forEach.visitEnd();
+
+        MethodVisitor componentAt = classNode.visitMethod(Opcodes.ACC_PUBLIC, "componentAt", "(I)L" + COMPONENT + ";", null, null);
+        componentAt.visitCode();
+        Label outOfBounds = new Label();
+        Label[] labels = new Label[sorted.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = new Label();
+        }
+        componentAt.visitVarInsn(Opcodes.ILOAD, 1);
+        componentAt.visitTableSwitchInsn(0, labels.length - 1, outOfBounds, labels);
+        int index = 0;
+        for (var entry : sorted.entrySet()) {
+            componentAt.visitLabel(labels[index++]);
+            componentAt.visitVarInsn(Opcodes.ALOAD, 0);
+            componentAt.visitFieldInsn(Opcodes.GETFIELD, containerImplName, getJavaIdentifierName(entry.getKey().getId()), Type.getDescriptor(entry.getValue().impl()));
+            componentAt.visitInsn(Opcodes.ARETURN);
+        }
+        componentAt.visitLabel(outOfBounds);
+        componentAt.visitTypeInsn(Opcodes.NEW, "java/lang/IndexOutOfBoundsException");
+        componentAt.visitInsn(Opcodes.DUP);
+        componentAt.visitVarInsn(Opcodes.ILOAD, 1);
+        componentAt.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/IndexOutOfBoundsException", "<init>", "(I)V", false);
+        componentAt.visitInsn(Opcodes.ATHROW);
+        componentAt.visitEnd();
+
+        MethodVisitor getKey = classNode.visitMethod(Opcodes.ACC_PUBLIC, "getKey", "(L" + COMPONENT + ";)" + keyDescriptor, null, null);
+        getKey.visitCode();
+        Label notFound = new Label();
+        // null would otherwise match lazy components that were never created
+        getKey.visitVarInsn(Opcodes.ALOAD, 1);
+        getKey.visitJumpInsn(Opcodes.IFNULL, notFound);
+        for (var entry : sorted.entrySet()) {
+            Identifier identifier = entry.getKey().getId();
+            Label next = new Label();
+            getKey.visitVarInsn(Opcodes.ALOAD, 0);
+            getKey.visitFieldInsn(Opcodes.GETFIELD, containerImplName, getJavaIdentifierName(identifier), Type.getDescriptor(entry.getValue().impl()));
+            getKey.visitVarInsn(Opcodes.ALOAD, 1);
+            getKey.visitJumpInsn(Opcodes.IF_ACMPNE, next);
+            getKey.visitFieldInsn(Opcodes.GETSTATIC, containerImplName, getKeyFieldName(identifier), keyDescriptor);
+            getKey.visitInsn(Opcodes.ARETURN);
+            getKey.visitLabel(next);
+        }
+        getKey.visitLabel(notFound);
+        getKey.visitInsn(Opcodes.ACONST_NULL);
+        getKey.visitInsn(Opcodes.ARETURN);
+        getKey.visitEnd();
+    }
+
+    /**
+     * @param tickInterval if greater than 1, the callback is only called once every {@code tickInterval} calls,
+     *                     as counted down by the component's {@linkplain #getTickCountdownFieldName(String) countdown field}
+     * @param profiledKeyId if not {@code null}, the callback gets timed and reported to the {@link TickProfiler} under this id
+     */
+    private static void generateCallbackImpl(String containerImplName, MethodVisitor tick, String componentFieldName, Class<? extends Component> impl, String componentFieldDescriptor, String target, boolean lazy, int tickInterval, @Nullable String profiledKeyId) {
+        Label skip = new Label();
+        if (tickInterval > 1) {
+            String countdownFieldName = getTickCountdownFieldName(componentFieldName);
+            Label due = new Label();
+            tick.visitVarInsn(Opcodes.ALOAD, 0);
+            // stack: <this>
+            tick.visitFieldInsn(Opcodes.GETFIELD, containerImplName, countdownFieldName, "I");
+            // stack: countdown
+            tick.visitJumpInsn(Opcodes.IFEQ, due);
+            // <empty stack>
+            tick.visitVarInsn(Opcodes.ALOAD, 0);
+            tick.visitInsn(Opcodes.DUP);
+            // stack: <this> <this>
+            tick.visitFieldInsn(Opcodes.GETFIELD, containerImplName, countdownFieldName, "I");
+            tick.visitInsn(Opcodes.ICONST_1);
+            tick.visitInsn(Opcodes.ISUB);
+            // stack: <this> countdown-1
+            tick.visitFieldInsn(Opcodes.PUTFIELD, containerImplName, countdownFieldName, "I");
+            // <empty stack>
+            tick.visitJumpInsn(Opcodes.GOTO, skip);
+            tick.visitLabel(due);
+            tick.visitVarInsn(Opcodes.ALOAD, 0);
+            tick.visitLdcInsn(tickInterval - 1);
+            // stack: <this> interval-1
+            tick.visitFieldInsn(Opcodes.PUTFIELD, containerImplName, countdownFieldName, "I");
+            // <empty stack>
+        }
+        if (lazy) {
+            // lazy components that were never accessed do not get callbacks
+            tick.visitVarInsn(Opcodes.ALOAD, 0);
+            tick.visitFieldInsn(Opcodes.GETFIELD, containerImplName, componentFieldName, componentFieldDescriptor);
+            tick.visitJumpInsn(Opcodes.IFNULL, skip);
+        }
+        if (profiledKeyId != null) {
+            tick.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/System", "nanoTime", "()J", false);
+            tick.visitVarInsn(Opcodes.LSTORE, PROFILER_START_LOCAL);
+        }
         tick.visitVarInsn(Opcodes.ALOAD, 0);
         // stack: <this>
         tick.visitFieldInsn(Opcodes.GETFIELD, containerImplName, componentFieldName, componentFieldDescriptor);
@@ -421,9 +986,43 @@ public final class CcaAsmHelper {
         } else {
             tick.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Type.getInternalName(impl), target, "()V", false);
         }
+        if (profiledKeyId != null) {
+            tick.visitLdcInsn(profiledKeyId);
+            tick.visitVarInsn(Opcodes.ALOAD, 0);
+            tick.visitFieldInsn(Opcodes.GETFIELD, containerImplName, "profiledProviderType", "Ljava/lang/Class;");
+            // stack: keyId providerType
+            tick.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/System", "nanoTime", "()J", false);
+            tick.visitVarInsn(Opcodes.LLOAD, PROFILER_START_LOCAL);
+            tick.visitInsn(Opcodes.LSUB);
+            // stack: keyId providerType elapsed
+            tick.visitMethodInsn(Opcodes.INVOKESTATIC, TICK_PROFILER, "record", "(Ljava/lang/String;Ljava/lang/Class;J)V", false);
+            // <empty stack>
+        }
+        if (lazy || tickInterval > 1) {
+            tick.visitLabel(skip);
+        }
+    }
+
+    private static boolean isTickCallback(AsmGeneratedCallbackInfo callbackInfo) {
+        return callbackInfo.componentClass() == ServerTickingComponent.class || callbackInfo.componentClass() == ClientTickingComponent.class;
+    }
+
+    /**
+     * {@return the name of the field counting down the ticks until a component with a custom tick interval gets ticked again}
+     */
+    private static String getTickCountdownFieldName(String componentFieldName) {
+        return componentFieldName + "$tickCountdown";
     }
 
     private static String getFactoryFieldName(Identifier identifier) {
         return getJavaIdentifierName(identifier) + "$factory";
     }
+
+    private static String getKeyFieldName(Identifier identifier) {
+        return getJavaIdentifierName(identifier) + "$key";
+    }
+
+    private static String getFactoryArgFieldName(int index) {
+        return "factoryArg$" + index;
+    }
 }
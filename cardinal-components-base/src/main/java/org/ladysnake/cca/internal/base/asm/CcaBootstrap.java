@@ -33,6 +33,7 @@ import net.minecraft.util.InvalidIdentifierException;
 import org.ladysnake.cca.api.v3.component.ComponentKey;
 import org.ladysnake.cca.api.v3.component.ComponentProvider;
 import org.ladysnake.cca.api.v3.component.StaticComponentInitializer;
+import org.ladysnake.cca.internal.base.ComponentRegistryImpl;
 import org.ladysnake.cca.internal.base.LazyDispatcher;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
@@ -110,6 +111,7 @@ public final class CcaBootstrap extends LazyDispatcher {
 
             this.spinStaticContainerItf(staticComponentTypes);
             this.generatedComponentTypes = this.spinStaticComponentKeys(staticComponentTypes);
+            ComponentRegistryImpl.INSTANCE.freeze(staticComponentTypes);
         } catch (IOException | UncheckedIOException e) {
             throw new StaticComponentLoadingException("Failed to load statically defined components", e);
         }
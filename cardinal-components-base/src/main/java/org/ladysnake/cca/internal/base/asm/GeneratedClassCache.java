@@ -0,0 +1,198 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base.asm;
+
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.ModContainer;
+import net.fabricmc.loader.api.metadata.CustomValue;
+import net.fabricmc.loader.api.metadata.ModMetadata;
+import org.jetbrains.annotations.Nullable;
+import org.ladysnake.cca.internal.base.ComponentsInternals;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache for the bytecode of generated classes.
+ *
+ * <p>Computing stack map frames is the most expensive part of class generation, as it requires loading every
+ * class involved in a type merge. This cache stores the final bytes of every generated class, keyed by a hash
+ * of the class without its frames. Entries live in a directory named after a fingerprint of the mod set,
+ * as frames depend on the class hierarchy of component implementations, so that the cache is automatically invalidated
+ * when mods are added, removed or updated. Several instances with different mod sets may share the same game directory,
+ * so directories for other mod sets only get deleted once they have gone unused for {@link #STALE_ENTRY_AGE}.
+ *
+ * <p>This cache is opt-in through the {@code cca.asm.cache} system property, as generated classes can be needed
+ * before the config file gets read.
+ */
+public final class GeneratedClassCache {
+    public static final boolean ENABLED = Boolean.getBoolean("cca.asm.cache");
+    private static final String FILE_EXTENSION = ".class";
+    private static final HexFormat HEX = HexFormat.of();
+    private static final Duration STALE_ENTRY_AGE = Duration.ofDays(30);
+
+    private static @Nullable Path directory;
+    private static boolean broken;
+
+    private GeneratedClassCache() { throw new AssertionError(); }
+
+    /**
+     * @return a key uniquely identifying the code of the given class, regardless of its stack map frames
+     */
+    public static String computeKey(ClassNode classNode) {
+        ClassWriter writer = new ClassWriter(0);
+        classNode.accept(writer);
+        return HEX.formatHex(sha256().digest(writer.toByteArray()));
+    }
+
+    /**
+     * @return the cached bytes for the class with the given key, or {@code null} if there are none
+     */
+    public static byte @Nullable [] get(String key) {
+        Path dir = getDirectory();
+        if (dir == null) return null;
+        try {
+            return Files.readAllBytes(dir.resolve(key + FILE_EXTENSION));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            ComponentsInternals.LOGGER.warn("Failed to read cached class {}", key, e);
+            return null;
+        }
+    }
+
+    public static void put(String key, byte[] bytes) {
+        Path dir = getDirectory();
+        if (dir == null) return;
+        try {
+            // write to a temporary file first, so that concurrent or interrupted writes never leave a truncated class behind
+            Path tmp = Files.createTempFile(dir, key, ".tmp");
+            Files.write(tmp, bytes);
+            Files.move(tmp, dir.resolve(key + FILE_EXTENSION), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            ComponentsInternals.LOGGER.warn("Failed to cache class {}", key, e);
+        }
+    }
+
+    public static void invalidate(String key) {
+        Path dir = getDirectory();
+        if (dir == null) return;
+        try {
+            Files.deleteIfExists(dir.resolve(key + FILE_EXTENSION));
+        } catch (IOException e) {
+            ComponentsInternals.LOGGER.warn("Failed to delete cached class {}", key, e);
+        }
+    }
+
+    private static synchronized @Nullable Path getDirectory() {
+        if (directory == null && !broken) {
+            Path root = FabricLoader.getInstance().getGameDir().resolve(".cache").resolve("cardinal-components-api");
+            Path dir = root.resolve(computeFingerprint());
+            try {
+                Files.createDirectories(dir);
+                // the modification time of a directory records when it was last used
+                Files.setLastModifiedTime(dir, FileTime.from(Instant.now()));
+                deleteStaleEntries(root, dir);
+                directory = dir;
+            } catch (IOException e) {
+                ComponentsInternals.LOGGER.error("Failed to set up the generated class cache, generated classes will not be cached", e);
+                broken = true;
+            }
+        }
+        return directory;
+    }
+
+    private static void deleteStaleEntries(Path root, Path current) throws IOException {
+        Instant threshold = Instant.now().minus(STALE_ENTRY_AGE);
+        try (Stream<Path> mods = Files.list(root)) {
+            for (Path stale : mods.filter(p -> !p.equals(current)).toList()) {
+                try {
+                    if (Files.getLastModifiedTime(stale).toInstant().isAfter(threshold)) continue;
+
+                    try (Stream<Path> files = Files.walk(stale)) {
+                        for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                            Files.delete(file);
+                        }
+                    }
+                } catch (IOException e) {
+                    // another instance may be cleaning up at the same time
+                    ComponentsInternals.LOGGER.warn("Failed to delete stale generated class cache {}", stale, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hashes the ids and versions of all loaded mods, the static component ids they declare (in declaration order),
+     * and the Java version.
+     */
+    private static String computeFingerprint() {
+        MessageDigest digest = sha256();
+        List<ModContainer> mods = FabricLoader.getInstance().getAllMods().stream()
+            .sorted(Comparator.comparing(mod -> mod.getMetadata().getId()))
+            .toList();
+        update(digest, Runtime.version().toString());
+        for (ModContainer mod : mods) {
+            ModMetadata metadata = mod.getMetadata();
+            update(digest, metadata.getId());
+            update(digest, metadata.getVersion().getFriendlyString());
+            if (metadata.containsCustomValue("cardinal-components")
+                && metadata.getCustomValue("cardinal-components").getType() == CustomValue.CvType.ARRAY) {
+                for (CustomValue value : metadata.getCustomValue("cardinal-components").getAsArray()) {
+                    if (value.getType() == CustomValue.CvType.STRING) {
+                        update(digest, value.getAsString());
+                    }
+                }
+            }
+        }
+        return HEX.formatHex(digest.digest(), 0, 16);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
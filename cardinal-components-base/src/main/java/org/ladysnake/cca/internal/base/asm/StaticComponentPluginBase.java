@@ -48,6 +48,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 
 public abstract class StaticComponentPluginBase<T, I> extends LazyDispatcher {
@@ -196,4 +197,8 @@ public abstract class StaticComponentPluginBase<T, I> extends LazyDispatcher {
     protected <C extends Component> void register(ComponentKey<? super C> key, Class<C> impl, ComponentFactory<T, ? extends C> factory) {
         this.containerFactoryBuilder.component(key, impl, factory);
     }
+
+    protected <C extends Component> void registerLazy(ComponentKey<? super C> key, Class<C> impl, ComponentFactory<T, ? extends C> factory) {
+        this.containerFactoryBuilder.lazyComponent(key, impl, factory, Set.of());
+    }
 }
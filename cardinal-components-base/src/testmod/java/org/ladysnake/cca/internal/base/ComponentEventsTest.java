@@ -0,0 +1,73 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.test.GameTest;
+import org.junit.Assert;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.ladysnake.cca.test.base.BaseVita;
+import org.ladysnake.cca.test.base.CardinalGameTest;
+import org.ladysnake.cca.test.base.Vita;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class ComponentEventsTest implements CardinalGameTest {
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void serializationEmitsEvents() throws IOException {
+        ComponentContainer container = ComponentContainer.Factory.builder()
+            .component(Vita.KEY, BaseVita.class, v -> new BaseVita(4))
+            .build()
+            .createContainer(null);
+        Path file = Files.createTempFile("cca-events", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(ComponentEvents.Serialize.class);
+            recording.enable(ComponentEvents.Deserialize.class);
+            recording.start();
+            NbtCompound saved = container.toTag(new NbtCompound(), DynamicRegistryManager.EMPTY);
+            container.fromTag(saved, DynamicRegistryManager.EMPTY);
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> Vita.KEY.getId().toString().equals(e.getString("keyId")))
+                .toList();
+            Assert.assertEquals(List.of("cca.ComponentSerialize", "cca.ComponentDeserialize"), events.stream().map(e -> e.getEventType().getName()).toList());
+            for (RecordedEvent event : events) {
+                Assert.assertEquals(BaseVita.class.getName(), event.getString("componentType"));
+                Assert.assertTrue("Events should report the size of the component data", event.getInt("size") > 0);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
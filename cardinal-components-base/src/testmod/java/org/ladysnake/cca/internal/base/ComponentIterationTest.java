@@ -0,0 +1,74 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.test.GameTest;
+import org.junit.Assert;
+import org.ladysnake.cca.api.v3.component.Component;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.ladysnake.cca.api.v3.component.ComponentKey;
+import org.ladysnake.cca.test.base.BaseVita;
+import org.ladysnake.cca.test.base.CardinalGameTest;
+import org.ladysnake.cca.test.base.TickingTestComponent;
+import org.ladysnake.cca.test.base.Vita;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class ComponentIterationTest implements CardinalGameTest {
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void iterationSkipsUncreatedLazyComponents() {
+        AbstractComponentContainer container = (AbstractComponentContainer) ComponentContainer.Factory.builder(Object.class)
+            .component(Vita.KEY, BaseVita.class, o -> new BaseVita())
+            .lazyComponent(TickingTestComponent.KEY, TickingTestComponent.class, o -> new TickingTestComponent(), Set.of())
+            .build()
+            .createContainer(new Object());
+        List<ComponentKey<?>> keys = List.copyOf(container.keys());
+        int lazyIndex = keys.indexOf(TickingTestComponent.KEY);
+        Component vita = Vita.KEY.getInternal(container);
+
+        Assert.assertEquals(List.of(Vita.KEY), visitedKeys(container));
+        Assert.assertSame(vita, container.componentAt(keys.indexOf(Vita.KEY)));
+        Assert.assertNull(container.componentAt(lazyIndex));
+        Assert.assertSame(Vita.KEY, container.getKey(vita));
+        Assert.assertNull(container.getKey(new BaseVita()));
+        Assert.assertThrows(IndexOutOfBoundsException.class, () -> container.componentAt(keys.size()));
+
+        Component ticking = TickingTestComponent.KEY.getInternal(container);
+
+        Assert.assertEquals(keys, visitedKeys(container));
+        Assert.assertSame(ticking, container.componentAt(lazyIndex));
+        Assert.assertSame(TickingTestComponent.KEY, container.getKey(ticking));
+    }
+
+    private static List<ComponentKey<?>> visitedKeys(ComponentContainer container) {
+        List<ComponentKey<?>> visited = new ArrayList<>();
+        container.forEachComponent((key, component) -> {
+            Assert.assertSame(key.getInternal(container), component);
+            visited.add(key);
+        });
+        return visited;
+    }
+}
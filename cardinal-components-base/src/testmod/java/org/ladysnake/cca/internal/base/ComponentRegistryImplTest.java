@@ -54,6 +54,45 @@ public class ComponentRegistryImplTest implements CardinalGameTest {
         Assert.assertEquals(1, registry.stream().map(ComponentKey::getId).filter(CcaTesting.ALL_TEST_IDS::contains).count());
     }
 
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void rawIdsIndexRegisteredKeys() {
+        ComponentRegistryImpl registry = ComponentRegistryImpl.INSTANCE;
+        ComponentKey<?> type = registry.getOrCreate(CcaTesting.TEST_ID_1, TestComponentItf.class);
+        Assert.assertTrue(type.getRawId() >= 0 && type.getRawId() < registry.size());
+        Assert.assertEquals(type.getRawId(), registry.getRawId(CcaTesting.TEST_ID_1));
+        Assert.assertSame(type, registry.get(type.getRawId()));
+        Assert.assertSame(type, registry.get(CcaTesting.TEST_ID_1));
+        Assert.assertTrue(registry.keys().contains(type));
+        Assert.assertEquals(-1, registry.getRawId(new Identifier("cardinal-components-test", "undeclared")));
+        Assert.assertNull(registry.get(-1));
+        Assert.assertNull(registry.get(registry.size()));
+        for (int i = 1; i < registry.keys().size(); i++) {
+            Assert.assertTrue(registry.keys().get(i - 1).getRawId() < registry.keys().get(i).getRawId());
+        }
+    }
+
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void clearedKeysFreeTheirRawId() {
+        ComponentRegistryImpl registry = ComponentRegistryImpl.INSTANCE;
+        ComponentKey<?> type = registry.getOrCreate(CcaTesting.TEST_ID_1, TestComponentItf.class);
+        int rawId = type.getRawId();
+        int size = registry.size();
+
+        registry.clear(CcaTesting.TEST_ID_1);
+        Assert.assertNull(registry.get(rawId));
+        Assert.assertNull(registry.get(CcaTesting.TEST_ID_1));
+        Assert.assertFalse(registry.keys().contains(type));
+        Assert.assertEquals(0, registry.stream().filter(k -> k.getId().equals(CcaTesting.TEST_ID_1)).count());
+        Assert.assertEquals("Raw ids should stay assigned to declared ids", rawId, registry.getRawId(CcaTesting.TEST_ID_1));
+        Assert.assertEquals(size, registry.size());
+
+        ComponentKey<?> recreated = registry.getOrCreate(CcaTesting.TEST_ID_1, TestComponentItf2.class);
+        Assert.assertNotSame(type, recreated);
+        Assert.assertEquals(rawId, recreated.getRawId());
+        Assert.assertSame(recreated, registry.get(rawId));
+        Assert.assertTrue(registry.keys().contains(recreated));
+    }
+
     @Override
     public void tearDown() {
         for (Identifier id : CcaTesting.ALL_TEST_IDS) {
@@ -0,0 +1,141 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.test.GameTest;
+import net.minecraft.test.TestContext;
+import org.junit.Assert;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.ladysnake.cca.api.v3.component.ComponentKey;
+import org.ladysnake.cca.api.v3.component.ComponentProvider;
+import org.ladysnake.cca.api.v3.component.ComponentRegistry;
+import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class ComponentSyncSchedulerTest implements FabricGameTest {
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void scheduledSyncsAreCoalesced(TestContext ctx) {
+        ServerPlayerEntity player = ctx.spawnServerPlayer(1, 0, 1);
+        try {
+            ComponentKey<CountingSync> key = ComponentRegistry.getOrCreate(CcaTesting.TEST_ID_1, CountingSync.class);
+            TestProvider provider = new TestProvider(ComponentContainer.Factory.builder().component(key, v -> new CountingSync()).build().createContainer(null), List.of(player));
+            CountingSync component = key.getInternal(provider.getComponentContainer());
+            Assert.assertNotNull(component);
+            ComponentSyncScheduler.flush();     // start from a clean slate
+
+            ComponentSyncScheduler.schedule(key, provider);
+            ComponentSyncScheduler.schedule(key, provider);
+            // syncs may be scheduled from worker threads
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[4];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = CompletableFuture.runAsync(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        ComponentSyncScheduler.schedule(key, provider);
+                    }
+                });
+            }
+            CompletableFuture.allOf(futures).join();
+            Assert.assertEquals("Syncs should be deferred until the scheduler flushes", 0, component.writes);
+
+            ComponentSyncScheduler.flush();
+            Assert.assertEquals("Syncs for the same component should be coalesced", 1, component.writes);
+
+            ComponentSyncScheduler.flush();
+            Assert.assertEquals("Flushed syncs should not be sent again", 1, component.writes);
+
+            ComponentSyncScheduler.schedule(key, provider);
+            ComponentSyncScheduler.clear();
+            ComponentSyncScheduler.flush();
+            Assert.assertEquals("Cleared syncs should not be sent", 1, component.writes);
+        } finally {
+            ComponentRegistryImpl.INSTANCE.clear(CcaTesting.TEST_ID_1);
+        }
+        ctx.complete();
+    }
+
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void recipientIndependentSyncsAreWrittenOnce(TestContext ctx) {
+        ServerPlayerEntity player1 = ctx.spawnServerPlayer(1, 0, 1);
+        ServerPlayerEntity player2 = ctx.spawnServerPlayer(2, 0, 1);
+        try {
+            ComponentKey<SharedCountingSync> key = ComponentRegistry.getOrCreate(CcaTesting.TEST_ID_1, SharedCountingSync.class);
+            TestProvider provider = new TestProvider(ComponentContainer.Factory.builder().component(key, v -> new SharedCountingSync()).build().createContainer(null), List.of(player1, player2));
+            SharedCountingSync component = key.getInternal(provider.getComponentContainer());
+            Assert.assertNotNull(component);
+            ComponentSyncScheduler.flush();     // start from a clean slate
+
+            ComponentSyncScheduler.schedule(key, provider);
+            ComponentSyncScheduler.flush();
+            Assert.assertEquals("Recipient-independent sync data should be shared between players", 1, component.writes);
+        } finally {
+            ComponentRegistryImpl.INSTANCE.clear(CcaTesting.TEST_ID_1);
+        }
+        ctx.complete();
+    }
+
+    record TestProvider(ComponentContainer container, List<ServerPlayerEntity> players) implements ComponentProvider {
+        @Override
+        public ComponentContainer getComponentContainer() {
+            return this.container;
+        }
+
+        @Override
+        public Iterable<ServerPlayerEntity> getRecipientsForComponentSync() {
+            return this.players;
+        }
+    }
+
+    public static class CountingSync implements AutoSyncedComponent {
+        int writes;
+
+        @Override
+        public void writeSyncPacket(RegistryByteBuf buf, ServerPlayerEntity recipient) {
+            this.writes++;
+            buf.writeVarInt(this.writes);
+        }
+
+        @Override
+        public void readFromNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
+            // NO-OP
+        }
+
+        @Override
+        public void writeToNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
+            // NO-OP
+        }
+    }
+
+    public static class SharedCountingSync extends CountingSync {
+        @Override
+        public boolean isRecipientIndependent() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.test.GameTest;
+import org.junit.Assert;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.ladysnake.cca.api.v3.component.ComponentFactory;
+import org.ladysnake.cca.test.base.CardinalGameTest;
+import org.ladysnake.cca.test.base.TickingTestComponent;
+
+public class ContainerSharingTest implements CardinalGameTest {
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void identicalLayoutsShareFactories() {
+        ComponentFactory<Object, TickingTestComponent> componentFactory = o -> new TickingTestComponent();
+        ComponentContainer.Factory<Object> factory = ComponentContainer.Factory.builder(Object.class)
+            .component(TickingTestComponent.KEY, componentFactory)
+            .buildShared();
+        ComponentContainer.Factory<Object> sameLayout = ComponentContainer.Factory.builder(Object.class)
+            .component(TickingTestComponent.KEY, componentFactory)
+            .buildShared();
+        ComponentContainer.Factory<Object> otherInterval = ComponentContainer.Factory.builder(Object.class)
+            .component(TickingTestComponent.KEY, componentFactory)
+            .tickInterval(TickingTestComponent.KEY, 2)
+            .buildShared();
+        ComponentContainer.Factory<Object> otherFactory = ComponentContainer.Factory.builder(Object.class)
+            .component(TickingTestComponent.KEY, o -> new TickingTestComponent())
+            .buildShared();
+
+        Assert.assertSame(factory, sameLayout);
+        Assert.assertNotSame(factory, otherInterval);
+        Assert.assertNotSame(factory, otherFactory);
+        Assert.assertNotSame(factory.createContainer(new Object()), sameLayout.createContainer(new Object()));
+    }
+
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void publicBuildersGetTheirOwnFactories() {
+        ComponentFactory<Object, TickingTestComponent> componentFactory = o -> new TickingTestComponent();
+        ComponentContainer.Factory<Object> shared = ComponentContainer.Factory.builder(Object.class)
+            .component(TickingTestComponent.KEY, componentFactory)
+            .buildShared();
+        ComponentContainer.Factory<Object> factory = ComponentContainer.Factory.builder(Object.class)
+            .component(TickingTestComponent.KEY, componentFactory)
+            .build();
+        ComponentContainer.Factory<Object> sameLayout = ComponentContainer.Factory.builder(Object.class)
+            .component(TickingTestComponent.KEY, componentFactory)
+            .build();
+
+        Assert.assertNotSame(factory, sameLayout);
+        Assert.assertNotSame(shared, factory);
+        Assert.assertNotSame(factory.getClass(), sameLayout.getClass());
+    }
+}
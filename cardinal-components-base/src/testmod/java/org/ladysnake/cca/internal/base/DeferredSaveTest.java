@@ -0,0 +1,136 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.test.GameTest;
+import net.minecraft.util.Identifier;
+import org.junit.Assert;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.ladysnake.cca.api.v3.component.ComponentKey;
+import org.ladysnake.cca.api.v3.component.ComponentRegistry;
+import org.ladysnake.cca.api.v3.component.DirtyTrackingComponent;
+import org.ladysnake.cca.api.v3.component.SnapshotComponent;
+import org.ladysnake.cca.test.base.BaseVita;
+import org.ladysnake.cca.test.base.CardinalGameTest;
+import org.ladysnake.cca.test.base.Vita;
+
+public class DeferredSaveTest implements CardinalGameTest {
+    @Override
+    public void tearDown() {
+        for (Identifier id : CcaTesting.ALL_TEST_IDS) {
+            ComponentRegistryImpl.INSTANCE.clear(id);
+        }
+    }
+
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void deferredSavesMatchSynchronousSaves() {
+        ComponentKey<ListComponent> key = ComponentRegistry.getOrCreate(CcaTesting.TEST_ID_1, ListComponent.class);
+        ComponentContainer container = ComponentContainer.Factory.builder().component(key, v -> new ListComponent()).build().createContainer(null);
+        RegistryWrapper.WrapperLookup registryLookup = DynamicRegistryManager.EMPTY;
+        ListComponent component = key.getInternal(container);
+        Assert.assertNotNull(component);
+        component.values = new int[] {1, 2, 3};
+
+        DeferredComponentSaves saves = DeferredComponentSaves.start(container, registryLookup);
+        // changes made after the snapshot was taken do not leak into the save
+        component.values = new int[] {4};
+        NbtCompound deferred = new NbtCompound();
+        saves.finish(deferred);
+        Assert.assertArrayEquals(new int[] {1, 2, 3}, deferred.getCompound(AbstractComponentContainer.NBT_KEY).getCompound(key.getId().toString()).getIntArray("values"));
+
+        NbtCompound sync = container.toTag(new NbtCompound(), registryLookup);
+        Assert.assertArrayEquals(new int[] {4}, sync.getCompound(AbstractComponentContainer.NBT_KEY).getCompound(key.getId().toString()).getIntArray("values"));
+    }
+
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void onlySnapshotContainersNeedDeferredSaves() {
+        ComponentKey<ListComponent> key = ComponentRegistry.getOrCreate(CcaTesting.TEST_ID_1, ListComponent.class);
+        ComponentContainer snapshots = ComponentContainer.Factory.builder().component(key, v -> new ListComponent()).build().createContainer(null);
+        ComponentContainer plain = ComponentContainer.Factory.builder().component(Vita.KEY, BaseVita.class, v -> new BaseVita()).build().createContainer(null);
+        Assert.assertTrue(DeferredComponentSaves.isNeeded(snapshots));
+        Assert.assertFalse(DeferredComponentSaves.isNeeded(plain));
+        Assert.assertFalse(DeferredComponentSaves.isNeeded(ComponentContainer.EMPTY));
+    }
+
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void deferredSavesDoNotShareCachedTags() {
+        ComponentKey<TrackedListComponent> key = ComponentRegistry.getOrCreate(CcaTesting.TEST_ID_1, TrackedListComponent.class);
+        ComponentContainer container = ComponentContainer.Factory.builder().component(key, v -> new TrackedListComponent()).build().createContainer(null);
+        RegistryWrapper.WrapperLookup registryLookup = DynamicRegistryManager.EMPTY;
+        TrackedListComponent component = key.getInternal(container);
+        Assert.assertNotNull(component);
+        component.values = new int[] {1, 2, 3};
+
+        NbtCompound first = new NbtCompound();
+        DeferredComponentSaves.start(container, registryLookup).finish(first);
+        Assert.assertFalse(component.isDirty());
+        // e.g. a data fixer modifying the save afterwards
+        first.getCompound(AbstractComponentContainer.NBT_KEY).getCompound(key.getId().toString()).putIntArray("values", new int[] {4});
+
+        NbtCompound second = new NbtCompound();
+        DeferredComponentSaves.start(container, registryLookup).finish(second);
+        Assert.assertArrayEquals(new int[] {1, 2, 3}, second.getCompound(AbstractComponentContainer.NBT_KEY).getCompound(key.getId().toString()).getIntArray("values"));
+    }
+
+    public static class TrackedListComponent extends DirtyTrackingComponent.SimpleImpl implements SnapshotComponent<int[]> {
+        int[] values = new int[0];
+
+        @Override
+        public int[] createSnapshot(RegistryWrapper.WrapperLookup registryLookup) {
+            return this.values.clone();
+        }
+
+        @Override
+        public void writeSnapshot(int[] snapshot, NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
+            tag.putIntArray("values", snapshot);
+        }
+
+        @Override
+        public void readFromNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
+            this.values = tag.getIntArray("values");
+        }
+    }
+
+    public static class ListComponent implements SnapshotComponent<int[]> {
+        int[] values = new int[0];
+
+        @Override
+        public int[] createSnapshot(RegistryWrapper.WrapperLookup registryLookup) {
+            return this.values.clone();
+        }
+
+        @Override
+        public void writeSnapshot(int[] snapshot, NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
+            tag.putIntArray("values", snapshot);
+        }
+
+        @Override
+        public void readFromNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
+            this.values = tag.getIntArray("values");
+        }
+    }
+}
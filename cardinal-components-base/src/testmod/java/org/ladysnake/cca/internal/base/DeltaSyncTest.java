@@ -0,0 +1,175 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import io.netty.buffer.Unpooled;
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.test.GameTest;
+import net.minecraft.test.TestContext;
+import org.junit.Assert;
+import org.ladysnake.cca.api.v3.component.sync.DeltaSyncedComponent;
+import org.ladysnake.cca.api.v3.component.sync.SyncJournal;
+
+public class DeltaSyncTest implements FabricGameTest {
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void deltasOnlyContainChangedFields(TestContext ctx) {
+        ServerPlayerEntity player = ctx.spawnServerPlayer(1, 0, 1);
+        DeltaVita server = new DeltaVita();
+        DeltaVita client = new DeltaVita();
+        server.setHealth(10);
+        server.setMana(5);
+
+        // nothing was ever sent to the player, so it gets a full snapshot
+        RegistryByteBuf buf = buffer(ctx);
+        int revision = DeltaSyncInternals.writeSyncPacket(server, server, buf, player);
+        Assert.assertEquals(server.getSyncJournal().getRevision(), revision);
+        Assert.assertFalse(buf.getBoolean(0));
+        DeltaSyncInternals.apply(client, buf);
+        Assert.assertEquals(10, client.health);
+        Assert.assertEquals(5, client.mana);
+        DeltaSyncInternals.markSent(server, player, revision);
+
+        server.setMana(7);
+        buf = buffer(ctx);
+        revision = DeltaSyncInternals.writeSyncPacket(server, server, buf, player);
+        Assert.assertTrue(buf.readBoolean());
+        Assert.assertEquals(1, buf.readVarInt());
+        Assert.assertEquals(DeltaVita.MANA, buf.readVarInt());
+        buf.readerIndex(0);
+        client.health = -1;     // untouched by the delta
+        DeltaSyncInternals.apply(client, buf);
+        Assert.assertEquals(-1, client.health);
+        Assert.assertEquals(7, client.mana);
+        Assert.assertFalse(buf.isReadable());
+        DeltaSyncInternals.markSent(server, player, revision);
+
+        Assert.assertEquals(0, server.getSyncJournal().getChangesSince(player).size());
+        ctx.complete();
+    }
+
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void journalOnlyAdvancesWhenMarkedSent(TestContext ctx) {
+        ServerPlayerEntity player = ctx.spawnServerPlayer(1, 0, 1);
+        DeltaVita server = new DeltaVita();
+        SyncJournal journal = server.getSyncJournal();
+        Assert.assertNull(journal.getChangesSince(player));
+
+        journal.markSent(player);
+        server.setHealth(3);
+        // the packet got dropped, so the change must be part of the next delta
+        DeltaSyncInternals.writeSyncPacket(server, server, buffer(ctx), player);
+        Assert.assertEquals(1, journal.getChangesSince(player).size());
+
+        int sentRevision = journal.getRevision();
+        server.setMana(4);
+        journal.markSent(player, sentRevision);
+        Assert.assertEquals(DeltaVita.MANA, journal.getChangesSince(player).getInt(0));
+        // an older revision never moves the recipient backwards
+        journal.markSent(player, 0);
+        Assert.assertEquals(1, journal.getChangesSince(player).size());
+
+        journal.forget(player);
+        Assert.assertNull(journal.getChangesSince(player));
+        ctx.complete();
+    }
+
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void customWritersBypassJournal(TestContext ctx) {
+        ServerPlayerEntity player = ctx.spawnServerPlayer(1, 0, 1);
+        DeltaVita server = new DeltaVita();
+        server.getSyncJournal().markSent(player);
+        server.setHealth(8);
+
+        RegistryByteBuf buf = buffer(ctx);
+        int revision = DeltaSyncInternals.writeSyncPacket(server, (b, recipient) -> b.writeVarInt(42), buf, player);
+        Assert.assertEquals(-1, revision);
+        Assert.assertFalse(buf.readBoolean());
+        Assert.assertEquals(42, buf.readVarInt());
+        Assert.assertEquals(1, server.getSyncJournal().getChangesSince(player).size());
+        ctx.complete();
+    }
+
+    private static RegistryByteBuf buffer(TestContext ctx) {
+        return new RegistryByteBuf(Unpooled.buffer(), ctx.getWorld().getRegistryManager());
+    }
+
+    public static class DeltaVita implements DeltaSyncedComponent {
+        static final int HEALTH = 0;
+        static final int MANA = 1;
+
+        private final SyncJournal journal = new SyncJournal();
+        int health;
+        int mana;
+
+        void setHealth(int health) {
+            this.health = health;
+            this.journal.markChanged(HEALTH);
+        }
+
+        void setMana(int mana) {
+            this.mana = mana;
+            this.journal.markChanged(MANA);
+        }
+
+        @Override
+        public SyncJournal getSyncJournal() {
+            return this.journal;
+        }
+
+        @Override
+        public void writeSyncPacket(RegistryByteBuf buf, ServerPlayerEntity recipient) {
+            buf.writeVarInt(this.health);
+            buf.writeVarInt(this.mana);
+        }
+
+        @Override
+        public void applySyncPacket(RegistryByteBuf buf) {
+            this.health = buf.readVarInt();
+            this.mana = buf.readVarInt();
+        }
+
+        @Override
+        public void writeField(RegistryByteBuf buf, int fieldId, ServerPlayerEntity recipient) {
+            buf.writeVarInt(fieldId == HEALTH ? this.health : this.mana);
+        }
+
+        @Override
+        public void applyField(RegistryByteBuf buf, int fieldId) {
+            if (fieldId == HEALTH) {
+                this.health = buf.readVarInt();
+            } else {
+                this.mana = buf.readVarInt();
+            }
+        }
+
+        @Override
+        public void readFromNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) { }
+
+        @Override
+        public void writeToNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) { }
+    }
+}
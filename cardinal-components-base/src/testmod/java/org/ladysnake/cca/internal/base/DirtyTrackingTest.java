@@ -0,0 +1,116 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.test.GameTest;
+import net.minecraft.util.Identifier;
+import org.junit.Assert;
+import org.ladysnake.cca.api.v3.component.Component;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.ladysnake.cca.api.v3.component.ComponentKey;
+import org.ladysnake.cca.api.v3.component.ComponentRegistry;
+import org.ladysnake.cca.api.v3.component.DirtyTrackingComponent;
+import org.ladysnake.cca.test.base.CardinalGameTest;
+
+public class DirtyTrackingTest implements CardinalGameTest {
+    @Override
+    public void tearDown() {
+        for (Identifier id : CcaTesting.ALL_TEST_IDS) {
+            ComponentRegistryImpl.INSTANCE.clear(id);
+        }
+    }
+
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void cleanComponentsReuseTheirTag() {
+        ComponentKey<CountingComponent> key = ComponentRegistry.getOrCreate(CcaTesting.TEST_ID_1, CountingComponent.class);
+        ComponentContainer container = ComponentContainer.Factory.builder().component(key, v -> new CountingComponent()).build().createContainer(null);
+        RegistryWrapper.WrapperLookup registryLookup = DynamicRegistryManager.EMPTY;
+        CountingComponent component = key.getInternal(container);
+        Assert.assertNotNull(component);
+
+        NbtCompound first = container.toTag(new NbtCompound(), registryLookup).getCompound(AbstractComponentContainer.NBT_KEY);
+        NbtCompound second = container.toTag(new NbtCompound(), registryLookup).getCompound(AbstractComponentContainer.NBT_KEY);
+        Assert.assertEquals(1, component.writes);
+        Assert.assertSame("Clean components should hand out their cached tag", first.get(key.getId().toString()), second.get(key.getId().toString()));
+
+        component.value = 3;
+        component.markDirty();
+        NbtCompound third = container.toTag(new NbtCompound(), registryLookup).getCompound(AbstractComponentContainer.NBT_KEY);
+        Assert.assertEquals(2, component.writes);
+        Assert.assertEquals(3, third.getCompound(key.getId().toString()).getInt("value"));
+        Assert.assertFalse(component.isDirty());
+
+        container.fromTag(container.toTag(new NbtCompound(), registryLookup), registryLookup);
+        Assert.assertTrue(component.isDirty());
+    }
+
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void containersReportDirtiness() {
+        ComponentKey<CountingComponent> key = ComponentRegistry.getOrCreate(CcaTesting.TEST_ID_1, CountingComponent.class);
+        ComponentContainer container = ComponentContainer.Factory.builder().component(key, v -> new CountingComponent()).build().createContainer(null);
+        RegistryWrapper.WrapperLookup registryLookup = DynamicRegistryManager.EMPTY;
+        CountingComponent component = key.getInternal(container);
+        Assert.assertNotNull(component);
+
+        Assert.assertTrue("New components should be saved at least once", container.isDirty());
+        container.toTag(new NbtCompound(), registryLookup);
+        Assert.assertTrue("Serializing outside of a save should not hide unsaved data", container.isDirty());
+        container.markSaved();
+        Assert.assertFalse(container.isDirty());
+        component.markDirty();
+        Assert.assertTrue(container.isDirty());
+        container.toTag(new NbtCompound(), registryLookup);     // e.g. /data get
+        Assert.assertFalse("Writing the component should refresh its cache", component.isDirty());
+        Assert.assertTrue("Serializing outside of a save should not hide unsaved data", container.isDirty());
+        container.toTag(new NbtCompound(), registryLookup);
+        container.markSaved();
+        Assert.assertFalse(container.isDirty());
+
+        // registered without dirty tracking, so its tag does not get cached
+        ComponentKey<Component> uncachedKey = ComponentRegistry.getOrCreate(CcaTesting.TEST_ID_2, Component.class);
+        ComponentContainer uncached = ComponentContainer.Factory.builder().component(uncachedKey, v -> new CountingComponent()).build().createContainer(null);
+        uncached.toTag(new NbtCompound(), registryLookup);
+        Assert.assertTrue("Components without a cache should stay dirty", ((CountingComponent) uncachedKey.getInternal(uncached)).isDirty());
+        Assert.assertTrue("Containers holding components without a cache should always be saved", uncached.isDirty());
+    }
+
+    public static class CountingComponent extends DirtyTrackingComponent.SimpleImpl {
+        int value = 1;
+        int writes;
+
+        @Override
+        public void readFromNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
+            this.value = tag.getInt("value");
+        }
+
+        @Override
+        public void writeToNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
+            tag.putInt("value", this.value);
+            this.writes++;
+        }
+    }
+}
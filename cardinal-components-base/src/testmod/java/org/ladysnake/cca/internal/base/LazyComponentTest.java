@@ -0,0 +1,137 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.test.GameTest;
+import net.minecraft.test.TestContext;
+import org.junit.Assert;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.ladysnake.cca.api.v3.component.ComponentKey;
+import org.ladysnake.cca.api.v3.component.ComponentProvider;
+import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
+import org.ladysnake.cca.test.base.BaseVita;
+import org.ladysnake.cca.test.base.SyncedVita;
+import org.ladysnake.cca.test.base.Vita;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LazyComponentTest implements FabricGameTest {
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void concurrentFirstAccessCreatesOneInstance(TestContext ctx) {
+        AtomicInteger created = new AtomicInteger();
+        ComponentContainer.Factory<Object> factory = ComponentContainer.Factory.builder(Object.class)
+            .lazyComponent(Vita.KEY, BaseVita.class, o -> {
+                created.incrementAndGet();
+                return new BaseVita();
+            }, Set.of())
+            .build();
+
+        for (int attempt = 0; attempt < 20; attempt++) {
+            ComponentContainer container = factory.createContainer(new Object());
+            CountDownLatch start = new CountDownLatch(1);
+            @SuppressWarnings("unchecked") CompletableFuture<Vita>[] accesses = new CompletableFuture[4];
+            for (int i = 0; i < accesses.length; i++) {
+                accesses[i] = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return Vita.KEY.getInternal(container);
+                });
+            }
+            start.countDown();
+
+            for (CompletableFuture<Vita> access : accesses) {
+                Assert.assertSame("Every thread should see the same lazy component", Vita.KEY.getInternal(container), access.join());
+            }
+        }
+
+        Assert.assertEquals("Lazy components should be created at most once per container", 20, created.get());
+        ctx.complete();
+    }
+
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void uncreatedLazyComponentsAreNotSavedOrSynced(TestContext ctx) {
+        ServerPlayerEntity player = ctx.spawnServerPlayer(1, 0, 1);
+        ComponentContainer container = ComponentContainer.Factory.builder(Object.class)
+            .lazyComponent(Vita.KEY, SyncedVita.class, SyncedVita::new, Set.of())
+            .build()
+            .createContainer(new Object());
+        AtomicInteger packets = new AtomicInteger();
+        ComponentProvider provider = new ComponentProvider() {
+            @Override
+            public ComponentContainer getComponentContainer() {
+                return container;
+            }
+
+            @Override
+            public <C extends AutoSyncedComponent> CustomPayload toComponentPacket(ComponentKey<? super C> key, boolean required, RegistryByteBuf data) {
+                packets.incrementAndGet();
+                return null;
+            }
+        };
+
+        Assert.assertFalse("Uncreated lazy components should not be saved", container.toTag(new NbtCompound(), ctx.getWorld().getRegistryManager()).contains(AbstractComponentContainer.NBT_KEY));
+        Vita.KEY.syncWith(player, provider);
+        Assert.assertEquals("Uncreated lazy components should not be synced", 0, packets.get());
+        Assert.assertFalse("Saving or syncing should not create lazy components", ((AbstractComponentContainer) container).isMaterialized(Vita.KEY));
+
+        Vita.KEY.getInternal(container);
+        Vita.KEY.syncWith(player, provider);
+        Assert.assertEquals("Created lazy components should be synced", 1, packets.get());
+        ctx.complete();
+    }
+
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void copyingUncreatedComponentsResetsTarget(TestContext ctx) {
+        ComponentContainer.Factory<Object> factory = ComponentContainer.Factory.builder(Object.class)
+            .lazyComponent(Vita.KEY, BaseVita.class, o -> new BaseVita(), Set.of())
+            .build();
+        RegistryWrapper.WrapperLookup registryLookup = ctx.getWorld().getRegistryManager();
+        AbstractComponentContainer source = (AbstractComponentContainer) factory.createContainer(new Object());
+        AbstractComponentContainer target = (AbstractComponentContainer) factory.createContainer(new Object());
+
+        target.copyFrom(source, registryLookup);
+        Assert.assertFalse("Copying default data should not create lazy components", target.isMaterialized(Vita.KEY));
+
+        Vita.KEY.getInternal(target).setVitality(5);
+        target.copyFrom(source, registryLookup);
+        Assert.assertEquals("Copying an uncreated component should reset the target to default data", 0, Vita.KEY.getInternal(target).getVitality());
+
+        Vita.KEY.getInternal(source).setVitality(3);
+        AbstractComponentContainer fresh = (AbstractComponentContainer) factory.createContainer(new Object());
+        fresh.copyFrom(source, registryLookup);
+        Assert.assertEquals(3, Vita.KEY.getInternal(fresh).getVitality());
+        ctx.complete();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.test.GameTest;
+import org.junit.Assert;
+import org.ladysnake.cca.test.base.CardinalGameTest;
+
+import java.util.List;
+
+public class PrometheusMetricsTest implements CardinalGameTest {
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void renderUsesTextExpositionFormat() {
+        PrometheusMetrics metrics = new PrometheusMetrics();
+        metrics.onSync("cca-test:synced", 100, 2);
+        metrics.onSerialized("cca-test:synced", 5000);
+        metrics.onContainerCreated(String.class);
+        metrics.onDeserializationMiss("cca-test:\"quoted\"");
+
+        List<String> lines = metrics.render().lines().toList();
+        for (String line : List.of(
+            "# TYPE cca_sync_packets_total counter",
+            "cca_sync_packets_total{key=\"cca-test:synced\"} 2",
+            "cca_sync_bytes_total{key=\"cca-test:synced\"} 200",
+            "# TYPE cca_sync_packet_bytes histogram",
+            "cca_sync_packet_bytes_bucket{key=\"cca-test:synced\",le=\"64\"} 0",
+            "cca_sync_packet_bytes_bucket{key=\"cca-test:synced\",le=\"256\"} 2",
+            "cca_sync_packet_bytes_bucket{key=\"cca-test:synced\",le=\"+Inf\"} 2",
+            "cca_sync_packet_bytes_sum{key=\"cca-test:synced\"} 200",
+            "cca_sync_packet_bytes_count{key=\"cca-test:synced\"} 2",
+            "cca_components_serialized_total{key=\"cca-test:synced\"} 1",
+            "cca_component_save_bytes_bucket{key=\"cca-test:synced\",le=\"4096\"} 0",
+            "cca_component_save_bytes_bucket{key=\"cca-test:synced\",le=\"16384\"} 1",
+            "cca_containers_created_total{provider=\"java.lang.String\"} 1",
+            "cca_deserialization_misses_total{key=\"cca-test:\\\"quoted\\\"\"} 1"
+        )) {
+            Assert.assertTrue("Missing line " + line, lines.contains(line));
+        }
+
+        for (String line : lines) {
+            Assert.assertTrue("Malformed line " + line, line.startsWith("# HELP ") || line.startsWith("# TYPE ") || line.matches("[a-z_]+\\{.*} \\d+"));
+        }
+    }
+}
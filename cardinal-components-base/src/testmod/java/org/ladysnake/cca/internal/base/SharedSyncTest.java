@@ -0,0 +1,109 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.test.GameTest;
+import net.minecraft.test.TestContext;
+import net.minecraft.util.Identifier;
+import org.junit.Assert;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.ladysnake.cca.api.v3.component.ComponentKey;
+import org.ladysnake.cca.api.v3.component.ComponentProvider;
+import org.ladysnake.cca.api.v3.component.ComponentRegistry;
+import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
+import org.ladysnake.cca.api.v3.component.sync.ComponentPacketWriter;
+import org.ladysnake.cca.api.v3.component.sync.PlayerSyncPredicate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SharedSyncTest implements FabricGameTest {
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void sharedSyncReachesEveryRecipient(TestContext ctx) {
+        ServerPlayerEntity dropped = ctx.spawnServerPlayer(1, 0, 1);
+        ServerPlayerEntity filtered = ctx.spawnServerPlayer(2, 0, 1);
+        ServerPlayerEntity received = ctx.spawnServerPlayer(3, 0, 1);
+        try {
+            ComponentKey<ComponentSyncSchedulerTest.CountingSync> key = ComponentRegistry.getOrCreate(CcaTesting.TEST_ID_1, ComponentSyncSchedulerTest.CountingSync.class);
+            ComponentContainer container = ComponentContainer.Factory.builder().component(key, v -> new ComponentSyncSchedulerTest.CountingSync()).build().createContainer(null);
+            List<RegistryByteBuf> buffers = new ArrayList<>();
+            int[] writes = new int[1];
+            ComponentPacketWriter writer = ComponentPacketWriter.recipientIndependent(buf -> {
+                writes[0]++;
+                buf.writeVarInt(42);
+            });
+            PlayerSyncPredicate predicate = new PlayerSyncPredicate() {
+                @Override
+                public boolean shouldSyncWith(ServerPlayerEntity player) {
+                    return player != filtered;
+                }
+
+                @Override
+                public boolean isRequiredOnClient() {
+                    return false;
+                }
+            };
+
+            key.syncWith(List.of(dropped, filtered, received), new PacketCapturingProvider(container, buffers), writer, predicate);
+
+            Assert.assertEquals("Recipient-independent data should only be written once", 1, writes[0]);
+            Assert.assertEquals("Every recipient accepted by the predicate should get a packet, even after one was dropped", 2, buffers.size());
+            for (RegistryByteBuf buf : buffers) {
+                Assert.assertEquals("Every shared buffer view should be released", 0, buf.refCnt());
+            }
+        } finally {
+            ComponentRegistryImpl.INSTANCE.clear(CcaTesting.TEST_ID_1);
+        }
+        ctx.complete();
+    }
+
+    /**
+     * Drops the first sync packet, and produces a payload that no client can receive for the others.
+     */
+    record PacketCapturingProvider(ComponentContainer container, List<RegistryByteBuf> buffers) implements ComponentProvider {
+        @Override
+        public ComponentContainer getComponentContainer() {
+            return this.container;
+        }
+
+        @Override
+        public <C extends AutoSyncedComponent> CustomPayload toComponentPacket(ComponentKey<? super C> key, boolean required, RegistryByteBuf data) {
+            Assert.assertEquals("Every recipient should get the full sync data", 42, data.getByte(data.readerIndex()));
+            this.buffers.add(data);
+            return this.buffers.size() == 1 ? null : new TestPayload();
+        }
+    }
+
+    record TestPayload() implements CustomPayload {
+        static final Id<TestPayload> ID = new Id<>(new Identifier("cca-base-test", "shared_sync"));
+
+        @Override
+        public Id<? extends CustomPayload> getId() {
+            return ID;
+        }
+    }
+}
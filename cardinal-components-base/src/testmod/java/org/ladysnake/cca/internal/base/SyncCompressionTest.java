@@ -0,0 +1,108 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DecoderException;
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.test.GameTest;
+import org.junit.Assert;
+import org.ladysnake.cca.test.base.CardinalGameTest;
+
+import java.util.Arrays;
+
+public class SyncCompressionTest implements CardinalGameTest {
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void smallDataIsLeftUncompressed() {
+        byte[] data = {1, 2, 3, 4};
+        RegistryByteBuf encoded = buffer();
+        SyncCompression.write(encoded, wrap(data), 256, true);
+        Assert.assertEquals("Data below the threshold should not be flagged as compressed", data.length << 2, encoded.getByte(0));
+        Assert.assertArrayEquals(data, roundTrip(encoded));
+    }
+
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void largeDataRoundTrips() {
+        byte[] data = new byte[4096];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 16);
+        }
+
+        for (boolean dictionary : new boolean[] {false, true}) {
+            RegistryByteBuf encoded = buffer();
+            SyncCompression.write(encoded, wrap(data), 256, dictionary);
+            Assert.assertTrue("Repetitive data should get compressed", encoded.readableBytes() < data.length);
+            Assert.assertArrayEquals(data, roundTrip(encoded));
+        }
+    }
+
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void corruptHeadersAreRejected() {
+        // uncompressed size larger than the actual data
+        RegistryByteBuf truncated = buffer();
+        truncated.writeVarInt(1000 << 2);
+        truncated.writeBytes(new byte[10]);
+        Assert.assertThrows(DecoderException.class, () -> SyncCompression.read(truncated));
+
+        // uncompressed size over the cap
+        RegistryByteBuf huge = buffer();
+        huge.writeVarInt(Integer.MAX_VALUE >>> 2 << 2);
+        Assert.assertThrows(DecoderException.class, () -> SyncCompression.read(huge));
+
+        // compressed length larger than the actual data
+        RegistryByteBuf badLength = buffer();
+        badLength.writeVarInt(16 << 2 | 1);
+        badLength.writeVarInt(Integer.MAX_VALUE);
+        badLength.writeBytes(new byte[10]);
+        Assert.assertThrows(DecoderException.class, () -> SyncCompression.read(badLength));
+
+        // compressed data that does not inflate to the announced size
+        byte[] data = new byte[512];
+        Arrays.fill(data, (byte) 7);
+        RegistryByteBuf encoded = buffer();
+        SyncCompression.write(encoded, wrap(data), 0, false);
+        int header = encoded.readVarInt();
+        RegistryByteBuf wrongSize = buffer();
+        wrongSize.writeVarInt(header + (1 << 2));
+        wrongSize.writeBytes(encoded);
+        Assert.assertThrows(DecoderException.class, () -> SyncCompression.read(wrongSize));
+    }
+
+    private static byte[] roundTrip(RegistryByteBuf encoded) {
+        RegistryByteBuf decoded = SyncCompression.read(encoded);
+        Assert.assertFalse("The whole payload should be consumed", encoded.isReadable());
+        byte[] result = new byte[decoded.readableBytes()];
+        decoded.readBytes(result);
+        return result;
+    }
+
+    private static RegistryByteBuf wrap(byte[] data) {
+        return new RegistryByteBuf(Unpooled.wrappedBuffer(data), DynamicRegistryManager.EMPTY);
+    }
+
+    private static RegistryByteBuf buffer() {
+        return new RegistryByteBuf(Unpooled.buffer(), DynamicRegistryManager.EMPTY);
+    }
+}
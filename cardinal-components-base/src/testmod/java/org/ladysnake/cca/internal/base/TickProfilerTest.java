@@ -0,0 +1,81 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.base;
+
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.test.GameTest;
+import org.junit.Assert;
+import org.ladysnake.cca.test.base.CardinalGameTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class TickProfilerTest implements CardinalGameTest {
+    @Override
+    public void tearDown() {
+        TickProfiler.stop();
+        TickProfiler.reset();
+    }
+
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void reportSortsByTotalTime() {
+        TickProfiler.record("cca-test:ignored", String.class, 1_000_000);
+        TickProfiler.start();
+        TickProfiler.record("cca-test:cheap", String.class, 1_000);
+        TickProfiler.record("cca-test:cheap", String.class, 3_000);
+        TickProfiler.record("cca-test:expensive", Integer.class, 50_000);
+        TickProfiler.stop();
+        TickProfiler.record("cca-test:expensive", Integer.class, 1_000_000);
+
+        List<String> report = TickProfiler.report();
+        Assert.assertTrue(report.get(0), report.get(0).startsWith("Stopped component ticking"));
+        int expensive = indexOf(report, "cca-test:expensive on java.lang.Integer: 1 ticks,");
+        int cheap = indexOf(report, "cca-test:cheap on java.lang.String: 2 ticks,");
+        Assert.assertNotEquals("Missing report line for cca-test:expensive", -1, expensive);
+        Assert.assertNotEquals("Missing report line for cca-test:cheap", -1, cheap);
+        Assert.assertTrue("Components should be sorted by total time", expensive < cheap);
+        Assert.assertEquals("Measurements outside of a session should be ignored", -1, indexOf(report, "cca-test:ignored"));
+    }
+
+    @GameTest(templateName = FabricGameTest.EMPTY_STRUCTURE)
+    public void dumpAcceptsBareFileNames() throws IOException {
+        Path path = Path.of("cca-ticks-test-" + ProcessHandle.current().pid() + ".txt");
+        try {
+            TickProfiler.start();
+            TickProfiler.record("cca-test:dumped", String.class, 1_000);
+            TickProfiler.dump(path);
+            Assert.assertEquals(TickProfiler.report().size(), Files.readAllLines(path).size());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static int indexOf(List<String> report, String prefix) {
+        for (int i = 0; i < report.size(); i++) {
+            if (report.get(i).startsWith(prefix)) return i;
+        }
+        return -1;
+    }
+}
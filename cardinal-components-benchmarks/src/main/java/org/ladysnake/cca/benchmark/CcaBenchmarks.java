@@ -0,0 +1,73 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.benchmark;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the JMH benchmarks when the game is launched with {@code -Dcca.benchmark=true}, then exits.
+ *
+ * <p>Benchmarks run in-process ({@code forks = 0}), as component bootstrap needs Fabric Loader
+ * and JMH forks would start outside of Knot. The {@code runBenchmark} Gradle task launches a headless
+ * dedicated server with the right properties. A subset of benchmarks can be selected by passing
+ * a regular expression through {@code -Dcca.benchmark.include}.
+ */
+public final class CcaBenchmarks {
+    private static final Logger LOGGER = LogManager.getLogger("Cardinal Components API Benchmarks");
+
+    public static void init() {
+        if (!Boolean.getBoolean("cca.benchmark")) return;
+
+        Options options = new OptionsBuilder()
+            .include(System.getProperty("cca.benchmark.include", CcaBenchmarks.class.getPackageName() + ".*Benchmark"))
+            .forks(0)
+            .warmupIterations(3)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(5)
+            .measurementTime(TimeValue.seconds(1))
+            .timeUnit(TimeUnit.SECONDS)
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.JSON)
+            .result("cca-benchmarks.json")
+            .build();
+
+        int status = 0;
+        try {
+            new Runner(options).run();
+        } catch (RunnerException e) {
+            LOGGER.error("Failed to run benchmarks", e);
+            status = 1;
+        }
+        System.exit(status);
+    }
+}
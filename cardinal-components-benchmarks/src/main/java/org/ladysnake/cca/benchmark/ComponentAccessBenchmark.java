@@ -0,0 +1,54 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.benchmark;
+
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.Optional;
+
+/**
+ * Measures the lookup of a component through its key, which goes through the generated
+ * {@code ComponentKey#getInternal} override and the container's direct getter.
+ */
+public class ComponentAccessBenchmark {
+    @Benchmark
+    public BenchmarkComponent get(SyntheticContainerState state) {
+        return state.lastKey.get(state.provider);
+    }
+
+    @Benchmark
+    public @Nullable BenchmarkComponent getNullable(SyntheticContainerState state) {
+        return state.lastKey.getNullable(state.provider);
+    }
+
+    @Benchmark
+    public Optional<BenchmarkComponent> maybeGet(SyntheticContainerState state) {
+        return state.lastKey.maybeGet(state.provider);
+    }
+
+    @Benchmark
+    public boolean isProvidedBy(SyntheticContainerState state) {
+        return state.firstKey.isProvidedBy(state.provider);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.benchmark;
+
+import net.minecraft.nbt.NbtCompound;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the NBT round-trips performed whenever a provider gets saved, loaded or copied.
+ */
+public class ContainerSerializationBenchmark {
+    @Benchmark
+    public NbtCompound toTag(SyntheticContainerState state) {
+        return state.container.toTag(new NbtCompound(), state.registryLookup());
+    }
+
+    @Benchmark
+    public ComponentContainer fromTag(SyntheticContainerState state, Target target) {
+        // fromTag consumes the component map, so it needs a fresh copy every time
+        target.container.fromTag(state.serialized.copy(), state.registryLookup());
+        return target.container;
+    }
+
+    @Benchmark
+    public ComponentContainer copyFrom(SyntheticContainerState state, Target target) {
+        target.container.copyFrom(state.container, state.registryLookup());
+        return target.container;
+    }
+
+    @State(Scope.Thread)
+    public static class Target {
+        public ComponentContainer container;
+
+        @Setup(Level.Trial)
+        public void setUp(SyntheticContainerState state) {
+            this.container = new BenchmarkProvider(1, state.factory).getComponentContainer();
+        }
+    }
+}
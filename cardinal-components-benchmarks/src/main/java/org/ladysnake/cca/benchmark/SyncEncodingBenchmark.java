@@ -0,0 +1,58 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.benchmark;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.network.packet.CustomPayload;
+import org.ladysnake.cca.internal.base.ComponentUpdatePayload;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measures the buffer work done by {@code ComponentKey#syncWith} for a single recipient:
+ * writing the sync data, wrapping it in a {@link ComponentUpdatePayload}, and encoding that payload.
+ *
+ * <p>The network send itself is left out, as it requires a connected player.
+ */
+public class SyncEncodingBenchmark {
+    private static final CustomPayload.Id<ComponentUpdatePayload<Integer>> PAYLOAD_ID = ComponentUpdatePayload.id("benchmark_sync");
+    private static final PacketCodec<RegistryByteBuf, ComponentUpdatePayload<Integer>> PAYLOAD_CODEC = ComponentUpdatePayload.codec(PAYLOAD_ID, PacketCodecs.VAR_INT);
+
+    @Benchmark
+    public int encodeSyncPayload(SyntheticContainerState state) {
+        BenchmarkComponent component = state.lastKey.get(state.provider);
+        component.bump();
+        RegistryByteBuf buf = new RegistryByteBuf(Unpooled.buffer(), state.registryManager);
+        RegistryByteBuf out = new RegistryByteBuf(Unpooled.buffer(), state.registryManager);
+        try {
+            component.writeSyncPacket(buf, null);
+            PAYLOAD_CODEC.encode(out, new ComponentUpdatePayload<>(PAYLOAD_ID, state.provider.getSeed(), true, state.lastKey.getId(), buf));
+            return out.writerIndex();
+        } finally {
+            buf.release();
+            out.release();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.benchmark;
+
+import net.minecraft.util.Identifier;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.ladysnake.cca.api.v3.component.ComponentKey;
+import org.ladysnake.cca.api.v3.component.ComponentRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class SyntheticComponents {
+    public static final String NAMESPACE = "cca-benchmarks";
+    /**
+     * Total number of synthetic keys declared during the static bootstrap.
+     */
+    public static final int MAX_KEYS = 4096;
+
+    public static List<Identifier> ids(int count) {
+        List<Identifier> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(new Identifier(NAMESPACE, "key_" + i));
+        }
+        return ids;
+    }
+
+    public static List<ComponentKey<BenchmarkComponent>> keys(int count) {
+        List<ComponentKey<BenchmarkComponent>> keys = new ArrayList<>(count);
+        for (Identifier id : ids(count)) {
+            keys.add(ComponentRegistry.getOrCreate(id, BenchmarkComponent.class));
+        }
+        return keys;
+    }
+
+    /**
+     * Builds a fresh container factory, which spins a new generated container class holding every given key.
+     */
+    public static ComponentContainer.Factory<BenchmarkProvider> factory(List<ComponentKey<BenchmarkComponent>> keys) {
+        ComponentContainer.Factory.Builder<BenchmarkProvider> builder = ComponentContainer.Factory.builder(BenchmarkProvider.class);
+        for (int i = 0; i < keys.size(); i++) {
+            int index = i;
+            builder.component(keys.get(i), provider -> new BenchmarkComponent(provider.getSeed() + index));
+        }
+        return builder.build();
+    }
+}
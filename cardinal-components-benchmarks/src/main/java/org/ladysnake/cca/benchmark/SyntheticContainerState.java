@@ -0,0 +1,74 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.benchmark;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.RegistryWrapper;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.ladysnake.cca.api.v3.component.ComponentKey;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Shared fixture: a generated container class holding {@link #keyCount} synthetic components.
+ *
+ * <p>4096-component containers are not part of the parameter space, as their generated constructor
+ * exceeds the JVM's 64KiB method size limit. All {@value SyntheticComponents#MAX_KEYS} keys still take
+ * part in the static bootstrap.
+ */
+@State(Scope.Benchmark)
+public class SyntheticContainerState {
+    @Param({"1", "16", "256", "2048"})
+    public int keyCount;
+
+    public DynamicRegistryManager registryManager;
+    public List<ComponentKey<BenchmarkComponent>> keys;
+    public ComponentKey<BenchmarkComponent> firstKey;
+    public ComponentKey<BenchmarkComponent> lastKey;
+    public ComponentContainer.Factory<BenchmarkProvider> factory;
+    public BenchmarkProvider provider;
+    public ComponentContainer container;
+    public NbtCompound serialized;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.registryManager = DynamicRegistryManager.EMPTY;
+        this.keys = SyntheticComponents.keys(this.keyCount);
+        this.firstKey = this.keys.get(0);
+        this.lastKey = this.keys.get(this.keys.size() - 1);
+        this.factory = SyntheticComponents.factory(this.keys);
+        this.provider = new BenchmarkProvider(0, this.factory);
+        this.container = this.provider.getComponentContainer();
+        this.serialized = this.container.toTag(new NbtCompound(), this.registryLookup());
+    }
+
+    public RegistryWrapper.WrapperLookup registryLookup() {
+        return this.registryManager;
+    }
+}
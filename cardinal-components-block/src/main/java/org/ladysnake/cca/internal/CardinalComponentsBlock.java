@@ -23,15 +23,17 @@
 package org.ladysnake.cca.internal;
 
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerBlockEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.network.packet.s2c.common.CustomPayloadS2CPacket;
 import org.ladysnake.cca.api.v3.block.BlockEntitySyncAroundCallback;
 import org.ladysnake.cca.api.v3.block.BlockEntitySyncCallback;
-import org.ladysnake.cca.api.v3.component.ComponentKey;
 import org.ladysnake.cca.api.v3.component.ComponentProvider;
 import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
 import org.ladysnake.cca.internal.base.ComponentUpdatePayload;
+import org.ladysnake.cca.internal.base.ComponentsInternals;
+import org.ladysnake.cca.internal.block.CardinalBlockInternals;
 import org.ladysnake.cca.internal.block.StaticBlockComponentPlugin;
 
 public class CardinalComponentsBlock {
@@ -50,19 +52,26 @@ public class CardinalComponentsBlock {
             BlockEntitySyncCallback.EVENT.register((player, tracked) -> {
                 ComponentProvider provider = (ComponentProvider) tracked;
 
-                for (ComponentKey<?> key : provider.getComponentContainer().keys()) {
-                    key.syncWith(player, provider);
-                }
+                provider.getComponentContainer().forEachComponent((key, component) -> {
+                    if (component instanceof AutoSyncedComponent) {
+                        key.syncWith(player, provider);
+                    }
+                });
             });
             BlockEntitySyncAroundCallback.EVENT.register(tracked -> {
-                for (ComponentKey<?> key : ((ComponentProvider) tracked).getComponentContainer().keys()) {
-                    tracked.syncComponent(key);
-                }
+                ((ComponentProvider) tracked).getComponentContainer().forEachComponent((key, component) -> {
+                    if (component instanceof AutoSyncedComponent) {
+                        tracked.syncComponent(key);
+                    }
+                });
             });
         }
         if (FabricLoader.getInstance().isModLoaded("fabric-lifecycle-events-v1")) {
             ServerBlockEntityEvents.BLOCK_ENTITY_LOAD.register((be, world) -> ((ComponentProvider) be).getComponentContainer().onServerLoad());
             ServerBlockEntityEvents.BLOCK_ENTITY_UNLOAD.register((be, world) -> ((ComponentProvider) be).getComponentContainer().onServerUnload());
+            if (ComponentsInternals.warmUpContainers()) {
+                ServerLifecycleEvents.SERVER_STARTING.register(server -> CardinalBlockInternals.warmUpContainerFactories());
+            }
         }
         StaticBlockComponentPlugin.INSTANCE.ensureInitialized();
     }
@@ -23,41 +23,66 @@
 package org.ladysnake.cca.internal.block;
 
 import net.minecraft.block.entity.BlockEntity;
+import org.jetbrains.annotations.Nullable;
 import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.ladysnake.cca.internal.base.ContainerWarmup;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 public final class CardinalBlockInternals {
-    private static final Map<Class<? extends BlockEntity>, ComponentContainer.Factory<BlockEntity>> entityContainerFactories = new HashMap<>();
+    /**
+     * Lock-free view of the container factories, safely published by {@link ClassValue} once computed
+     */
+    private static final ClassValue<ComponentContainer.Factory<BlockEntity>> entityContainerFactories = new ClassValue<>() {
+        @Override
+        protected ComponentContainer.Factory<BlockEntity> computeValue(Class<?> type) {
+            return createBeComponentFactory(type.asSubclass(BlockEntity.class));
+        }
+    };
 
     public static ComponentContainer createComponents(BlockEntity blockEntity) {
-        Class<? extends BlockEntity> entityClass = blockEntity.getClass();
-        ComponentContainer.Factory<BlockEntity> existing = entityContainerFactories.get(entityClass);
+        return getBeComponentFactory(blockEntity.getClass()).createContainer(blockEntity);
+    }
 
-        return Objects.requireNonNullElseGet(
-            existing,
-            () -> getBeComponentFactory(entityClass)
-        ).createContainer(blockEntity);
+    /**
+     * Gets the container factory for a block entity class.
+     *
+     * <p>This method can be called from any thread, including worldgen workers. Once a factory has been created, lookups never block.
+     */
+    public static ComponentContainer.Factory<BlockEntity> getBeComponentFactory(Class<? extends BlockEntity> entityClass) {
+        return entityContainerFactories.get(entityClass);
     }
 
-    private static synchronized ComponentContainer.Factory<BlockEntity> getBeComponentFactory(Class<? extends BlockEntity> entityClass) {
-        // need to check again despite synchronization, because
-        // 1- recursive calls
-        // 2- the factory may have been generated while waiting from createComponents
-        ComponentContainer.Factory<BlockEntity> existing = entityContainerFactories.get(entityClass);
-        if (existing != null) return existing;
+    /**
+     * Generates the container factories for every block entity class with registered components on the main worker pool.
+     *
+     * <p>No block entity gets instantiated. Subclasses without registrations of their own reuse their superclass' factory,
+     * and classes only matched by predicated registrations still get their factory generated on first use.
+     *
+     * @return a future completed with the number of block entity classes that got warmed up
+     */
+    public static CompletableFuture<Integer> warmUpContainerFactories() {
+        List<Supplier<@Nullable Class<?>>> tasks = new ArrayList<>();
+        for (Class<? extends BlockEntity> entityClass : StaticBlockComponentPlugin.INSTANCE.getTargetClasses()) {
+            tasks.add(() -> {
+                getBeComponentFactory(entityClass);
+                return entityClass;
+            });
+        }
+        return ContainerWarmup.run("block entity", tasks);
+    }
 
-        ComponentContainer.Factory<BlockEntity> factory;
+    private static ComponentContainer.Factory<BlockEntity> createBeComponentFactory(Class<? extends BlockEntity> entityClass) {
+        // ClassValue may compute the same value on several threads concurrently, in which case only one result is kept.
+        // Generated containers are hidden classes, so the losing copies can simply be discarded
         if (StaticBlockComponentPlugin.INSTANCE.requiresStaticFactory(entityClass)) {
-            factory = StaticBlockComponentPlugin.INSTANCE.buildDedicatedFactory(entityClass);
-        } else {
-            @SuppressWarnings("unchecked") var superclass = (Class<? extends BlockEntity>) entityClass.getSuperclass();
-            assert BlockEntity.class.isAssignableFrom(superclass) : "requiresStaticFactory returned false on BlockEntity?";
-            factory = /* recursive call */ getBeComponentFactory(superclass);
+            return StaticBlockComponentPlugin.INSTANCE.buildDedicatedFactory(entityClass);
         }
-        entityContainerFactories.put(entityClass, factory);
-        return factory;
+        @SuppressWarnings("unchecked") var superclass = (Class<? extends BlockEntity>) entityClass.getSuperclass();
+        assert BlockEntity.class.isAssignableFrom(superclass) : "requiresStaticFactory returned false on BlockEntity?";
+        return /* recursive call */ getBeComponentFactory(superclass);
     }
 }
@@ -48,6 +48,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 public final class StaticBlockComponentPlugin extends LazyDispatcher implements BlockComponentFactoryRegistry {
@@ -63,8 +64,10 @@ public final class StaticBlockComponentPlugin extends LazyDispatcher implements
 
     private final List<PredicatedComponentFactory<?>> dynamicFactories = new ArrayList<>();
     private final Map<Class<? extends BlockEntity>, Map<ComponentKey<?>, QualifiedComponentFactory<ComponentFactory<? extends BlockEntity, ?>>>> beComponentFactories = new Reference2ObjectOpenHashMap<>();
-    private final Set<Class<? extends BlockEntity>> clientTicking = new ReferenceOpenHashSet<>();
-    private final Set<Class<? extends BlockEntity>> serverTicking = new ReferenceOpenHashSet<>();
+    private final Set<Class<? extends BlockEntity>> testedClasses = new ReferenceOpenHashSet<>();
+    // read from the game threads while factories may get built on other threads
+    private final Set<Class<? extends BlockEntity>> clientTicking = ConcurrentHashMap.newKeySet();
+    private final Set<Class<? extends BlockEntity>> serverTicking = ConcurrentHashMap.newKeySet();
 
     @Nullable
     public <T extends BlockEntity> BlockEntityTicker<T> getComponentTicker(World world, T be, @Nullable BlockEntityTicker<T> base) {
@@ -84,17 +87,35 @@ public final class StaticBlockComponentPlugin extends LazyDispatcher implements
         return base;
     }
 
-    public boolean requiresStaticFactory(Class<? extends BlockEntity> entityClass) {
+    public synchronized boolean requiresStaticFactory(Class<? extends BlockEntity> entityClass) {
         this.ensureInitialized();
 
-        for (PredicatedComponentFactory<?> dynamicFactory : this.dynamicFactories) {
-            dynamicFactory.tryRegister(entityClass);
+        // the same class may be queried concurrently from several threads, only register dynamic factories once
+        if (this.testedClasses.add(entityClass)) {
+            for (PredicatedComponentFactory<?> dynamicFactory : this.dynamicFactories) {
+                dynamicFactory.tryRegister(entityClass);
+            }
         }
 
         return entityClass == BlockEntity.class || this.beComponentFactories.containsKey(entityClass);
     }
 
+    /**
+     * {@return a snapshot of the block entity classes that components have been registered for so far}
+     *
+     * <p>Classes only matched by predicated registrations are not included until a factory has been requested for them.
+     */
+    public synchronized Set<Class<? extends BlockEntity>> getTargetClasses() {
+        this.ensureInitialized();
+        return Set.copyOf(this.beComponentFactories.keySet());
+    }
+
     public ComponentContainer.Factory<BlockEntity> buildDedicatedFactory(Class<? extends BlockEntity> entityClass) {
+        // Class generation happens outside the lock, so that factories for different classes can be built in parallel
+        return this.prepareDedicatedFactory(entityClass).buildShared();
+    }
+
+    private synchronized ComponentContainer.Factory.Builder<BlockEntity> prepareDedicatedFactory(Class<? extends BlockEntity> entityClass) {
         this.ensureInitialized();
 
         var compiled = new LinkedHashMap<>(this.beComponentFactories.getOrDefault(entityClass, Collections.emptyMap()));
@@ -116,14 +137,21 @@ public final class StaticBlockComponentPlugin extends LazyDispatcher implements
             if (ServerTickingComponent.class.isAssignableFrom(entry.getValue().impl())) this.serverTicking.add(entityClass);
         }
 
-        return builder.build();
+        return builder;
     }
 
     private <C extends Component> void addToBuilder(ComponentContainer.Factory.Builder<BlockEntity> builder, Map.Entry<ComponentKey<?>, QualifiedComponentFactory<ComponentFactory<? extends BlockEntity, ?>>> entry) {
         @SuppressWarnings("unchecked") var key = (ComponentKey<C>) entry.getKey();
         @SuppressWarnings("unchecked") var factory = (ComponentFactory<BlockEntity, C>) entry.getValue().factory();
         @SuppressWarnings("unchecked") var impl = (Class<C>) entry.getValue().impl();
-        builder.component(key, impl, factory, entry.getValue().dependencies());
+        if (entry.getValue().lazy()) {
+            builder.lazyComponent(key, impl, factory, entry.getValue().dependencies());
+        } else {
+            builder.component(key, impl, factory, entry.getValue().dependencies());
+        }
+        if (entry.getValue().tickInterval() > 1) {
+            builder.tickInterval(key, entry.getValue().tickInterval());
+        }
     }
 
     public <C extends Component, E extends BlockEntity> void registerFor(Class<E> target, ComponentKey<C> type, ComponentFactory<E, C> factory) {
@@ -179,6 +207,8 @@ public final class StaticBlockComponentPlugin extends LazyDispatcher implements
         private final ComponentKey<? super C> key;
         private final Set<ComponentKey<?>> dependencies;
         private Class<C> componentClass;
+        private boolean lazy;
+        private int tickInterval = 1;
         private Predicate<Class<? extends E>> test;
 
         RegistrationImpl(Class<E> target, ComponentKey<C> key) {
@@ -208,6 +238,21 @@ public final class StaticBlockComponentPlugin extends LazyDispatcher implements
             return ret;
         }
 
+        @Override
+        public Registration<C, E> lazy() {
+            this.lazy = true;
+            return this;
+        }
+
+        @Override
+        public Registration<C, E> tickEvery(int interval) {
+            if (interval < 1) {
+                throw new IllegalArgumentException("Tick interval must be positive, got " + interval);
+            }
+            this.tickInterval = interval;
+            return this;
+        }
+
         @Override
         public void end(ComponentFactory<E, C> factory) {
             StaticBlockComponentPlugin.this.checkLoading(Registration.class, "end");
@@ -215,7 +260,7 @@ public final class StaticBlockComponentPlugin extends LazyDispatcher implements
                 StaticBlockComponentPlugin.this.register0(
                     this.target,
                     this.key,
-                    new QualifiedComponentFactory<>(factory, this.componentClass, this.dependencies)
+                    new QualifiedComponentFactory<>(factory, this.componentClass, this.dependencies, this.lazy, this.tickInterval)
                 );
             } else {
                 StaticBlockComponentPlugin.this.dynamicFactories.add(new PredicatedComponentFactory<>(
@@ -224,7 +269,9 @@ public final class StaticBlockComponentPlugin extends LazyDispatcher implements
                     new QualifiedComponentFactory<>(
                         entity -> factory.createComponent(this.target.cast(entity)),
                         this.componentClass,
-                        this.dependencies
+                        this.dependencies,
+                        this.lazy,
+                        this.tickInterval
                     )
                 ));
             }
@@ -23,22 +23,36 @@
 package org.ladysnake.cca.test.block;
 
 import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockEntityProvider;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.block.entity.BlockEntityType;
 import net.minecraft.block.entity.CommandBlockBlockEntity;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.test.GameTest;
+import net.minecraft.test.GameTestException;
 import net.minecraft.test.TestContext;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import org.jetbrains.annotations.NotNull;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.ladysnake.cca.internal.block.CardinalBlockInternals;
 import org.ladysnake.cca.test.base.LoadAwareTestComponent;
 import org.ladysnake.cca.test.base.TickingTestComponent;
 import org.ladysnake.cca.test.base.Vita;
 import org.ladysnake.elmendorf.GameTestUtil;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class CcaBlockTestSuite implements FabricGameTest {
     @GameTest(templateName = EMPTY_STRUCTURE)
@@ -122,4 +136,46 @@ public class CcaBlockTestSuite implements FabricGameTest {
             ctx.complete();
         });
     }
+
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void concurrentContainerCreation(TestContext ctx) {
+        List<Block> blocks = List.of(
+            Blocks.CHEST, Blocks.BARREL, Blocks.FURNACE, Blocks.BLAST_FURNACE, Blocks.SMOKER, Blocks.HOPPER,
+            Blocks.DISPENSER, Blocks.DROPPER, Blocks.BREWING_STAND, Blocks.BEACON, Blocks.CONDUIT, Blocks.BELL,
+            Blocks.LECTERN, Blocks.CAMPFIRE, Blocks.BEEHIVE, Blocks.SCULK_SENSOR, Blocks.CRAFTER, Blocks.VAULT,
+            Blocks.END_GATEWAY, Blocks.END_PORTAL, Blocks.CHAIN_COMMAND_BLOCK
+        );
+        BlockPos pos = ctx.getAbsolutePos(BlockPos.ORIGIN);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<ComponentContainer.Factory<BlockEntity>>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    List<ComponentContainer.Factory<BlockEntity>> factories = new ArrayList<>();
+                    for (Block block : blocks) {
+                        // block entities get their component container as soon as they are constructed
+                        BlockEntity be = Objects.requireNonNull(((BlockEntityProvider) block).createBlockEntity(pos, block.getDefaultState()));
+                        factories.add(CardinalBlockInternals.getBeComponentFactory(be.getClass()));
+                    }
+                    return factories;
+                }));
+            }
+            start.countDown();
+            List<ComponentContainer.Factory<BlockEntity>> expected = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<List<ComponentContainer.Factory<BlockEntity>>> result : results) {
+                List<ComponentContainer.Factory<BlockEntity>> factories = result.get(10, TimeUnit.SECONDS);
+                for (int i = 0; i < blocks.size(); i++) {
+                    GameTestUtil.assertTrue("All threads should get the same factory for " + blocks.get(i), factories.get(i) == expected.get(i));
+                }
+            }
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            throw new GameTestException("Concurrent container creation failed: " + e);
+        } finally {
+            executor.shutdownNow();
+        }
+        ctx.complete();
+    }
 }
@@ -23,6 +23,7 @@
 package org.ladysnake.cca.api.v3.chunk;
 
 import net.minecraft.world.chunk.Chunk;
+import org.jetbrains.annotations.ApiStatus;
 import org.ladysnake.cca.api.v3.component.Component;
 import org.ladysnake.cca.api.v3.component.ComponentFactory;
 import org.ladysnake.cca.api.v3.component.ComponentKey;
@@ -45,4 +46,17 @@ public interface ChunkComponentFactoryRegistry {
      * @param factory the factory to use to create components of the given type
      */
     <C extends Component> void register(ComponentKey<? super C> key, Class<C> impl, ComponentFactory<Chunk, ? extends C> factory);
+
+    /**
+     * Registers a {@link ComponentFactory} for {@link Chunk}s, which components only get created when first accessed.
+     *
+     * <p>Lazy components that have not been accessed yet are skipped when serializing, synchronizing,
+     * or ticking their chunk.
+     *
+     * @param impl    the class object representing the type of component produced by the factory
+     * @param factory the factory to use to create components of the given type
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    <C extends Component> void registerLazy(ComponentKey<? super C> key, Class<C> impl, ComponentFactory<Chunk, ? extends C> factory);
 }
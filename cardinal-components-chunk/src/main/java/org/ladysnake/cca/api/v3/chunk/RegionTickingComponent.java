@@ -0,0 +1,60 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.api.v3.chunk;
+
+import net.minecraft.util.math.ChunkPos;
+import org.jetbrains.annotations.ApiStatus;
+import org.ladysnake.cca.api.v3.component.Component;
+import org.ladysnake.cca.api.v3.component.ComponentFactory;
+import org.ladysnake.cca.api.v3.component.ComponentKey;
+import org.ladysnake.cca.api.v3.component.tick.ServerTickingComponent;
+
+/**
+ * A chunk component that can be ticked concurrently with the components of chunks from other regions.
+ *
+ * <p>Every server tick, after vanilla ticked the world's chunks, the region ticking components of every ticking chunk
+ * are grouped by region ({@linkplain ChunkPos#getRegionX() 32x32 chunks}). Regions are then ticked in parallel on
+ * the {@linkplain java.util.concurrent.ForkJoinPool#commonPool() common fork-join pool}, while the chunks of a
+ * given region are ticked one after the other, in no particular order. The server thread waits for every region
+ * to be done before moving on. If parallel chunk ticking is disabled in the config, or if there is a single region
+ * to tick, everything runs serially on the server thread instead.
+ *
+ * <p>Consequently, {@link #regionTick()} <strong>may only access</strong>:
+ * <ul>
+ *     <li>the state of this component</li>
+ *     <li>the state of other components attached to chunks of the same region</li>
+ *     <li>immutable data, like registries or the chunk's {@link ChunkPos}</li>
+ * </ul>
+ * Anything else, like the chunk's blocks, entities, the world, or component synchronization, must be left
+ * to a regular {@link ServerTickingComponent#serverTick()}, or deferred to the server thread.
+ *
+ * <p>This interface must be visible at factory registration time - which means the class implementing it
+ * must either be the component class of the registered key, or declared explicitly using
+ * {@link ChunkComponentFactoryRegistry#register(ComponentKey, Class, ComponentFactory)}.
+ *
+ * @since 6.1.0
+ */
+@ApiStatus.Experimental
+public interface RegionTickingComponent extends Component {
+    void regionTick();
+}
@@ -22,13 +22,14 @@
  */
 package org.ladysnake.cca.internal.chunk;
 
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.util.math.ChunkPos;
 import org.ladysnake.cca.api.v3.chunk.ChunkSyncCallback;
-import org.ladysnake.cca.api.v3.component.ComponentKey;
 import org.ladysnake.cca.api.v3.component.ComponentProvider;
+import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
 import org.ladysnake.cca.internal.base.ComponentUpdatePayload;
 import org.ladysnake.cca.internal.base.MorePacketCodecs;
 
@@ -39,15 +40,20 @@ public final class CardinalComponentsChunk {
         if (FabricLoader.getInstance().isModLoaded("fabric-networking-api-v1")) {
             ComponentUpdatePayload.register(PACKET_ID, MorePacketCodecs.CHUNKPOS);
             ChunkSyncCallback.EVENT.register((player, tracked) -> {
-                for (ComponentKey<?> key : tracked.asComponentProvider().getComponentContainer().keys()) {
-                    key.syncWith(player, (ComponentProvider) tracked);
-                }
+                tracked.asComponentProvider().getComponentContainer().forEachComponent((key, component) -> {
+                    if (component instanceof AutoSyncedComponent) {
+                        key.syncWith(player, (ComponentProvider) tracked);
+                    }
+                });
             });
         }
         if (FabricLoader.getInstance().isModLoaded("fabric-lifecycle-events-v1")) {
             ServerChunkEvents.CHUNK_LOAD.register((world, chunk) -> ((ComponentProvider) chunk).getComponentContainer().onServerLoad());
             ServerChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> ((ComponentProvider) chunk).getComponentContainer().onServerUnload());
         }
+        if (FabricLoader.getInstance().isModLoaded("fabric-command-api-v2")) {
+            CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> CcaChunkCommand.register(dispatcher));
+        }
         StaticChunkComponentPlugin.INSTANCE.ensureInitialized();
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.chunk;
+
+import com.mojang.brigadier.CommandDispatcher;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import org.ladysnake.cca.internal.base.CcaCommand;
+import org.ladysnake.cca.internal.base.ComponentsInternals;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The {@code /cca chunks} command, used to move chunk component data to the {@linkplain SidecarChunkStorage sidecar storage}.
+ */
+public final class CcaChunkCommand {
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+        CcaCommand.getOrRegister(dispatcher).addChild(CommandManager.literal("chunks")
+            .requires(source -> source.hasPermissionLevel(4))
+            .then(CommandManager.literal("migrate")
+                .executes(context -> {
+                    ServerCommandSource source = context.getSource();
+                    ServerWorld world = source.getWorld();
+                    SidecarChunkStorage storage = SidecarChunkStorage.get(world);
+                    if (storage == null) {
+                        // Dedicated servers cannot handle translations
+                        source.sendError(Text.of("Sidecar chunk storage is disabled, set sidecar-chunk-storage to true in the config to enable it"));
+                        return 0;
+                    }
+                    CompletableFuture<Integer> migration;
+                    try {
+                        migration = storage.migrateInlineData();
+                    } catch (IOException e) {
+                        ComponentsInternals.LOGGER.error("Failed to list region files for {}", world.getRegistryKey().getValue(), e);
+                        source.sendError(Text.of("Failed to start chunk component migration, see the log for details"));
+                        return 0;
+                    }
+                    source.sendFeedback(() -> Text.of("Migrating chunk components in " + world.getRegistryKey().getValue()), true);
+                    migration.whenCompleteAsync((migrated, t) -> {
+                        if (t != null) {
+                            ComponentsInternals.LOGGER.error("Failed to migrate chunk components in {}", world.getRegistryKey().getValue(), t);
+                            source.sendError(Text.of("Chunk component migration failed, see the log for details"));
+                        } else {
+                            source.sendFeedback(() -> Text.of("Migrated component data for " + migrated + " chunks in " + world.getRegistryKey().getValue()), true);
+                        }
+                    }, world.getServer());
+                    return 1;
+                })
+            )
+            .build()
+        );
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.chunk;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.chunk.WorldChunk;
+import org.ladysnake.cca.api.v3.chunk.RegionTickingComponent;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.ladysnake.cca.api.v3.component.ComponentKey;
+import org.ladysnake.cca.internal.base.AbstractComponentContainer;
+import org.ladysnake.cca.internal.base.ComponentsInternals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Ticks the {@link RegionTickingComponent}s of a single world.
+ *
+ * <p>Chunks are collected while the world ticks them, then their components are ticked
+ * in a single fork-join phase, one task per region.
+ */
+public final class ChunkRegionTicker {
+    private final Long2ObjectMap<List<ComponentContainer>> regions = new Long2ObjectLinkedOpenHashMap<>();
+
+    /**
+     * Queues the region ticking components of a chunk, or ticks them right away if parallel ticking is disabled.
+     */
+    public void add(WorldChunk chunk) {
+        List<ComponentKey<?>> keys = StaticChunkComponentPlugin.INSTANCE.getRegionTickingKeys();
+
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        ComponentContainer components = chunk.asComponentProvider().getComponentContainer();
+
+        if (ComponentsInternals.useParallelChunkTicking()) {
+            ChunkPos pos = chunk.getPos();
+            this.regions.computeIfAbsent(ChunkPos.toLong(pos.getRegionX(), pos.getRegionZ()), r -> new ArrayList<>()).add(components);
+        } else {
+            tickChunk(components, keys);
+        }
+    }
+
+    /**
+     * Ticks every queued chunk, and waits for all of them to be done.
+     */
+    public void run() {
+        if (this.regions.isEmpty()) {
+            return;
+        }
+
+        List<List<ComponentContainer>> regions = new ArrayList<>(this.regions.values());
+        List<ComponentKey<?>> keys = StaticChunkComponentPlugin.INSTANCE.getRegionTickingKeys();
+        this.regions.clear();
+
+        if (regions.size() == 1) {
+            tickRegion(regions.get(0), keys);   // nothing to parallelize
+        } else {
+            ForkJoinPool.commonPool().invoke(new RegionTickTask(regions, keys, 0, regions.size()));
+        }
+    }
+
+    private static void tickRegion(List<ComponentContainer> region, List<ComponentKey<?>> keys) {
+        for (ComponentContainer components : region) {
+            tickChunk(components, keys);
+        }
+    }
+
+    private static void tickChunk(ComponentContainer components, List<ComponentKey<?>> keys) {
+        for (ComponentKey<?> key : keys) {
+            if (components instanceof AbstractComponentContainer container && !container.isMaterialized(key)) {
+                continue;   // lazy components that were never accessed do not get ticked
+            }
+
+            if (key.getInternal(components) instanceof RegionTickingComponent ticking) {
+                ticking.regionTick();
+            }
+        }
+    }
+
+    /**
+     * Recursively splits a list of regions until each task ticks a single region.
+     */
+    private static final class RegionTickTask extends RecursiveAction {
+        private final List<List<ComponentContainer>> regions;
+        private final List<ComponentKey<?>> keys;
+        private final int from;
+        private final int to;
+
+        RegionTickTask(List<List<ComponentContainer>> regions, List<ComponentKey<?>> keys, int from, int to) {
+            this.regions = regions;
+            this.keys = keys;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from == 1) {
+                tickRegion(this.regions.get(this.from), this.keys);
+            } else {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(
+                    new RegionTickTask(this.regions, this.keys, this.from, middle),
+                    new RegionTickTask(this.regions, this.keys, middle, this.to)
+                );
+            }
+        }
+    }
+}
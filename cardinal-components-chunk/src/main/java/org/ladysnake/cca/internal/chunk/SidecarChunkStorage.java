@@ -0,0 +1,298 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.chunk;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.server.world.ThreadedAnvilChunkStorage;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.dimension.DimensionType;
+import net.minecraft.world.storage.StorageIoWorker;
+import net.minecraft.world.storage.StorageKey;
+import org.jetbrains.annotations.Nullable;
+import org.ladysnake.cca.internal.base.AbstractComponentContainer;
+import org.ladysnake.cca.internal.base.ComponentsInternals;
+import org.ladysnake.cca.mixin.chunk.common.ThreadedAnvilChunkStorageAccessor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Stores chunk component data in region files of its own, next to vanilla's.
+ *
+ * <p>Reads and writes go through a dedicated {@link StorageIoWorker}, like vanilla chunk data.
+ * Reads are started as soon as vanilla starts reading a chunk, so that both happen in parallel.
+ * Data migrated to this storage is not moved back to vanilla chunk data if it gets disabled again.
+ */
+public final class SidecarChunkStorage {
+    public static final String DIRECTORY = "cca";
+    private static final Pattern REGION_FILE_NAME = Pattern.compile("^r\\.(-?\\d+)\\.(-?\\d+)\\.mca$");
+
+    private final ServerWorld world;
+    private final StorageIoWorker worker;
+    private final Map<Long, Prefetch> prefetched = new ConcurrentHashMap<>();
+    /**
+     * Chunks saved while a migration is running, which vanilla data the migration may have read before the save
+     */
+    private final Set<Long> savedDuringMigration = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger runningMigrations = new AtomicInteger();
+    private final AtomicInteger prefetchMisses = new AtomicInteger();
+
+    public SidecarChunkStorage(ServerWorld world) {
+        this(world, getDimensionDirectory(world).resolve(DIRECTORY));
+    }
+
+    /**
+     * @param directory the directory in which this storage's region files get stored
+     */
+    public SidecarChunkStorage(ServerWorld world, Path directory) {
+        this.world = world;
+        this.worker = new StorageIoWorker(
+            new StorageKey(world.getServer().getSaveProperties().getLevelName(), world.getRegistryKey(), "cca_chunk"),
+            directory,
+            world.getServer().syncChunkWrites()
+        );
+    }
+
+    /**
+     * {@return the sidecar storage of {@code world}, or {@code null} if chunk components are stored inline}
+     */
+    public static @Nullable SidecarChunkStorage get(ServerWorld world) {
+        return ((Holder) world).getSidecarChunkStorage();
+    }
+
+    private static Path getDimensionDirectory(ServerWorld world) {
+        return DimensionType.getSaveDirectory(world.getRegistryKey(), world.getServer().getSavePath(WorldSavePath.ROOT));
+    }
+
+    /**
+     * Starts reading the component data of a chunk, to be retrieved later with {@link #read(ChunkPos)}.
+     *
+     * <p>Each load attempt starts a new read, replacing any prefetched data left over by an earlier attempt
+     * that got abandoned before the chunk was deserialized.
+     *
+     * @return the prefetched data, to be passed to {@link #discardPrefetch(ChunkPos, Prefetch)} if this load attempt gets abandoned
+     */
+    public Prefetch prefetch(ChunkPos pos) {
+        Prefetch prefetch = new Prefetch(this.worker.readChunkData(pos));
+        this.prefetched.put(pos.toLong(), prefetch);
+        return prefetch;
+    }
+
+    /**
+     * Discards prefetched data that will not be {@linkplain #read(ChunkPos) read}, e.g. because the chunk does not exist yet.
+     *
+     * <p>Data prefetched by a later load attempt is kept.
+     */
+    public void discardPrefetch(ChunkPos pos, Prefetch prefetch) {
+        this.prefetched.remove(pos.toLong(), prefetch);
+    }
+
+    /**
+     * Retrieves the component data of a chunk, waiting for the read to complete if needed.
+     *
+     * <p>Chunks should have been {@linkplain #prefetch(ChunkPos) prefetched}, otherwise this blocks on a disk read.
+     */
+    public Optional<NbtCompound> read(ChunkPos pos) {
+        Prefetch prefetch = this.prefetched.remove(pos.toLong());
+        CompletableFuture<Optional<NbtCompound>> future;
+        if (prefetch != null) {
+            future = prefetch.data;
+        } else {
+            if (this.prefetchMisses.getAndIncrement() == 0) {
+                ComponentsInternals.LOGGER.warn("Component data for chunk {} in {} was not prefetched, reading it synchronously (further misses are logged at debug level)", pos, this.world.getRegistryKey().getValue());
+            } else {
+                ComponentsInternals.LOGGER.debug("Component data for chunk {} in {} was not prefetched, reading it synchronously", pos, this.world.getRegistryKey().getValue());
+            }
+            future = this.worker.readChunkData(pos);
+        }
+        return future.join();
+    }
+
+    /**
+     * {@return the number of chunks which component data had to be read without being prefetched first}
+     */
+    public int getPrefetchMisses() {
+        return this.prefetchMisses.get();
+    }
+
+    /**
+     * Saves the component data of a chunk.
+     */
+    public void write(ChunkPos pos, NbtCompound data) {
+        long key = pos.toLong();
+        if (this.runningMigrations.get() > 0) {
+            this.savedDuringMigration.add(key);
+        }
+        this.writeData(pos, data);
+    }
+
+    private CompletableFuture<Void> writeData(ChunkPos pos, NbtCompound data) {
+        CompletableFuture<Void> write = this.worker.setResult(pos, data);
+        // data prefetched before this save is outdated; the worker serves reads from pending writes,
+        // so prefetching again gets the new data without touching the disk
+        Prefetch prefetch = this.prefetched.get(pos.toLong());
+        if (prefetch != null) {
+            prefetch.data = this.worker.readChunkData(pos);
+        }
+        return write;
+    }
+
+    public CompletableFuture<Void> completeAll(boolean sync) {
+        return this.worker.completeAll(sync);
+    }
+
+    public void close() throws IOException {
+        this.prefetched.clear();
+        this.worker.close();
+    }
+
+    /**
+     * Moves chunk component data from vanilla chunk data to this storage, one region at a time.
+     *
+     * <p>Chunks that are currently loaded are skipped, as they will move their data over when they get saved.
+     *
+     * @return a future completed with the number of migrated chunks
+     * @see #migrateRegion(int, int)
+     */
+    public CompletableFuture<Integer> migrateInlineData() throws IOException {
+        Path regionDirectory = getDimensionDirectory(this.world).resolve("region");
+        List<ChunkPos> regions = new ArrayList<>();    // region coordinates, not chunk coordinates
+
+        if (Files.isDirectory(regionDirectory)) {
+            try (Stream<Path> files = Files.list(regionDirectory)) {
+                files.forEach(file -> {
+                    Matcher matcher = REGION_FILE_NAME.matcher(file.getFileName().toString());
+                    if (matcher.matches()) {
+                        regions.add(new ChunkPos(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+                    }
+                });
+            }
+        }
+
+        CompletableFuture<Integer> future = CompletableFuture.completedFuture(0);
+
+        for (ChunkPos region : regions) {
+            future = future.thenCompose(migrated -> this.migrateRegion(region.x, region.z).thenApply(n -> migrated + n));
+        }
+
+        return future;
+    }
+
+    /**
+     * Moves chunk component data from vanilla chunk data to this storage, for every chunk of a single region.
+     *
+     * <p>Chunks that are loaded, waiting to be saved after unloading, or saved while the migration runs are skipped,
+     * as the vanilla data read by the migration may be outdated. Their data moves over when they get saved anyway.
+     * Vanilla chunk data only gets rewritten once the component data has been written and synced to disk,
+     * and is left untouched if that fails.
+     *
+     * @return a future completed with the number of migrated chunks
+     */
+    public CompletableFuture<Integer> migrateRegion(int regionX, int regionZ) {
+        ThreadedAnvilChunkStorage vanillaStorage = this.world.getChunkManager().threadedAnvilChunkStorage;
+        ThreadedAnvilChunkStorageAccessor accessor = (ThreadedAnvilChunkStorageAccessor) vanillaStorage;
+        List<CompletableFuture<Void>> chunks = new ArrayList<>(32 * 32);
+        List<PendingMigration> migrations = new ArrayList<>();   // only accessed from the server thread
+
+        // start tracking saves before reading anything, so that no save can go unnoticed
+        this.runningMigrations.incrementAndGet();
+
+        for (int x = 0; x < 32; x++) {
+            for (int z = 0; z < 32; z++) {
+                ChunkPos pos = new ChunkPos((regionX << 5) + x, (regionZ << 5) + z);
+                chunks.add(vanillaStorage.getNbt(pos).thenAcceptAsync(nbt -> nbt.ifPresent(tag -> {
+                    if (tag.contains(AbstractComponentContainer.NBT_KEY, NbtElement.COMPOUND_TYPE) && this.canMigrate(accessor, pos)) {
+                        NbtCompound data = new NbtCompound();
+                        data.put(AbstractComponentContainer.NBT_KEY, tag.getCompound(AbstractComponentContainer.NBT_KEY).copy());
+                        migrations.add(new PendingMigration(pos, tag, this.writeData(pos, data)));
+                    }
+                }), this.world.getServer()));
+            }
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new))
+            .thenCompose(v -> CompletableFuture.allOf(migrations.stream().map(PendingMigration::sidecarWrite).toArray(CompletableFuture[]::new)))
+            // component data must be safely on disk before it gets removed from vanilla chunk data
+            .thenCompose(v -> this.completeAll(true))
+            // vanilla data gets rewritten on the server thread, so that it cannot race with regular chunk saves
+            .thenApplyAsync(v -> {
+                int migrated = 0;
+                for (PendingMigration migration : migrations) {
+                    // chunks saved in the meantime already moved their data, and may have newer vanilla data than ours
+                    if (this.canMigrate(accessor, migration.pos())) {
+                        migration.vanillaData().remove(AbstractComponentContainer.NBT_KEY);
+                        vanillaStorage.setNbt(migration.pos(), migration.vanillaData());
+                        migrated++;
+                    }
+                }
+                return migrated;
+            }, this.world.getServer())
+            .whenComplete((migrated, t) -> {
+                if (this.runningMigrations.decrementAndGet() == 0) {
+                    this.savedDuringMigration.clear();
+                }
+            });
+    }
+
+    private boolean canMigrate(ThreadedAnvilChunkStorageAccessor vanillaStorage, ChunkPos pos) {
+        long key = pos.toLong();
+        return vanillaStorage.invokeGetCurrentChunkHolder(key) == null
+            && !vanillaStorage.getChunksToUnload().containsKey(key)
+            && !this.savedDuringMigration.contains(key);
+    }
+
+    /**
+     * Component data being read ahead of a chunk's deserialization.
+     */
+    public static final class Prefetch {
+        volatile CompletableFuture<Optional<NbtCompound>> data;
+
+        Prefetch(CompletableFuture<Optional<NbtCompound>> data) {
+            this.data = data;
+        }
+    }
+
+    private record PendingMigration(ChunkPos pos, NbtCompound vanillaData, CompletableFuture<Void> sidecarWrite) {}
+
+    /**
+     * Implemented by {@link ServerWorld} through a mixin.
+     */
+    public interface Holder {
+        @Nullable SidecarChunkStorage getSidecarChunkStorage();
+    }
+}
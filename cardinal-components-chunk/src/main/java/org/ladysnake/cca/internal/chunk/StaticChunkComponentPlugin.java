@@ -27,13 +27,16 @@ import net.fabricmc.loader.api.entrypoint.EntrypointContainer;
 import net.minecraft.world.chunk.Chunk;
 import org.ladysnake.cca.api.v3.chunk.ChunkComponentFactoryRegistry;
 import org.ladysnake.cca.api.v3.chunk.ChunkComponentInitializer;
+import org.ladysnake.cca.api.v3.chunk.RegionTickingComponent;
 import org.ladysnake.cca.api.v3.component.Component;
 import org.ladysnake.cca.api.v3.component.ComponentContainer;
 import org.ladysnake.cca.api.v3.component.ComponentFactory;
 import org.ladysnake.cca.api.v3.component.ComponentKey;
 import org.ladysnake.cca.internal.base.asm.StaticComponentPluginBase;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.function.Supplier;
 
 public final class StaticChunkComponentPlugin extends StaticComponentPluginBase<Chunk, ChunkComponentInitializer> implements ChunkComponentFactoryRegistry {
@@ -41,6 +44,8 @@ public final class StaticChunkComponentPlugin extends StaticComponentPluginBase<
     private static final Supplier<ComponentContainer.Factory<Chunk>> componentsContainerFactory
         = Suppliers.memoize(INSTANCE::buildContainerFactory);
 
+    private final List<ComponentKey<?>> regionTickingKeys = new ArrayList<>();
+
     public static ComponentContainer createContainer(Chunk chunk) {
         return componentsContainerFactory.get().createContainer(chunk);
     }
@@ -67,6 +72,28 @@ public final class StaticChunkComponentPlugin extends StaticComponentPluginBase<
     @Override
     public <C extends Component> void register(ComponentKey<? super C> type, Class<C> impl, ComponentFactory<Chunk, ? extends C> factory) {
         this.checkLoading(ChunkComponentFactoryRegistry.class, "register");
-        super.register(type, factory);
+        this.checkRegionTicking(type, impl);
+        super.register(type, impl, factory);
+    }
+
+    @Override
+    public <C extends Component> void registerLazy(ComponentKey<? super C> type, Class<C> impl, ComponentFactory<Chunk, ? extends C> factory) {
+        this.checkLoading(ChunkComponentFactoryRegistry.class, "registerLazy");
+        this.checkRegionTicking(type, impl);
+        super.registerLazy(type, impl, factory);
+    }
+
+    private void checkRegionTicking(ComponentKey<?> type, Class<?> impl) {
+        if (RegionTickingComponent.class.isAssignableFrom(impl)) {
+            this.regionTickingKeys.add(type);
+        }
+    }
+
+    /**
+     * {@return the keys of every registered component implementing {@link RegionTickingComponent}}
+     */
+    public List<ComponentKey<?>> getRegionTickingKeys() {
+        this.ensureInitialized();
+        return this.regionTickingKeys;
     }
 }
@@ -22,6 +22,8 @@
  */
 package org.ladysnake.cca.mixin.chunk.common;
 
+import com.llamalad7.mixinextras.sugar.Share;
+import com.llamalad7.mixinextras.sugar.ref.LocalRef;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import net.minecraft.server.world.ServerWorld;
@@ -31,29 +33,63 @@ import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.ProtoChunk;
 import net.minecraft.world.chunk.WrapperProtoChunk;
 import net.minecraft.world.poi.PointOfInterestStorage;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
 import org.ladysnake.cca.internal.base.AbstractComponentContainer;
+import org.ladysnake.cca.internal.base.ComponentsInternals;
+import org.ladysnake.cca.internal.base.DeferredComponentSaves;
+import org.ladysnake.cca.internal.chunk.SidecarChunkStorage;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
+import java.util.concurrent.CompletionException;
+
 @Mixin(ChunkSerializer.class)
 public abstract class MixinChunkSerializer {
     @Inject(method = "deserialize", at = @At("RETURN"))
     private static void deserialize(ServerWorld world, PointOfInterestStorage pointOfInterestStorage, ChunkPos chunkPos, NbtCompound tag, CallbackInfoReturnable<ProtoChunk> cir) {
         ProtoChunk ret = cir.getReturnValue();
         Chunk chunk = ret instanceof WrapperProtoChunk ? ((WrapperProtoChunk) ret).getWrappedChunk() : ret;
-        chunk.asComponentProvider().getComponentContainer().fromTag(tag, world.getRegistryManager());
+        ComponentContainer components = chunk.asComponentProvider().getComponentContainer();
+        boolean inlineData = tag.contains(AbstractComponentContainer.NBT_KEY, NbtElement.COMPOUND_TYPE);
+        components.fromTag(tag, world.getRegistryManager());
         // If components have been removed, we need to make the chunk save again
-        if (tag.contains(AbstractComponentContainer.NBT_KEY, NbtElement.COMPOUND_TYPE)) {
+        if (inlineData) {
             int remainingComponentCount = tag.getCompound(AbstractComponentContainer.NBT_KEY).getSize();
             chunk.setNeedsSaving(remainingComponentCount > 0);
         }
+
+        SidecarChunkStorage sidecarStorage = SidecarChunkStorage.get(world);
+        if (sidecarStorage != null) {
+            try {
+                sidecarStorage.read(chunkPos).ifPresent(data -> components.fromTag(data, world.getRegistryManager()));
+            } catch (CompletionException e) {
+                ComponentsInternals.LOGGER.error("Failed to read component data for chunk {} in {}", chunkPos, world.getRegistryKey().getValue(), e);
+            }
+            if (inlineData) {
+                chunk.setNeedsSaving(true);     // move the inline data over to the sidecar storage
+            }
+        }
+    }
+
+    @Inject(method = "serialize", at = @At("HEAD"))
+    private static void startSerialization(ServerWorld world, Chunk chunk, CallbackInfoReturnable<NbtCompound> cir, @Share("componentSaves") LocalRef<DeferredComponentSaves> componentSaves) {
+        // snapshot components get encoded in the background while vanilla serializes the chunk
+        componentSaves.set(DeferredComponentSaves.start(chunk.asComponentProvider().getComponentContainer(), world.getRegistryManager()));
     }
 
     @Inject(method = "serialize", at = @At("RETURN"))
-    private static void serialize(ServerWorld world, Chunk chunk, CallbackInfoReturnable<NbtCompound> cir) {
-        NbtCompound ret = cir.getReturnValue();
-        chunk.asComponentProvider().getComponentContainer().toTag(ret, world.getRegistryManager());
+    private static void serialize(ServerWorld world, Chunk chunk, CallbackInfoReturnable<NbtCompound> cir, @Share("componentSaves") LocalRef<DeferredComponentSaves> componentSaves) {
+        SidecarChunkStorage sidecarStorage = SidecarChunkStorage.get(world);
+        if (sidecarStorage != null) {
+            if (chunk.asComponentProvider().getComponentContainer().hasComponents()) {
+                NbtCompound data = new NbtCompound();
+                componentSaves.get().finish(data);
+                sidecarStorage.write(chunk.getPos(), data);
+            }
+        } else {
+            componentSaves.get().finish(cir.getReturnValue());
+        }
     }
 }
@@ -23,16 +23,66 @@
 package org.ladysnake.cca.mixin.chunk.common;
 
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.ProgressListener;
 import net.minecraft.world.chunk.WorldChunk;
+import org.jetbrains.annotations.Nullable;
+import org.ladysnake.cca.internal.base.ComponentsInternals;
+import org.ladysnake.cca.internal.chunk.ChunkRegionTicker;
+import org.ladysnake.cca.internal.chunk.SidecarChunkStorage;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
+import java.io.IOException;
+import java.util.function.BooleanSupplier;
+
 @Mixin(ServerWorld.class)
-public abstract class MixinServerWorld {
+public abstract class MixinServerWorld implements SidecarChunkStorage.Holder {
+    @Unique
+    private final ChunkRegionTicker regionTicker = new ChunkRegionTicker();
+    @Unique
+    private @Nullable SidecarChunkStorage sidecarChunkStorage;
+
+    @Inject(method = "<init>*", at = @At("RETURN"))
+    private void initSidecarStorage(CallbackInfo ci) {
+        if (ComponentsInternals.useSidecarChunkStorage()) {
+            this.sidecarChunkStorage = new SidecarChunkStorage((ServerWorld) (Object) this);
+        }
+    }
+
+    @Inject(method = "save", at = @At("TAIL"))
+    private void saveSidecarStorage(@Nullable ProgressListener progressListener, boolean flush, boolean savingDisabled, CallbackInfo ci) {
+        if (this.sidecarChunkStorage != null && flush && !savingDisabled) {
+            this.sidecarChunkStorage.completeAll(true).join();
+        }
+    }
+
+    @Inject(method = "close", at = @At("RETURN"))
+    private void closeSidecarStorage(CallbackInfo ci) {
+        if (this.sidecarChunkStorage != null) {
+            try {
+                this.sidecarChunkStorage.close();
+            } catch (IOException e) {
+                ComponentsInternals.LOGGER.error("Failed to close chunk component storage", e);
+            }
+        }
+    }
+
+    @Override
+    public @Nullable SidecarChunkStorage getSidecarChunkStorage() {
+        return this.sidecarChunkStorage;
+    }
+
     @Inject(method = "tickChunk", at = @At("RETURN"))
     private void tick(WorldChunk chunk, int randomTickSpeed, CallbackInfo ci) {
         chunk.asComponentProvider().getComponentContainer().tickServerComponents();
+        this.regionTicker.add(chunk);
+    }
+
+    @Inject(method = "tick", at = @At(value = "INVOKE", target = "Lnet/minecraft/server/world/ServerChunkManager;tick(Ljava/util/function/BooleanSupplier;Z)V", shift = At.Shift.AFTER))
+    private void tickRegions(BooleanSupplier shouldKeepTicking, CallbackInfo ci) {
+        this.regionTicker.run();
     }
 }
@@ -35,6 +35,7 @@ public class CcaChunkTestMod implements ModInitializer, ChunkComponentInitialize
         registry.register(TickingTestComponent.KEY, chunk -> new TickingTestComponent());
         registry.register(Vita.KEY, ChunkVita::new);
         registry.register(LoadAwareTestComponent.KEY, chunk -> new LoadAwareTestComponent());
+        registry.register(RegionTickingTestComponent.KEY, chunk -> new RegionTickingTestComponent());
     }
 
     @Override
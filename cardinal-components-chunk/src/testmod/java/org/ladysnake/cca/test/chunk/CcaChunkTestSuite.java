@@ -24,6 +24,7 @@ package org.ladysnake.cca.test.chunk;
 
 import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.server.world.ThreadedAnvilChunkStorage;
 import net.minecraft.test.GameTest;
 import net.minecraft.test.TestContext;
 import net.minecraft.util.math.BlockPos;
@@ -31,11 +32,22 @@ import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.ChunkSerializer;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.WorldChunk;
+import org.ladysnake.cca.internal.base.AbstractComponentContainer;
+import org.ladysnake.cca.internal.chunk.SidecarChunkStorage;
 import org.ladysnake.cca.test.base.LoadAwareTestComponent;
 import org.ladysnake.cca.test.base.TickingTestComponent;
 import org.ladysnake.cca.test.base.Vita;
 import org.ladysnake.elmendorf.GameTestUtil;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
 public class CcaChunkTestSuite implements FabricGameTest {
     @GameTest(templateName = EMPTY_STRUCTURE)
     public void chunksSerialize(TestContext ctx) {
@@ -59,6 +71,17 @@ public class CcaChunkTestSuite implements FabricGameTest {
         });
     }
 
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void chunksRegionTick(TestContext ctx) {
+        ctx.spawnServerPlayer(0, 0, 0);    // Ensure chunk gets ticked
+        int baseTicks = ctx.getWorld().getChunk(ctx.getAbsolutePos(BlockPos.ORIGIN)).getComponent(RegionTickingTestComponent.KEY).regionTicks();
+        ctx.waitAndRun(5, () -> {
+            int ticks = ctx.getWorld().getChunk(ctx.getAbsolutePos(BlockPos.ORIGIN)).getComponent(RegionTickingTestComponent.KEY).regionTicks();
+            GameTestUtil.assertTrue("Component should region-tick 5 times", ticks - baseTicks == 5);
+            ctx.complete();
+        });
+    }
+
     @GameTest(templateName = EMPTY_STRUCTURE)
     public void chunksLoadUnload(TestContext ctx) {
         ctx.spawnServerPlayer(0, 0, 0);    // Ensure chunk gets ticked
@@ -68,4 +91,126 @@ public class CcaChunkTestSuite implements FabricGameTest {
         );
         ctx.complete();
     }
+
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void sidecarStorageRoundTrip(TestContext ctx) throws IOException {
+        Path directory = Files.createTempDirectory("cca-chunks");
+        ChunkPos pos = new ChunkPos(ctx.getAbsolutePos(BlockPos.ORIGIN));
+        NbtCompound data = new NbtCompound();
+        data.put(AbstractComponentContainer.NBT_KEY, new NbtCompound());
+        data.getCompound(AbstractComponentContainer.NBT_KEY).putInt("vitality", 42);
+
+        try {
+            SidecarChunkStorage storage = new SidecarChunkStorage(ctx.getWorld(), directory);
+            try {
+                storage.prefetch(pos);     // a load attempt that gets abandoned before deserialization
+                storage.write(pos, data);
+                GameTestUtil.assertTrue("Reads should not return data prefetched before a save", storage.read(pos).equals(Optional.of(data)));
+                GameTestUtil.assertTrue("Prefetched reads should not count as misses", storage.getPrefetchMisses() == 0);
+                GameTestUtil.assertTrue("Reads without a prefetch should still succeed", storage.read(pos).equals(Optional.of(data)));
+                GameTestUtil.assertTrue("Reads without a prefetch should count as misses", storage.getPrefetchMisses() == 1);
+            } finally {
+                storage.close();
+            }
+
+            SidecarChunkStorage reopened = new SidecarChunkStorage(ctx.getWorld(), directory);
+            try {
+                reopened.prefetch(pos);
+                GameTestUtil.assertTrue("Saved data should be read back from disk", reopened.read(pos).equals(Optional.of(data)));
+            } finally {
+                reopened.close();
+            }
+        } finally {
+            deleteRecursively(directory);
+        }
+        ctx.complete();
+    }
+
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void sidecarStorageMigratesInlineData(TestContext ctx) throws IOException {
+        Path directory = Files.createTempDirectory("cca-chunks");
+        SidecarChunkStorage storage = new SidecarChunkStorage(ctx.getWorld(), directory);
+        ThreadedAnvilChunkStorage vanillaStorage = ctx.getWorld().getChunkManager().threadedAnvilChunkStorage;
+        ChunkPos pos = new ChunkPos(100_000, 100_000);    // far away from any loaded chunk
+        NbtCompound components = new NbtCompound();
+        components.putInt("vitality", 42);
+        NbtCompound tag = new NbtCompound();
+        tag.putString("Status", "minecraft:full");
+        tag.put(AbstractComponentContainer.NBT_KEY, components.copy());
+        vanillaStorage.setNbt(pos, tag);
+
+        CompletableFuture<Integer> migration = storage.migrateRegion(pos.getRegionX(), pos.getRegionZ());
+        ctx.createTimedTaskRunner()
+            .thenWaitUntil(() -> GameTestUtil.assertTrue("Migration should complete", migration.isDone()))
+            .thenExecute(() -> {
+                try {
+                    GameTestUtil.assertTrue("One chunk should have been migrated", migration.join() == 1);
+                    NbtCompound vanillaData = vanillaStorage.getNbt(pos).join().orElseThrow();
+                    GameTestUtil.assertTrue("Migrated data should be removed from vanilla chunk data", !vanillaData.contains(AbstractComponentContainer.NBT_KEY) && vanillaData.contains("Status"));
+                    // a separate storage only sees what the migration synced to disk before rewriting vanilla data
+                    SidecarChunkStorage reopened = new SidecarChunkStorage(ctx.getWorld(), directory);
+                    try {
+                        reopened.prefetch(pos);
+                        NbtCompound sidecarData = reopened.read(pos).orElseThrow();
+                        GameTestUtil.assertTrue("Migrated data should be on disk in the sidecar storage", sidecarData.getCompound(AbstractComponentContainer.NBT_KEY).equals(components));
+                    } finally {
+                        reopened.close();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    vanillaStorage.setNbt(pos, null);   // deletes the fake chunk
+                    try {
+                        storage.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    deleteRecursively(directory);
+                }
+            })
+            .thenSucceed();
+    }
+
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void sidecarMigrationKeepsVanillaDataIfComponentsFailToSave(TestContext ctx) throws IOException {
+        Path notADirectory = Files.createTempFile("cca-chunks", null);    // every sidecar write fails
+        SidecarChunkStorage storage = new SidecarChunkStorage(ctx.getWorld(), notADirectory);
+        ThreadedAnvilChunkStorage vanillaStorage = ctx.getWorld().getChunkManager().threadedAnvilChunkStorage;
+        ChunkPos pos = new ChunkPos(100_064, 100_000);    // far away from any loaded chunk, in another region than other tests
+        NbtCompound tag = new NbtCompound();
+        tag.putString("Status", "minecraft:full");
+        tag.put(AbstractComponentContainer.NBT_KEY, new NbtCompound());
+        tag.getCompound(AbstractComponentContainer.NBT_KEY).putInt("vitality", 42);
+        vanillaStorage.setNbt(pos, tag);
+
+        CompletableFuture<Integer> migration = storage.migrateRegion(pos.getRegionX(), pos.getRegionZ());
+        ctx.createTimedTaskRunner()
+            .thenWaitUntil(() -> GameTestUtil.assertTrue("Migration should complete", migration.isDone()))
+            .thenExecute(() -> {
+                try {
+                    GameTestUtil.assertTrue("Migration should fail when component data cannot be saved", migration.isCompletedExceptionally());
+                    NbtCompound vanillaData = vanillaStorage.getNbt(pos).join().orElseThrow();
+                    GameTestUtil.assertTrue("Vanilla chunk data should keep component data that could not be saved elsewhere", vanillaData.getCompound(AbstractComponentContainer.NBT_KEY).getInt("vitality") == 42);
+                } finally {
+                    vanillaStorage.setNbt(pos, null);   // deletes the fake chunk
+                    try {
+                        storage.close();
+                        Files.delete(notADirectory);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            })
+            .thenSucceed();
+    }
+
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
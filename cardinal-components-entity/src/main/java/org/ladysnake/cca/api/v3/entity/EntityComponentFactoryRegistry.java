@@ -128,6 +128,34 @@ public interface EntityComponentFactoryRegistry {
          */
         <I extends C> Registration<I, E> impl(Class<I> impl);
 
+        /**
+         * Defer the creation of components until they are first accessed.
+         *
+         * <p>Lazy components that have not been accessed yet are skipped when serializing, synchronizing,
+         * or ticking their provider. This saves both allocations and memory for components that are rarely used,
+         * at the cost of a null check on every access. Consequently, the factory must produce components whose
+         * initial state does not need to be saved nor synchronized.
+         *
+         * @since 6.1.0
+         */
+        @ApiStatus.Experimental
+        Registration<C, E> lazy();
+
+        /**
+         * Only call {@link org.ladysnake.cca.api.v3.component.tick.ServerTickingComponent#serverTick() serverTick}
+         * on the registered components once every {@code interval} ticks.
+         *
+         * <p>Unlike a manual check in the component's tick method, this skips the call altogether, and spreads
+         * providers over every tick of the interval based on their identity hash, so that they do not all tick at once.
+         * This has no effect if the component does not implement {@code ServerTickingComponent}.
+         *
+         * @param interval the number of ticks between two calls, must be strictly positive
+         * @throws IllegalArgumentException if {@code interval} is less than 1
+         * @since 6.1.0
+         */
+        @ApiStatus.Experimental
+        Registration<C, E> tickEvery(int interval);
+
         /**
          * Set the respawn copy strategy used for components of a given type.
          *
@@ -26,6 +26,8 @@ import com.mojang.datafixers.util.Unit;
 import net.fabricmc.fabric.api.entity.event.v1.ServerLivingEntityEvents;
 import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.networking.v1.EntityTrackingEvents;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.fabricmc.loader.api.FabricLoader;
@@ -42,6 +44,7 @@ import org.ladysnake.cca.api.v3.component.Component;
 import org.ladysnake.cca.api.v3.component.ComponentKey;
 import org.ladysnake.cca.api.v3.component.ComponentProvider;
 import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
+import org.ladysnake.cca.api.v3.component.sync.DeltaSyncedComponent;
 import org.ladysnake.cca.api.v3.entity.C2SSelfMessagingComponent;
 import org.ladysnake.cca.api.v3.entity.PlayerSyncCallback;
 import org.ladysnake.cca.api.v3.entity.RespawnCopyStrategy;
@@ -79,6 +82,7 @@ public final class CardinalComponentsEntity {
             PayloadTypeRegistry.playC2S().register(C2S_SELF_PACKET_ID, ComponentUpdatePayload.codec(C2S_SELF_PACKET_ID, MorePacketCodecs.EMPTY));
             PlayerSyncCallback.EVENT.register(player -> syncEntityComponents(player, player));
             TrackingStartCallback.EVENT.register(CardinalComponentsEntity::syncEntityComponents);
+            EntityTrackingEvents.STOP_TRACKING.register(CardinalComponentsEntity::forgetDeltaSyncs);
             ServerPlayNetworking.registerGlobalReceiver(CardinalComponentsEntity.C2S_SELF_PACKET_ID, (payload, ctx) -> {
                 try {
                     Optional<ComponentKey<?>> componentKey = payload.componentKey();
@@ -100,6 +104,9 @@ public final class CardinalComponentsEntity {
         if (FabricLoader.getInstance().isModLoaded("fabric-lifecycle-events-v1")) {
             ServerEntityEvents.ENTITY_LOAD.register((entity, world) -> ((ComponentProvider) entity).getComponentContainer().onServerLoad());
             ServerEntityEvents.ENTITY_UNLOAD.register((entity, world) -> ((ComponentProvider) entity).getComponentContainer().onServerUnload());
+            if (ComponentsInternals.warmUpContainers()) {
+                ServerLifecycleEvents.SERVER_STARTING.register(server -> CardinalEntityInternals.warmUpContainerFactories());
+            }
         }
         ServerLivingEntityEvents.MOB_CONVERSION.register(RespawnCopyStrategy.EVENT_PHASE, CardinalComponentsEntity::copyData);
         ServerPlayerEvents.COPY_FROM.register(RespawnCopyStrategy.EVENT_PHASE, CardinalComponentsEntity::copyData);
@@ -134,8 +141,18 @@ public final class CardinalComponentsEntity {
     private static void syncEntityComponents(ServerPlayerEntity player, Entity tracked) {
         ComponentProvider provider = (ComponentProvider) tracked;
 
-        for (ComponentKey<?> key : provider.getComponentContainer().keys()) {
-            key.syncWith(player, provider);
-        }
+        provider.getComponentContainer().forEachComponent((key, component) -> {
+            if (component instanceof AutoSyncedComponent) {
+                key.syncWith(player, provider);
+            }
+        });
+    }
+
+    private static void forgetDeltaSyncs(Entity tracked, ServerPlayerEntity player) {
+        ((ComponentProvider) tracked).getComponentContainer().forEachComponent((key, component) -> {
+            if (component instanceof DeltaSyncedComponent delta) {
+                delta.getSyncJournal().forget(player);
+            }
+        });
     }
 }
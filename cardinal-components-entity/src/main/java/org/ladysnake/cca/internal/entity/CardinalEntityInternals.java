@@ -33,10 +33,14 @@ import org.ladysnake.cca.api.v3.component.CopyableComponent;
 import org.ladysnake.cca.api.v3.entity.RespawnCopyStrategy;
 import org.ladysnake.cca.api.v3.entity.RespawnableComponent;
 import org.ladysnake.cca.internal.base.ComponentsInternals;
+import org.ladysnake.cca.internal.base.ContainerWarmup;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 public final class CardinalEntityInternals {
 
@@ -44,9 +48,16 @@ public final class CardinalEntityInternals {
 
     private CardinalEntityInternals() { throw new AssertionError(); }
 
-    private static final Map<Class<? extends Entity>, ComponentContainer.Factory<Entity>> entityContainerFactories = new HashMap<>();
+    /**
+     * Lock-free view of the container factories, safely published by {@link ClassValue} once computed
+     */
+    private static final ClassValue<ComponentContainer.Factory<Entity>> entityContainerFactories = new ClassValue<>() {
+        @Override
+        protected ComponentContainer.Factory<Entity> computeValue(Class<?> type) {
+            return createEntityFactory(type.asSubclass(Entity.class));
+        }
+    };
     private static final Map<ComponentKey<?>, Map<Class<? extends Entity>, RespawnCopyStrategy<?>>> respawnCopyStrategies = new HashMap<>();
-    private static final Object factoryMutex = new Object();
 
     /**
      * Gets a container factory for an entity class, or creates one if none exists.
@@ -54,32 +65,46 @@ public final class CardinalEntityInternals {
      * and every superclass, in order from least specific (Entity) to most specific ({@code clazz}).
      */
     public static ComponentContainer createEntityComponentContainer(Entity entity) {
-        Class<? extends Entity> entityClass = entity.getClass();
+        return getEntityFactory(entity.getClass()).createContainer(entity);
+    }
 
-        return Objects.requireNonNullElseGet(
-            entityContainerFactories.get(entityClass),  // Non-synchronized fast path
-            () -> getEntityFactory(entityClass)
-        ).createContainer(entity);
+    /**
+     * Gets the container factory for an entity class.
+     *
+     * <p>This method can be called from any thread, see issue #26. Once a factory has been created, lookups never block.
+     */
+    public static ComponentContainer.Factory<Entity> getEntityFactory(Class<? extends Entity> entityClass) {
+        return entityContainerFactories.get(entityClass);
     }
 
-    // can be called from both client and server thread, see issue #26
-    private static synchronized ComponentContainer.Factory<Entity> getEntityFactory(Class<? extends Entity> entityClass) {
-        // need to check again despite synchronization, because
-        // 1- recursive calls
-        // 2- the factory may have been generated while waiting from createComponents
-        ComponentContainer.Factory<Entity> existing = entityContainerFactories.get(entityClass);
-        if (existing != null) return existing;
+    /**
+     * Generates the container factories for every entity class with registered components on the main worker pool.
+     *
+     * <p>No entity gets instantiated. Subclasses without registrations of their own reuse their superclass' factory,
+     * and classes only matched by predicated registrations still get their factory generated on first use.
+     *
+     * @return a future completed with the number of entity classes that got warmed up
+     */
+    public static CompletableFuture<Integer> warmUpContainerFactories() {
+        List<Supplier<@Nullable Class<?>>> tasks = new ArrayList<>();
+        for (Class<? extends Entity> entityClass : StaticEntityComponentPlugin.INSTANCE.getTargetClasses()) {
+            tasks.add(() -> {
+                getEntityFactory(entityClass);
+                return entityClass;
+            });
+        }
+        return ContainerWarmup.run("entity", tasks);
+    }
 
-        ComponentContainer.Factory<Entity> factory;
+    private static ComponentContainer.Factory<Entity> createEntityFactory(Class<? extends Entity> entityClass) {
+        // ClassValue may compute the same value on several threads concurrently, in which case only one result is kept.
+        // Generated containers are hidden classes, so the losing copies can simply be discarded
         if (StaticEntityComponentPlugin.INSTANCE.requiresStaticFactory(entityClass)) {
-            factory = StaticEntityComponentPlugin.INSTANCE.buildDedicatedFactory(entityClass);
-        } else {
-            @SuppressWarnings("unchecked") var superclass = (Class<? extends Entity>) entityClass.getSuperclass();
-            assert Entity.class.isAssignableFrom(superclass) : "requiresStaticFactory returned false on Entity?";
-            factory = /* recursive call */ getEntityFactory(superclass);
+            return StaticEntityComponentPlugin.INSTANCE.buildDedicatedFactory(entityClass);
         }
-        entityContainerFactories.put(entityClass, factory);
-        return factory;
+        @SuppressWarnings("unchecked") var superclass = (Class<? extends Entity>) entityClass.getSuperclass();
+        assert Entity.class.isAssignableFrom(superclass) : "requiresStaticFactory returned false on Entity?";
+        return /* recursive call */ getEntityFactory(superclass);
     }
 
     public static <C extends Component> void registerRespawnCopyStrat(ComponentKey<? super C> type, Class<? extends Entity> entityClass, RespawnCopyStrategy<? super C> strategy) {
@@ -40,6 +40,7 @@ import org.ladysnake.cca.internal.base.asm.StaticComponentPluginBase;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -61,18 +62,38 @@ public final class StaticEntityComponentPlugin extends LazyDispatcher implements
 
     private final List<PredicatedComponentFactory<?>> dynamicFactories = new ArrayList<>();
     private final Map<Class<? extends Entity>, Map<ComponentKey<?>, QualifiedComponentFactory<ComponentFactory<? extends Entity, ?>>>> componentFactories = new HashMap<>();
+    private final Set<Class<? extends Entity>> testedClasses = new HashSet<>();
 
-    public boolean requiresStaticFactory(Class<? extends Entity> entityClass) {
+    public synchronized boolean requiresStaticFactory(Class<? extends Entity> entityClass) {
         this.ensureInitialized();
 
-        for (PredicatedComponentFactory<?> dynamicFactory : this.dynamicFactories) {
-            dynamicFactory.tryRegister(entityClass);
+        // the same class may be queried concurrently from several threads, only register dynamic factories once
+        if (this.testedClasses.add(entityClass)) {
+            for (PredicatedComponentFactory<?> dynamicFactory : this.dynamicFactories) {
+                dynamicFactory.tryRegister(entityClass);
+            }
         }
 
         return entityClass == Entity.class || this.componentFactories.containsKey(entityClass);
     }
 
+    /**
+     * {@return a snapshot of the entity classes that components have been registered for so far}
+     *
+     * <p>Classes only matched by {@linkplain #registerFor(Predicate, ComponentKey, ComponentFactory) predicated registrations}
+     * are not included until a factory has been requested for them.
+     */
+    public synchronized Set<Class<? extends Entity>> getTargetClasses() {
+        this.ensureInitialized();
+        return Set.copyOf(this.componentFactories.keySet());
+    }
+
     public ComponentContainer.Factory<Entity> buildDedicatedFactory(Class<? extends Entity> entityClass) {
+        // Class generation happens outside the lock, so that factories for different classes can be built in parallel
+        return this.prepareDedicatedFactory(entityClass).buildShared();
+    }
+
+    private synchronized ComponentContainer.Factory.Builder<Entity> prepareDedicatedFactory(Class<? extends Entity> entityClass) {
         this.ensureInitialized();
 
         var compiled = new LinkedHashMap<>(this.componentFactories.getOrDefault(entityClass, Collections.emptyMap()));
@@ -90,14 +111,21 @@ public final class StaticEntityComponentPlugin extends LazyDispatcher implements
             addToBuilder(builder, entry);
         }
 
-        return builder.build();
+        return builder;
     }
 
     private <C extends Component> void addToBuilder(ComponentContainer.Factory.Builder<Entity> builder, Map.Entry<ComponentKey<?>, QualifiedComponentFactory<ComponentFactory<? extends Entity, ?>>> entry) {
         @SuppressWarnings("unchecked") var key = (ComponentKey<C>) entry.getKey();
         @SuppressWarnings("unchecked") var factory = (ComponentFactory<Entity, C>) entry.getValue().factory();
         @SuppressWarnings("unchecked") var impl = (Class<C>) entry.getValue().impl();
-        builder.component(key, impl, factory, entry.getValue().dependencies());
+        if (entry.getValue().lazy()) {
+            builder.lazyComponent(key, impl, factory, entry.getValue().dependencies());
+        } else {
+            builder.component(key, impl, factory, entry.getValue().dependencies());
+        }
+        if (entry.getValue().tickInterval() > 1) {
+            builder.tickInterval(key, entry.getValue().tickInterval());
+        }
     }
 
     @Override
@@ -171,6 +199,8 @@ public final class StaticEntityComponentPlugin extends LazyDispatcher implements
         private final ComponentKey<? super C> key;
         private final Set<ComponentKey<?>> dependencies;
         private Class<C> componentClass;
+        private boolean lazy;
+        private int tickInterval = 1;
         private Predicate<Class<? extends E>> test;
 
         RegistrationImpl(Class<E> target, ComponentKey<C> key) {
@@ -200,6 +230,21 @@ public final class StaticEntityComponentPlugin extends LazyDispatcher implements
             return ret;
         }
 
+        @Override
+        public Registration<C, E> lazy() {
+            this.lazy = true;
+            return this;
+        }
+
+        @Override
+        public Registration<C, E> tickEvery(int interval) {
+            if (interval < 1) {
+                throw new IllegalArgumentException("Tick interval must be positive, got " + interval);
+            }
+            this.tickInterval = interval;
+            return this;
+        }
+
         @Override
         public Registration<C, E> respawnStrategy(RespawnCopyStrategy<? super C> strategy) {
             CardinalEntityInternals.registerRespawnCopyStrat(this.key, this.target, strategy);
@@ -213,7 +258,7 @@ public final class StaticEntityComponentPlugin extends LazyDispatcher implements
                 StaticEntityComponentPlugin.this.register0(
                     this.target,
                     this.key,
-                    new QualifiedComponentFactory<>(factory, this.componentClass, this.dependencies)
+                    new QualifiedComponentFactory<>(factory, this.componentClass, this.dependencies, this.lazy, this.tickInterval)
                 );
             } else {
                 StaticEntityComponentPlugin.this.dynamicFactories.add(new PredicatedComponentFactory<>(
@@ -222,7 +267,9 @@ public final class StaticEntityComponentPlugin extends LazyDispatcher implements
                     new QualifiedComponentFactory<>(
                         entity -> factory.createComponent(this.target.cast(entity)),
                         this.componentClass,
-                        this.dependencies
+                        this.dependencies,
+                        this.lazy,
+                        this.tickInterval
                     )
                 ));
             }
@@ -22,6 +22,8 @@
  */
 package org.ladysnake.cca.mixin.entity.common;
 
+import com.llamalad7.mixinextras.sugar.Share;
+import com.llamalad7.mixinextras.sugar.ref.LocalRef;
 import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
 import net.minecraft.entity.Entity;
 import net.minecraft.nbt.NbtCompound;
@@ -34,6 +36,7 @@ import org.ladysnake.cca.api.v3.component.ComponentKey;
 import org.ladysnake.cca.api.v3.component.ComponentProvider;
 import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
 import org.ladysnake.cca.internal.base.ComponentUpdatePayload;
+import org.ladysnake.cca.internal.base.DeferredComponentSaves;
 import org.ladysnake.cca.internal.entity.CardinalComponentsEntity;
 import org.ladysnake.cca.internal.entity.CardinalEntityInternals;
 import org.spongepowered.asm.mixin.Mixin;
@@ -66,9 +69,22 @@ public abstract class MixinEntity implements ComponentProvider {
         this.components = CardinalEntityInternals.createEntityComponentContainer((Entity) (Object) this);
     }
 
+    @Inject(method = "writeNbt", at = @At("HEAD"))
+    private void startToTag(NbtCompound inputTag, CallbackInfoReturnable<NbtCompound> cir, @Share("componentSaves") LocalRef<DeferredComponentSaves> componentSaves) {
+        // snapshot components get encoded in the background while vanilla serializes the entity
+        if (DeferredComponentSaves.isNeeded(this.components)) {
+            componentSaves.set(DeferredComponentSaves.start(this.components, getRegistryManager()));
+        }
+    }
+
     @Inject(method = "writeNbt", at = @At("RETURN"))
-    private void toTag(NbtCompound inputTag, CallbackInfoReturnable<NbtCompound> cir) {
-        this.components.toTag(cir.getReturnValue(), getRegistryManager());
+    private void toTag(NbtCompound inputTag, CallbackInfoReturnable<NbtCompound> cir, @Share("componentSaves") LocalRef<DeferredComponentSaves> componentSaves) {
+        DeferredComponentSaves saves = componentSaves.get();
+        if (saves != null) {
+            saves.finish(cir.getReturnValue());
+        } else {
+            this.components.toTag(cir.getReturnValue(), getRegistryManager());
+        }
     }
 
     @Inject(method = "readNbt", at = @At(value = "INVOKE", target = "Lnet/minecraft/entity/Entity;readCustomDataFromNbt(Lnet/minecraft/nbt/NbtCompound;)V", shift = At.Shift.AFTER))
@@ -26,23 +26,55 @@ import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
 import net.minecraft.entity.Bucketable;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityType;
+import net.minecraft.entity.ExperienceOrbEntity;
+import net.minecraft.entity.ItemEntity;
+import net.minecraft.entity.decoration.ArmorStandEntity;
+import net.minecraft.entity.mob.DrownedEntity;
+import net.minecraft.entity.mob.HuskEntity;
+import net.minecraft.entity.mob.PiglinBruteEntity;
+import net.minecraft.entity.mob.PiglinEntity;
 import net.minecraft.entity.mob.ShulkerEntity;
+import net.minecraft.entity.mob.SkeletonEntity;
+import net.minecraft.entity.mob.StrayEntity;
+import net.minecraft.entity.mob.WitherSkeletonEntity;
+import net.minecraft.entity.mob.ZombieEntity;
+import net.minecraft.entity.mob.ZombieVillagerEntity;
+import net.minecraft.entity.passive.ArmadilloEntity;
 import net.minecraft.entity.passive.CamelEntity;
 import net.minecraft.entity.passive.CatEntity;
 import net.minecraft.entity.passive.CowEntity;
+import net.minecraft.entity.passive.FoxEntity;
+import net.minecraft.entity.passive.FrogEntity;
+import net.minecraft.entity.passive.GoatEntity;
+import net.minecraft.entity.passive.SnifferEntity;
+import net.minecraft.entity.vehicle.BoatEntity;
+import net.minecraft.entity.vehicle.MinecartEntity;
 import net.minecraft.item.EntityBucketItem;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.test.GameTest;
+import net.minecraft.test.GameTestException;
 import net.minecraft.test.TestContext;
 import net.minecraft.util.Hand;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
+import org.ladysnake.cca.internal.entity.CardinalEntityInternals;
 import org.ladysnake.cca.test.base.LoadAwareTestComponent;
 import org.ladysnake.cca.test.base.Vita;
 import org.ladysnake.elmendorf.GameTestUtil;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 public class CcaEntityTestSuite implements FabricGameTest {
     @GameTest(templateName = EMPTY_STRUCTURE)
     public void bucketableWorks(TestContext ctx) {
@@ -95,4 +127,43 @@ public class CcaEntityTestSuite implements FabricGameTest {
         GameTestUtil.assertTrue("Component data should not transfer by default", Vita.get(cat).getVitality() < CcaEntityTestMod.NATURAL_VITA_CEILING);
         ctx.complete();
     }
+
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void concurrentFactoryLookupsAgree(TestContext ctx) {
+        List<Class<? extends Entity>> entityClasses = List.of(
+            TestEntity.class, ZombieEntity.class, HuskEntity.class, DrownedEntity.class, ZombieVillagerEntity.class,
+            SkeletonEntity.class, StrayEntity.class, WitherSkeletonEntity.class, PiglinEntity.class, PiglinBruteEntity.class,
+            FoxEntity.class, GoatEntity.class, FrogEntity.class, SnifferEntity.class, ArmadilloEntity.class,
+            ArmorStandEntity.class, ItemEntity.class, ExperienceOrbEntity.class, MinecartEntity.class, BoatEntity.class
+        );
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<ComponentContainer.Factory<Entity>>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    List<ComponentContainer.Factory<Entity>> factories = new ArrayList<>();
+                    for (Class<? extends Entity> entityClass : entityClasses) {
+                        factories.add(CardinalEntityInternals.getEntityFactory(entityClass));
+                    }
+                    return factories;
+                }));
+            }
+            start.countDown();
+            List<ComponentContainer.Factory<Entity>> expected = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<List<ComponentContainer.Factory<Entity>>> result : results) {
+                List<ComponentContainer.Factory<Entity>> factories = result.get(10, TimeUnit.SECONDS);
+                for (int i = 0; i < entityClasses.size(); i++) {
+                    GameTestUtil.assertTrue("All threads should get the same factory for " + entityClasses.get(i), factories.get(i) == expected.get(i));
+                }
+            }
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            throw new GameTestException("Concurrent factory lookups failed: " + e);
+        } finally {
+            executor.shutdownNow();
+        }
+        ctx.complete();
+    }
 }
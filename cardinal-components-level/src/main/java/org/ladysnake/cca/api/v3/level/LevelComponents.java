@@ -23,13 +23,14 @@
 package org.ladysnake.cca.api.v3.level;
 
 import net.minecraft.server.MinecraftServer;
-import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.world.WorldProperties;
+import org.jetbrains.annotations.ApiStatus;
 import org.ladysnake.cca.api.v3.component.Component;
 import org.ladysnake.cca.api.v3.component.ComponentKey;
 import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
 import org.ladysnake.cca.api.v3.component.sync.ComponentPacketWriter;
 import org.ladysnake.cca.api.v3.component.sync.PlayerSyncPredicate;
+import org.ladysnake.cca.internal.base.ComponentSyncScheduler;
 
 import java.util.NoSuchElementException;
 
@@ -47,8 +48,29 @@ public final class LevelComponents {
      */
     public static void sync(ComponentKey<?> key, MinecraftServer server) {
         WorldProperties props = server.getSaveProperties().getMainWorldProperties();
-        for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
-            key.syncWith(player, props.asComponentProvider());
+        Component c = key.get(props);
+        if (c instanceof AutoSyncedComponent sc) {
+            // not using the 2-args syncWith, as it is meant for initial syncs and would discard delta sync state
+            key.syncWith(server.getPlayerManager().getPlayerList(), props.asComponentProvider(), sc, sc);
+        }
+    }
+
+    /**
+     * Schedules a synchronization of the component attached to the main {@link WorldProperties} of the given {@link MinecraftServer}
+     * at the end of the current server tick.
+     *
+     * <p>This method has no visible effect if the component associated with the key
+     * does not implement an adequate synchronization interface.
+     *
+     * @throws NoSuchElementException if the provider does not provide this type of component
+     * @see ComponentKey#scheduleSync(Object)
+     * @since 6.1.0
+     */
+    @ApiStatus.Experimental
+    public static void scheduleSync(ComponentKey<?> key, MinecraftServer server) {
+        WorldProperties props = server.getSaveProperties().getMainWorldProperties();
+        if (key.get(props) instanceof AutoSyncedComponent) {
+            ComponentSyncScheduler.schedule(key, props.asComponentProvider(), () -> server.getPlayerManager().getPlayerList());
         }
     }
 
@@ -65,9 +87,7 @@ public final class LevelComponents {
         WorldProperties props = server.getSaveProperties().getMainWorldProperties();
         Component c = key.get(props);
         if (c instanceof AutoSyncedComponent sc) {
-            for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
-                key.syncWith(player, props.asComponentProvider(), packetWriter, sc);
-            }
+            key.syncWith(server.getPlayerManager().getPlayerList(), props.asComponentProvider(), packetWriter, sc);
         }
     }
 
@@ -83,8 +103,6 @@ public final class LevelComponents {
      */
     public static void sync(ComponentKey<?> key, MinecraftServer server, ComponentPacketWriter packetWriter, PlayerSyncPredicate predicate) {
         WorldProperties props = server.getSaveProperties().getMainWorldProperties();
-        for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
-            key.syncWith(player, props.asComponentProvider(), packetWriter, predicate);
-        }
+        key.syncWith(server.getPlayerManager().getPlayerList(), props.asComponentProvider(), packetWriter, predicate);
     }
 }
@@ -27,7 +27,6 @@ import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.network.packet.s2c.common.CustomPayloadS2CPacket;
 import net.minecraft.world.WorldProperties;
-import org.ladysnake.cca.api.v3.component.ComponentKey;
 import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
 import org.ladysnake.cca.api.v3.world.WorldSyncCallback;
 import org.ladysnake.cca.internal.base.ComponentUpdatePayload;
@@ -50,9 +49,11 @@ public final class CardinalComponentsLevel {
                 WorldSyncCallback.EVENT.register((player, world) -> {
                     WorldProperties props = world.getLevelProperties();
 
-                    for (ComponentKey<?> key : props.asComponentProvider().getComponentContainer().keys()) {
-                        key.syncWith(player, props.asComponentProvider());
-                    }
+                    props.asComponentProvider().getComponentContainer().forEachComponent((key, component) -> {
+                        if (component instanceof AutoSyncedComponent) {
+                            key.syncWith(player, props.asComponentProvider());
+                        }
+                    });
                 });
             }
         }
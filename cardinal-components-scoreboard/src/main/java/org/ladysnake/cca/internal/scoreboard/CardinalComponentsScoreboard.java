@@ -28,8 +28,8 @@ import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.network.packet.s2c.common.CustomPayloadS2CPacket;
+import net.minecraft.scoreboard.Scoreboard;
 import net.minecraft.scoreboard.Team;
-import org.ladysnake.cca.api.v3.component.ComponentKey;
 import org.ladysnake.cca.api.v3.component.ComponentProvider;
 import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
 import org.ladysnake.cca.api.v3.scoreboard.ScoreboardSyncCallback;
@@ -52,26 +52,36 @@ public final class CardinalComponentsScoreboard {
      * called on the game thread.
      */
     public static final CustomPayload.Id<ComponentUpdatePayload<String>> TEAM_PACKET_ID = CustomPayload.id("cardinal-components:team_sync");
+    /**
+     * Compact variant of {@link #TEAM_PACKET_ID}, identifying teams through {@linkplain TeamIndex per-connection numeric ids}.
+     */
+    public static final CustomPayload.Id<ComponentUpdatePayload<TeamIndex.Ref>> COMPACT_TEAM_PACKET_ID = CustomPayload.id("cardinal-components:team_sync_compact");
 
     public static void init() {
         if (FabricLoader.getInstance().isModLoaded("fabric-networking-api-v1")) {
             ComponentUpdatePayload.register(SCOREBOARD_PACKET_ID, MorePacketCodecs.EMPTY);
-            ComponentUpdatePayload.register(TEAM_PACKET_ID, PacketCodecs.STRING);
+            ComponentUpdatePayload.register(TEAM_PACKET_ID, PacketCodecs.STRING, COMPACT_TEAM_PACKET_ID, TeamIndex.CODEC, TeamIndex::toRef);
             ScoreboardSyncCallback.EVENT.register((player, tracked) -> {
-                for (ComponentKey<?> key : tracked.asComponentProvider().getComponentContainer().keys()) {
-                    key.syncWith(player, tracked.asComponentProvider());
-                }
+                tracked.asComponentProvider().getComponentContainer().forEachComponent((key, component) -> {
+                    if (component instanceof AutoSyncedComponent) {
+                        key.syncWith(player, tracked.asComponentProvider());
+                    }
+                });
 
                 for (Team team : tracked.getTeams()) {
-                    for (ComponentKey<?> key : team.asComponentProvider().getComponentContainer().keys()) {
-                        key.syncWith(player, team.asComponentProvider());
-                    }
+                    team.asComponentProvider().getComponentContainer().forEachComponent((key, component) -> {
+                        if (component instanceof AutoSyncedComponent) {
+                            key.syncWith(player, team.asComponentProvider());
+                        }
+                    });
                 }
             });
             TeamAddCallback.EVENT.register((tracked) -> {
-                for (ComponentKey<?> key : tracked.asComponentProvider().getComponentContainer().keys()) {
-                    tracked.syncComponent(key);
-                }
+                tracked.asComponentProvider().getComponentContainer().forEachComponent((key, component) -> {
+                    if (component instanceof AutoSyncedComponent) {
+                        tracked.syncComponent(key);
+                    }
+                });
             });
         }
         if (FabricLoader.getInstance().isModLoaded("fabric-lifecycle-events-v1")) {
@@ -80,4 +90,19 @@ public final class CardinalComponentsScoreboard {
         }
         StaticScoreboardComponentPlugin.INSTANCE.ensureInitialized();
     }
+
+    /**
+     * {@return {@code true} if a component attached to the scoreboard or to one of its teams needs to be saved}
+     */
+    public static boolean hasDirtyComponents(Scoreboard scoreboard) {
+        if (scoreboard.asComponentProvider().getComponentContainer().isDirty()) {
+            return true;
+        }
+        for (Team team : scoreboard.getTeams()) {
+            if (team.asComponentProvider().getComponentContainer().isDirty()) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -47,8 +47,10 @@ public final class CcaScoreboardClient {
         if (FabricLoader.getInstance().isModLoaded("fabric-networking-api-v1")) {
             CcaClientInternals.registerComponentSync(
                 CardinalComponentsScoreboard.TEAM_PACKET_ID,
-                (payload, ctx) -> payload.componentKey().flatMap(key -> key.maybeGet(Objects.requireNonNull(ctx.client().world).getScoreboard().getTeam(payload.targetData()))
-            ));
+                (payload, ctx) -> payload.componentKey().flatMap(key -> key.maybeGet(Objects.requireNonNull(ctx.client().world).getScoreboard().getTeam(payload.targetData()))),
+                CardinalComponentsScoreboard.COMPACT_TEAM_PACKET_ID,
+                (payload, ctx) -> payload.componentKey().flatMap(key -> key.maybeGet(Objects.requireNonNull(ctx.client().world).getScoreboard().getTeam(payload.targetData().name())))
+            );
             CcaClientInternals.registerComponentSync(
                 CardinalComponentsScoreboard.SCOREBOARD_PACKET_ID,
                 (payload, ctx) -> payload.componentKey().flatMap(
@@ -0,0 +1,92 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.scoreboard;
+
+import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.network.encoding.VarInts;
+import net.minecraft.server.network.ServerPlayNetworkHandler;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Per-connection numeric ids for team names, used by the compact team sync channel.
+ *
+ * <p>The first packet referencing a team on a given connection carries its name along with the id it gets assigned,
+ * later packets only carry the id. Ids are never reused within a connection, so the client never needs to forget them.
+ */
+public final class TeamIndex {
+    private static final Map<ServerPlayNetworkHandler, Object2IntMap<String>> SERVER_IDS = new WeakHashMap<>();
+    // only accessed while decoding packets from the current connection
+    private static final Int2ObjectMap<String> CLIENT_NAMES = new Int2ObjectOpenHashMap<>();
+
+    public static final PacketCodec<ByteBuf, Ref> CODEC = PacketCodec.ofStatic(
+        (buf, ref) -> {
+            VarInts.write(buf, ref.id() << 1 | (ref.introduced() ? 1 : 0));
+            if (ref.introduced()) {
+                PacketCodecs.STRING.encode(buf, ref.name());
+            }
+        },
+        buf -> {
+            int header = VarInts.read(buf);
+            int id = header >>> 1;
+            if ((header & 1) != 0) {
+                String name = PacketCodecs.STRING.decode(buf);
+                CLIENT_NAMES.put(id, name);
+                return new Ref(id, name, true);
+            }
+            return new Ref(id, CLIENT_NAMES.get(id), false);
+        }
+    );
+
+    public static synchronized Ref toRef(ServerPlayerEntity player, String teamName) {
+        Object2IntMap<String> ids = SERVER_IDS.computeIfAbsent(player.networkHandler, h -> {
+            Object2IntMap<String> map = new Object2IntOpenHashMap<>();
+            map.defaultReturnValue(-1);
+            return map;
+        });
+        int id = ids.getInt(teamName);
+
+        if (id >= 0) {
+            return new Ref(id, teamName, false);
+        }
+
+        id = ids.size();
+        ids.put(teamName, id);
+        return new Ref(id, teamName, true);
+    }
+
+    /**
+     * @param name        the team's name, or {@code null} if the client received an unknown id
+     * @param introduced  {@code true} if the name gets sent over the network alongside the id
+     */
+    public record Ref(int id, @Nullable String name, boolean introduced) { }
+}
@@ -22,8 +22,8 @@
  */
 package org.ladysnake.cca.mixin.scoreboard;
 
-import net.minecraft.scoreboard.ScoreboardState;
 import net.minecraft.world.PersistentState;
+import org.ladysnake.cca.internal.scoreboard.CardinalComponentsScoreboard;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -34,7 +34,7 @@ public abstract class MixinPersistentState {
     @Inject(method = "isDirty", at = @At("RETURN"), cancellable = true)
     private void forceDirty(CallbackInfoReturnable<Boolean> cir) {
         //noinspection ConstantConditions
-        if (!cir.getReturnValueZ() && (Object) this instanceof ScoreboardState) {
+        if (!cir.getReturnValueZ() && (Object) this instanceof ScoreboardStateAccessor state && CardinalComponentsScoreboard.hasDirtyComponents(state.getScoreboard())) {
             cir.setReturnValue(true);
         }
     }
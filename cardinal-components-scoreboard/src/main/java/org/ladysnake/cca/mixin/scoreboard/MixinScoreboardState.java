@@ -29,6 +29,7 @@ import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.scoreboard.Scoreboard;
 import net.minecraft.scoreboard.ScoreboardState;
 import net.minecraft.scoreboard.Team;
+import org.ladysnake.cca.api.v3.component.ComponentContainer;
 import org.ladysnake.cca.api.v3.component.ComponentProvider;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
@@ -46,7 +47,9 @@ public abstract class MixinScoreboardState {
 
     @Inject(method = "writeNbt", at = @At("RETURN"))
     private void saveComponents(NbtCompound tag, RegistryWrapper.WrapperLookup registries, CallbackInfoReturnable<NbtCompound> cir) {
-        ((ComponentProvider) this.scoreboard).getComponentContainer().toTag(tag, registries);
+        ComponentContainer components = ((ComponentProvider) this.scoreboard).getComponentContainer();
+        components.toTag(tag, registries);
+        components.markSaved();
     }
 
     @Inject(method = "readNbt", at = @At("RETURN"))
@@ -79,6 +82,8 @@ public abstract class MixinScoreboardState {
         @Local Team team,
         @Local NbtCompound teamData
     ) {
-        ((ComponentProvider) team).getComponentContainer().toTag(teamData, registries);
+        ComponentContainer components = ((ComponentProvider) team).getComponentContainer();
+        components.toTag(teamData, registries);
+        components.markSaved();
     }
 }
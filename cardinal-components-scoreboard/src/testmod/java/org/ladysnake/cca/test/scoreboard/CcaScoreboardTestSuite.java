@@ -23,6 +23,7 @@
 package org.ladysnake.cca.test.scoreboard;
 
 import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.scoreboard.ScoreboardState;
 import net.minecraft.test.GameTest;
 import net.minecraft.test.TestContext;
 import org.ladysnake.cca.test.base.LoadAwareTestComponent;
@@ -37,4 +38,12 @@ public class CcaScoreboardTestSuite implements FabricGameTest {
         );
         ctx.complete();
     }
+
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void componentsKeepScoreboardStateDirty(TestContext ctx) {
+        // the test components do not track their dirtiness, so the scoreboard must always be saved
+        ScoreboardState state = new ScoreboardState(ctx.getWorld().getScoreboard());
+        GameTestUtil.assertTrue("Scoreboard state should be saved while its components may have changed", state.isDirty());
+        ctx.complete();
+    }
 }
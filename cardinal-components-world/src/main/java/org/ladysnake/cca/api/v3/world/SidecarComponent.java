@@ -0,0 +1,99 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.api.v3.world;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.RegistryWrapper;
+import org.jetbrains.annotations.ApiStatus;
+import org.ladysnake.cca.api.v3.component.DirtyTrackingComponent;
+
+/**
+ * A world component which data is stored in its own {@linkplain SidecarFile paged file}, instead of
+ * the NBT file shared by all world components.
+ *
+ * <p>Sidecar storage is meant for components holding large amounts of data, which would make rewriting and
+ * reloading the whole NBT file prohibitively expensive. The file is mapped in memory on the first page read,
+ * and world saves only write the pages that got {@linkplain SidecarFile#writePage(int, java.nio.ByteBuffer) written} to since
+ * the previous save. Implementations typically decode pages on demand, and keep track of the pages they need to write back.
+ *
+ * <p>Files are stored under {@code <dimension folder>/data/cardinal_components/<key namespace>/<key path>.ccas}.
+ *
+ * <p>Sidecar components do not store anything in NBT by default. Implementations that previously
+ * used NBT storage can override {@link #readFromNbt(NbtCompound, RegistryWrapper.WrapperLookup)} to migrate their old data.
+ *
+ * @since 6.1.0
+ */
+@ApiStatus.Experimental
+public interface SidecarComponent extends DirtyTrackingComponent {
+    int DEFAULT_PAGE_SIZE = 64 * 1024;
+
+    /**
+     * {@return the page size to use when creating this component's file}
+     *
+     * <p>Changing this value does not affect existing files.
+     */
+    default int getPageSize() {
+        return DEFAULT_PAGE_SIZE;
+    }
+
+    /**
+     * Called once when the world loads, with the file backing this component.
+     *
+     * <p>The file stays open until the world gets closed. Pages can be read at any point in that timeframe.
+     *
+     * @param file this component's storage, which may be empty if the component has never been saved
+     */
+    void loadSidecar(SidecarFile file);
+
+    /**
+     * Called whenever the world gets saved, right before pending page writes are flushed to disk.
+     *
+     * @param file this component's storage, as previously passed to {@link #loadSidecar(SidecarFile)}
+     */
+    void saveSidecar(SidecarFile file);
+
+    @Override
+    default void readFromNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
+        // NO-OP
+    }
+
+    @Override
+    default void writeToNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
+        // NO-OP
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec The default implementation always returns {@code false}, as sidecar components have no NBT data to save.
+     */
+    @Override
+    default boolean isDirty() {
+        return false;
+    }
+
+    @Override
+    default void setDirty(boolean dirty) {
+        // NO-OP
+    }
+}
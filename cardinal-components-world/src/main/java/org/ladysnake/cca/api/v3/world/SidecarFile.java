@@ -0,0 +1,83 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.api.v3.world;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A file made of fixed-size pages, in which a {@link SidecarComponent} stores its data.
+ *
+ * <p>Pages are read through a memory mapping of the file, which only gets established on the first read.
+ * Written pages are kept in memory until the next world save, at which point only those pages get written to disk.
+ * Saves go through a journal, so that a crash in the middle of one does not leave the file half-written.
+ *
+ * <p>Sidecar files must only be accessed from the server thread.
+ *
+ * @since 6.1.0
+ */
+@ApiStatus.Experimental
+@ApiStatus.NonExtendable
+public interface SidecarFile {
+    /**
+     * {@return the size of every page in this file, in bytes}
+     *
+     * <p>This is the size returned by {@link SidecarComponent#getPageSize()} when the file was created.
+     */
+    int pageSize();
+
+    /**
+     * {@return the number of pages in this file, including pages that have been written but not saved yet}
+     */
+    int pageCount();
+
+    /**
+     * Reads a page of this file.
+     *
+     * <p>The returned buffer must not be used after the page gets {@linkplain #writePage(int, ByteBuffer) written},
+     * nor after the next world save.
+     *
+     * @param index the index of the page to read, between {@code 0} and {@link #pageCount()} (excluded)
+     * @return a read-only buffer of exactly {@link #pageSize()} bytes
+     * @throws IOException if the file could not be mapped
+     */
+    ByteBuffer readPage(int index) throws IOException;
+
+    /**
+     * Replaces the content of a page. Writing past the last page extends the file, filling the gap with blank pages.
+     *
+     * @param index the index of the page to write
+     * @param data  the bytes between {@code data}'s position and limit, at most {@link #pageSize()} of them;
+     *              the rest of the page gets zero-filled
+     */
+    void writePage(int index, ByteBuffer data);
+
+    /**
+     * Discards every page after the first {@code pageCount} ones.
+     *
+     * @param pageCount the new page count of this file, at most equal to the current one
+     */
+    void truncate(int pageCount);
+}
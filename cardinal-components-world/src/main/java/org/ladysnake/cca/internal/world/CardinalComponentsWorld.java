@@ -30,8 +30,8 @@ import net.minecraft.registry.RegistryKey;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.Nullable;
 import org.ladysnake.cca.api.v3.component.ComponentContainer;
-import org.ladysnake.cca.api.v3.component.ComponentKey;
 import org.ladysnake.cca.api.v3.component.ComponentProvider;
+import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
 import org.ladysnake.cca.api.v3.world.WorldSyncCallback;
 import org.ladysnake.cca.internal.base.ComponentUpdatePayload;
 import org.ladysnake.cca.internal.base.MorePacketCodecs;
@@ -48,9 +48,11 @@ public final class CardinalComponentsWorld {
             ComponentUpdatePayload.register(PACKET_ID, MorePacketCodecs.EMPTY);
             WorldSyncCallback.EVENT.register((player, world) -> {
                 ComponentProvider provider = (ComponentProvider) world;
-                for (ComponentKey<?> key : provider.getComponentContainer().keys()) {
-                    key.syncWith(player, provider);
-                }
+                provider.getComponentContainer().forEachComponent((key, component) -> {
+                    if (component instanceof AutoSyncedComponent) {
+                        key.syncWith(player, provider);
+                    }
+                });
             });
         }
         if (FabricLoader.getInstance().isModLoaded("fabric-lifecycle-events-v1")) {
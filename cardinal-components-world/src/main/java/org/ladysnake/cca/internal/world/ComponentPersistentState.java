@@ -48,12 +48,14 @@ public class ComponentPersistentState extends PersistentState {
 
     @Override
     public boolean isDirty() {
-        return true;
+        return super.isDirty() || this.components.isDirty();
     }
 
     @Override
     public NbtCompound writeNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
-        return this.components.toTag(tag, registryLookup);
+        NbtCompound saved = this.components.toTag(tag, registryLookup);
+        this.components.markSaved();
+        return saved;
     }
 
     public static ComponentPersistentState fromNbt(ComponentContainer components, NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
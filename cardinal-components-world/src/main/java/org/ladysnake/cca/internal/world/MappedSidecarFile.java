@@ -0,0 +1,371 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.world;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectAVLTreeMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
+import org.jetbrains.annotations.Nullable;
+import org.ladysnake.cca.api.v3.world.SidecarFile;
+import org.ladysnake.cca.internal.base.ComponentsInternals;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link SidecarFile} read through a lazily established memory mapping.
+ *
+ * <p>The file starts with a {@value #HEADER_SIZE} bytes header (magic number, format version, page size, page count),
+ * followed by the pages themselves. Written pages are buffered until {@link #flush()}, which first writes them to
+ * a journal next to the file, then to the file itself. If the game crashes halfway through, the journal gets replayed
+ * the next time the file is opened.
+ *
+ * <p>Mappings cannot be released on demand, so the file never shrinks while it is open. Truncated pages are only
+ * excluded from the header's page count, and actually removed from disk the next time the file gets opened.
+ */
+public final class MappedSidecarFile implements SidecarFile, Closeable {
+    private static final int MAGIC = 0x43434153;    // "CCAS"
+    private static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    public static final String JOURNAL_SUFFIX = ".journal";
+    private static final int JOURNAL_MAGIC = 0x43434A4C;    // "CCJL"
+    private static final int JOURNAL_HEADER_SIZE = 16;
+
+    private final Path path;
+    private final Path journalPath;
+    private final FileChannel channel;
+    private final int pageSize;
+    private final Int2ObjectSortedMap<ByteBuffer> pendingWrites = new Int2ObjectAVLTreeMap<>();
+    private @Nullable MappedByteBuffer mapping;
+    /**
+     * The number of pages currently stored on disk, minus those that have been truncated since.
+     */
+    private int savedPageCount;
+    /**
+     * The number of pages in the header stored on disk.
+     */
+    private int headerPageCount;
+    /**
+     * The number of pages physically present in the file, including truncated ones that are still there.
+     */
+    private int filePageCount;
+    private int pageCount;
+
+    private MappedSidecarFile(Path path, FileChannel channel, int pageSize, int pageCount, int filePageCount) {
+        this.path = path;
+        this.journalPath = getJournalPath(path);
+        this.channel = channel;
+        this.pageSize = pageSize;
+        this.savedPageCount = pageCount;
+        this.headerPageCount = pageCount;
+        this.filePageCount = filePageCount;
+        this.pageCount = pageCount;
+    }
+
+    /**
+     * Opens the sidecar file at the given path, creating it if it does not exist yet.
+     *
+     * <p>If a complete journal was left over by an interrupted {@link #flush()}, it gets applied first.
+     *
+     * @param defaultPageSize the page size to use if the file gets created
+     */
+    public static MappedSidecarFile open(Path path, int defaultPageSize) throws IOException {
+        if (defaultPageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive, got " + defaultPageSize);
+        }
+
+        Files.createDirectories(path.getParent());
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+
+        try {
+            Path journal = getJournalPath(path);
+            if (Files.exists(journal)) {
+                replayJournal(path, channel, journal);
+            }
+
+            if (channel.size() < HEADER_SIZE) {
+                return new MappedSidecarFile(path, channel, defaultPageSize, 0, 0);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            header.flip();
+
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a component sidecar file: " + path);
+            }
+            int version = header.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported sidecar format version " + version + " in " + path);
+            }
+            int pageSize = header.getInt();
+            int pageCount = header.getInt();
+            long size = HEADER_SIZE + (long) pageSize * pageCount;
+            if (pageSize <= 0 || pageCount < 0 || channel.size() < size) {
+                throw new IOException("Corrupted sidecar file header in " + path);
+            }
+
+            if (channel.size() > size) {
+                // nothing is mapped yet, so pages truncated during the previous session can finally be removed
+                try {
+                    channel.truncate(size);
+                } catch (IOException e) {
+                    // e.g. on Windows, if a mapping from the previous session has not been released yet
+                    ComponentsInternals.LOGGER.debug("Failed to remove truncated pages from {}", path, e);
+                }
+            }
+
+            return new MappedSidecarFile(path, channel, pageSize, pageCount, (int) ((channel.size() - HEADER_SIZE) / pageSize));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static Path getJournalPath(Path path) {
+        return path.resolveSibling(path.getFileName() + JOURNAL_SUFFIX);
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    @Override
+    public int pageSize() {
+        return this.pageSize;
+    }
+
+    @Override
+    public int pageCount() {
+        return this.pageCount;
+    }
+
+    @Override
+    public ByteBuffer readPage(int index) throws IOException {
+        Objects.checkIndex(index, this.pageCount);
+
+        ByteBuffer pending = this.pendingWrites.get(index);
+        if (pending != null) {
+            return pending.asReadOnlyBuffer();
+        }
+
+        if (index >= this.savedPageCount) {
+            return ByteBuffer.allocate(this.pageSize).asReadOnlyBuffer();   // gap left by a write past the end
+        }
+
+        return this.getMapping().slice(HEADER_SIZE + index * this.pageSize, this.pageSize).asReadOnlyBuffer();
+    }
+
+    private MappedByteBuffer getMapping() throws IOException {
+        if (this.mapping == null) {
+            long size = HEADER_SIZE + (long) this.pageSize * this.savedPageCount;
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Sidecar file " + this.path + " is too large to be mapped (" + size + " bytes)");
+            }
+            this.mapping = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        return this.mapping;
+    }
+
+    @Override
+    public void writePage(int index, ByteBuffer data) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Negative page index " + index);
+        }
+        if (data.remaining() > this.pageSize) {
+            throw new IllegalArgumentException("Page data is " + data.remaining() + " bytes long, but pages are only " + this.pageSize + " bytes long");
+        }
+
+        ByteBuffer page = ByteBuffer.allocate(this.pageSize);
+        page.put(data.duplicate());
+        page.clear();
+        this.pendingWrites.put(index, page);
+        this.pageCount = Math.max(this.pageCount, index + 1);
+    }
+
+    @Override
+    public void truncate(int pageCount) {
+        Objects.checkIndex(pageCount, this.pageCount + 1);
+
+        if (pageCount < this.pageCount) {
+            this.pendingWrites.tailMap(pageCount).clear();
+            this.pageCount = pageCount;
+            // pages written again later must not resurrect the old data
+            this.savedPageCount = Math.min(this.savedPageCount, pageCount);
+        }
+    }
+
+    /**
+     * Writes every pending page and the updated header to the journal, then to the file itself.
+     */
+    public void flush() throws IOException {
+        if (this.pendingWrites.isEmpty() && this.pageCount == this.headerPageCount) {
+            return;
+        }
+
+        // truncated pages are still on disk, and must read as blank if the file grows back over them
+        for (int index = this.savedPageCount; index < Math.min(this.pageCount, this.filePageCount); index++) {
+            if (!this.pendingWrites.containsKey(index)) {
+                this.pendingWrites.put(index, ByteBuffer.allocate(this.pageSize));
+            }
+        }
+
+        this.writeJournal();
+
+        // pages skipped over by writes past the end are left as holes, which read as zeroes
+        for (Int2ObjectMap.Entry<ByteBuffer> entry : this.pendingWrites.int2ObjectEntrySet()) {
+            writeFully(this.channel, entry.getValue().duplicate(), HEADER_SIZE + (long) entry.getIntKey() * this.pageSize);
+        }
+        writeFully(this.channel, createHeader(this.pageSize, this.pageCount), 0);
+        this.channel.force(true);
+        Files.delete(this.journalPath);
+
+        if (!this.pendingWrites.isEmpty()) {
+            this.filePageCount = Math.max(this.filePageCount, this.pendingWrites.lastIntKey() + 1);
+        }
+        if (this.pageCount != this.savedPageCount) {
+            // the mapping no longer covers every saved page, the old one stays valid as the file never shrinks
+            this.mapping = null;
+            this.savedPageCount = this.pageCount;
+        }
+        this.headerPageCount = this.pageCount;
+        this.pendingWrites.clear();
+    }
+
+    /**
+     * Writes the journal of the pending flush, which holds the new page count, every pending page, and a checksum
+     * telling whether the journal is complete.
+     */
+    private void writeJournal() throws IOException {
+        CRC32 checksum = new CRC32();
+
+        try (FileChannel journal = FileChannel.open(this.journalPath, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER_SIZE);
+            header.putInt(JOURNAL_MAGIC).putInt(this.pageSize).putInt(this.pageCount).putInt(this.pendingWrites.size()).flip();
+            long position = append(journal, header, 0, checksum);
+
+            ByteBuffer index = ByteBuffer.allocate(Integer.BYTES);
+            for (Int2ObjectMap.Entry<ByteBuffer> entry : this.pendingWrites.int2ObjectEntrySet()) {
+                index.clear();
+                index.putInt(entry.getIntKey()).flip();
+                position = append(journal, index, position, checksum);
+                position = append(journal, entry.getValue().duplicate(), position, checksum);
+            }
+
+            ByteBuffer trailer = ByteBuffer.allocate(Integer.BYTES);
+            trailer.putInt((int) checksum.getValue()).flip();
+            writeFully(journal, trailer, position);
+            journal.force(true);
+        }
+    }
+
+    private static long append(FileChannel channel, ByteBuffer data, long position, CRC32 checksum) throws IOException {
+        int length = data.remaining();
+        checksum.update(data.duplicate());
+        writeFully(channel, data, position);
+        return position + length;
+    }
+
+    /**
+     * Applies a journal left over by an interrupted flush, or discards it if it is incomplete.
+     * In the latter case, the file itself has not been touched yet.
+     */
+    private static void replayJournal(Path path, FileChannel channel, Path journalPath) throws IOException {
+        ByteBuffer journal = ByteBuffer.wrap(Files.readAllBytes(journalPath));
+
+        if (isComplete(journal)) {
+            int pageSize = journal.getInt(4);
+            int pageCount = journal.getInt(8);
+            int entries = journal.getInt(12);
+            int position = JOURNAL_HEADER_SIZE;
+
+            for (int i = 0; i < entries; i++) {
+                int index = journal.getInt(position);
+                if (index < 0 || index >= pageCount) {
+                    throw new IOException("Corrupted sidecar journal " + journalPath);
+                }
+                writeFully(channel, journal.slice(position + Integer.BYTES, pageSize), HEADER_SIZE + (long) index * pageSize);
+                position += Integer.BYTES + pageSize;
+            }
+
+            writeFully(channel, createHeader(pageSize, pageCount), 0);
+            channel.force(true);
+            ComponentsInternals.LOGGER.warn("Recovered interrupted save of sidecar file {}", path);
+        } else {
+            ComponentsInternals.LOGGER.warn("Discarding incomplete save of sidecar file {}", path);
+        }
+
+        Files.delete(journalPath);
+    }
+
+    private static boolean isComplete(ByteBuffer journal) {
+        int length = journal.remaining();
+        if (length < JOURNAL_HEADER_SIZE + Integer.BYTES || journal.getInt(0) != JOURNAL_MAGIC) {
+            return false;
+        }
+
+        int pageSize = journal.getInt(4);
+        int pageCount = journal.getInt(8);
+        int entries = journal.getInt(12);
+        if (pageSize <= 0 || pageCount < 0 || entries < 0
+            || length != JOURNAL_HEADER_SIZE + (long) entries * (Integer.BYTES + pageSize) + Integer.BYTES) {
+            return false;
+        }
+
+        CRC32 checksum = new CRC32();
+        checksum.update(journal.slice(0, length - Integer.BYTES));
+        return (int) checksum.getValue() == journal.getInt(length - Integer.BYTES);
+    }
+
+    private static ByteBuffer createHeader(int pageSize, int pageCount) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(pageSize).putInt(pageCount).flip();
+        return header;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining() && channel.read(data, position + data.position()) >= 0) {
+            // keep reading
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.mapping = null;
+        this.channel.close();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Cardinal-Components-API
+ * Copyright (C) 2019-2024 Ladysnake
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ladysnake.cca.internal.world;
+
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.world.dimension.DimensionType;
+import org.ladysnake.cca.api.v3.component.Component;
+import org.ladysnake.cca.api.v3.component.ComponentKey;
+import org.ladysnake.cca.api.v3.world.SidecarComponent;
+import org.ladysnake.cca.internal.base.ComponentsInternals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Holds the {@linkplain MappedSidecarFile sidecar files} of a server world's {@link SidecarComponent}s.
+ */
+public final class SidecarStorage {
+    public static final String FILE_EXTENSION = ".ccas";
+
+    private final Map<SidecarComponent, MappedSidecarFile> files;
+
+    private SidecarStorage(Map<SidecarComponent, MappedSidecarFile> files) {
+        this.files = files;
+    }
+
+    /**
+     * Opens the sidecar files of every {@link SidecarComponent} attached to {@code world}.
+     */
+    public static SidecarStorage load(ServerWorld world) {
+        Map<SidecarComponent, MappedSidecarFile> files = new IdentityHashMap<>();
+        Path directory = DimensionType.getSaveDirectory(world.getRegistryKey(), world.getServer().getSavePath(WorldSavePath.ROOT))
+            .resolve("data")
+            .resolve("cardinal_components");
+
+        for (ComponentKey<?> key : world.asComponentProvider().getComponentContainer().keys()) {
+            Component component = key.getInternal(world.asComponentProvider().getComponentContainer());
+            if (component instanceof SidecarComponent sidecar) {
+                Identifier id = key.getId();
+                Path path = directory.resolve(id.getNamespace()).resolve(id.getPath() + FILE_EXTENSION);
+                try {
+                    MappedSidecarFile file = MappedSidecarFile.open(path, sidecar.getPageSize());
+                    sidecar.loadSidecar(file);
+                    files.put(sidecar, file);
+                } catch (IOException e) {
+                    // not registering the file prevents saves from overwriting data we failed to read
+                    ComponentsInternals.LOGGER.error("Failed to open sidecar storage for component {} in {}", id, world.getRegistryKey().getValue(), e);
+                }
+            }
+        }
+
+        return new SidecarStorage(files);
+    }
+
+    /**
+     * Lets every sidecar component write its changes, then flushes them to disk.
+     */
+    public void save() {
+        for (Map.Entry<SidecarComponent, MappedSidecarFile> entry : this.files.entrySet()) {
+            try {
+                entry.getKey().saveSidecar(entry.getValue());
+                entry.getValue().flush();
+            } catch (IOException e) {
+                ComponentsInternals.LOGGER.error("Failed to save sidecar component data to {}", entry.getValue().getPath(), e);
+            }
+        }
+    }
+
+    public void close() {
+        for (MappedSidecarFile file : this.files.values()) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                ComponentsInternals.LOGGER.error("Failed to close sidecar component file {}", file.getPath(), e);
+            }
+        }
+        this.files.clear();
+    }
+}
@@ -32,6 +32,7 @@ import org.ladysnake.cca.api.v3.component.sync.AutoSyncedComponent;
 import org.ladysnake.cca.internal.base.ComponentUpdatePayload;
 import org.ladysnake.cca.internal.world.CardinalComponentsWorld;
 import org.ladysnake.cca.internal.world.ComponentPersistentState;
+import org.ladysnake.cca.internal.world.SidecarStorage;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.Unique;
@@ -52,6 +53,9 @@ public abstract class MixinServerWorld extends MixinWorld {
     @Unique
     private static final String PERSISTENT_STATE_KEY = "cardinal_world_components";
 
+    @Unique
+    private SidecarStorage sidecarStorage;
+
     @Inject(at = @At("RETURN"), method = "<init>*")
     private void constructor(CallbackInfo ci) {
         try {
@@ -63,6 +67,17 @@ public abstract class MixinServerWorld extends MixinWorld {
         } finally {
             ComponentPersistentState.LOADING.set(false);
         }
+        this.sidecarStorage = SidecarStorage.load((ServerWorld) (Object) this);
+    }
+
+    @Inject(method = "saveLevel", at = @At("TAIL"))
+    private void saveSidecarComponents(CallbackInfo ci) {
+        this.sidecarStorage.save();
+    }
+
+    @Inject(method = "close", at = @At("RETURN"))
+    private void closeSidecarComponents(CallbackInfo ci) {
+        this.sidecarStorage.close();
     }
 
     @Inject(method = "tick", at = @At("RETURN"))
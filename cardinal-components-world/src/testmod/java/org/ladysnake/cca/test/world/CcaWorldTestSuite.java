@@ -26,11 +26,19 @@ import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
 import net.minecraft.test.GameTest;
 import net.minecraft.test.TestContext;
 import net.minecraft.world.World;
+import org.ladysnake.cca.internal.world.MappedSidecarFile;
+import org.ladysnake.cca.internal.world.SidecarStorage;
 import org.ladysnake.cca.test.base.LoadAwareTestComponent;
 import org.ladysnake.cca.test.base.Vita;
 import org.ladysnake.elmendorf.GameTestUtil;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 public class CcaWorldTestSuite implements FabricGameTest {
     @GameTest(templateName = EMPTY_STRUCTURE)
@@ -52,4 +60,74 @@ public class CcaWorldTestSuite implements FabricGameTest {
             ctx.complete();
         });
     }
+
+    @GameTest(templateName = EMPTY_STRUCTURE)
+    public void sidecarFilesRoundTrip(TestContext ctx) throws IOException {
+        Path directory = Files.createTempDirectory("cca-sidecar");
+        Path path = directory.resolve("test" + SidecarStorage.FILE_EXTENSION);
+        Path journal = directory.resolve("test" + SidecarStorage.FILE_EXTENSION + MappedSidecarFile.JOURNAL_SUFFIX);
+
+        try {
+            try (MappedSidecarFile file = MappedSidecarFile.open(path, 16)) {
+                file.writePage(0, ByteBuffer.wrap(new byte[] {7}));
+                file.writePage(2, ByteBuffer.wrap(new byte[] {1, 2, 3}));
+                GameTestUtil.assertTrue("Writing past the end should extend the file", file.pageCount() == 3);
+                file.flush();
+            }
+
+            try (MappedSidecarFile file = MappedSidecarFile.open(path, 32)) {
+                GameTestUtil.assertTrue("Existing files should keep their page size", file.pageSize() == 16 && file.pageCount() == 3);
+                GameTestUtil.assertTrue("Skipped pages should be blank", file.readPage(1).get(0) == 0);
+                ByteBuffer page = file.readPage(2);
+                GameTestUtil.assertTrue("Saved pages should be read back", page.remaining() == 16 && page.get(0) == 1 && page.get(2) == 3 && page.get(3) == 0);
+                file.truncate(1);
+                file.flush();
+                file.writePage(2, ByteBuffer.wrap(new byte[] {4}));
+                file.flush();
+            }
+
+            try (MappedSidecarFile file = MappedSidecarFile.open(path, 16)) {
+                GameTestUtil.assertTrue("Truncated pages should read as blank once the file grows back", file.pageCount() == 3 && file.readPage(1).get(0) == 0);
+                GameTestUtil.assertTrue("Pages written after a truncation should be saved", file.readPage(2).get(0) == 4);
+                file.truncate(1);
+                file.flush();
+                GameTestUtil.assertTrue("Open files should not shrink", Files.size(path) == 16 + 3 * 16);
+            }
+
+            GameTestUtil.assertTrue("Saves should not leave their journal behind", !Files.exists(journal));
+            Files.write(journal, new byte[] {1, 2, 3});     // left over by a crash in the middle of a save
+
+            try (MappedSidecarFile file = MappedSidecarFile.open(path, 16)) {
+                GameTestUtil.assertTrue("Incomplete journals should be discarded", !Files.exists(journal));
+                GameTestUtil.assertTrue("Incomplete journals should not be applied", file.pageCount() == 1 && file.readPage(0).get(0) == 7);
+            }
+
+            // this file never gets mapped, as mappings left over by previous sessions may prevent shrinking on some platforms
+            Path unmapped = directory.resolve("unmapped" + SidecarStorage.FILE_EXTENSION);
+            try (MappedSidecarFile file = MappedSidecarFile.open(unmapped, 16)) {
+                file.writePage(2, ByteBuffer.wrap(new byte[] {1}));
+                file.flush();
+                file.truncate(1);
+                file.flush();
+            }
+            MappedSidecarFile.open(unmapped, 16).close();
+            GameTestUtil.assertTrue("Truncated pages should be removed from disk once the file gets opened again", Files.size(unmapped) == 16 + 16);
+        } finally {
+            deleteRecursively(directory);
+        }
+        ctx.complete();
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    // mapped files cannot be deleted on some platforms until their mapping gets garbage collected
+                    file.toFile().deleteOnExit();
+                }
+            }
+        }
+    }
 }